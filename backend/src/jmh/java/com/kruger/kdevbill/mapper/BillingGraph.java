@@ -0,0 +1,92 @@
+package com.kruger.kdevbill.mapper;
+
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.BillingCycle;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Grafo fijo de entidades con la forma de una página real: pocos planes compartidos,
+// un cliente con su usuario por suscripción y una factura por suscripción.
+class BillingGraph {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 31);
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 31, 9, 30, 15);
+
+    final List<Customer> customers = new ArrayList<>();
+    final List<Subscription> subscriptions = new ArrayList<>();
+    final List<Invoice> invoices = new ArrayList<>();
+
+    BillingGraph(int size) {
+        List<Plan> plans = List.of(
+                plan(1L, "Starter", "9.99", BillingCycle.MONTHLY),
+                plan(2L, "Professional", "29.99", BillingCycle.MONTHLY),
+                plan(3L, "Business", "99.00", BillingCycle.MONTHLY),
+                plan(4L, "Professional yearly", "299.00", BillingCycle.YEARLY),
+                plan(5L, "Enterprise yearly", "999.00", BillingCycle.YEARLY));
+        for (int i = 0; i < size; i++) {
+            long id = 1000L + i;
+            User owner = User.builder()
+                    .id(id)
+                    .username("customer-" + id)
+                    .email("customer-" + id + "@kdevbill.com")
+                    .password("n/a")
+                    .role(Role.USER)
+                    .build();
+            Customer customer = Customer.builder()
+                    .id(id)
+                    .name("Customer " + id + " S.A.")
+                    .email("billing-" + id + "@customers.kdevbill.com")
+                    .createdAt(CREATED_AT.plusMinutes(i))
+                    .owner(owner)
+                    .build();
+            Plan plan = plans.get(i % plans.size());
+            LocalDate startDate = START.plusDays(i % 365);
+            Subscription subscription = Subscription.builder()
+                    .id(id)
+                    .status(i % 10 == 0 ? SubscriptionStatus.CANCELED : SubscriptionStatus.ACTIVE)
+                    .startDate(startDate)
+                    .nextBillingDate(plan.getBillingCycle() == BillingCycle.MONTHLY
+                            ? startDate.plusMonths(1) : startDate.plusYears(1))
+                    .createdAt(CREATED_AT.plusMinutes(i))
+                    .customer(customer)
+                    .plan(plan)
+                    .build();
+            Invoice invoice = Invoice.builder()
+                    .id(id)
+                    .amount(plan.getPrice())
+                    .status(i % 3 == 0 ? InvoiceStatus.OPEN : InvoiceStatus.PAID)
+                    .dueDate(startDate.plusDays(7))
+                    .issuedAt(CREATED_AT.plusMinutes(i))
+                    .subscription(subscription)
+                    .build();
+            customers.add(customer);
+            subscriptions.add(subscription);
+            invoices.add(invoice);
+        }
+    }
+
+    static SubscriptionMapper subscriptionMapper() {
+        return new SubscriptionMapper(new PlanMapper(), new CustomerMapper());
+    }
+
+    private static Plan plan(Long id, String name, String price, BillingCycle billingCycle) {
+        return Plan.builder()
+                .id(id)
+                .name(name)
+                .price(new BigDecimal(price))
+                .billingCycle(billingCycle)
+                .active(true)
+                .build();
+    }
+}
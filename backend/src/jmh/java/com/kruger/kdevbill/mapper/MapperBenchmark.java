@@ -0,0 +1,70 @@
+package com.kruger.kdevbill.mapper;
+
+import com.kruger.kdevbill.dto.response.CustomerResponse;
+import com.kruger.kdevbill.dto.response.InvoiceResponse;
+import com.kruger.kdevbill.dto.response.SubscriptionResponse;
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.Subscription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Conversión entidad -> DTO de una página completa, tal como la hacen los listados.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private BillingGraph graph;
+    private SubscriptionMapper subscriptionMapper;
+    private CustomerMapper customerMapper;
+    private InvoiceMapper invoiceMapper;
+
+    @Setup
+    public void setUp() {
+        graph = new BillingGraph(pageSize);
+        subscriptionMapper = BillingGraph.subscriptionMapper();
+        customerMapper = new CustomerMapper();
+        invoiceMapper = new InvoiceMapper();
+    }
+
+    @Benchmark
+    public List<SubscriptionResponse> subscriptionPage() {
+        List<SubscriptionResponse> page = new ArrayList<>(pageSize);
+        for (Subscription subscription : graph.subscriptions) {
+            page.add(subscriptionMapper.toSubscriptionResponse(subscription));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<CustomerResponse> customerPage() {
+        List<CustomerResponse> page = new ArrayList<>(pageSize);
+        for (Customer customer : graph.customers) {
+            page.add(customerMapper.toCustomerResponse(customer));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<InvoiceResponse> invoicePage() {
+        List<InvoiceResponse> page = new ArrayList<>(pageSize);
+        for (Invoice invoice : graph.invoices) {
+            page.add(invoiceMapper.toInvoiceResponse(invoice));
+        }
+        return page;
+    }
+}
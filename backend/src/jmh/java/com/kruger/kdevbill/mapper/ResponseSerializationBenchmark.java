@@ -0,0 +1,88 @@
+package com.kruger.kdevbill.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kruger.kdevbill.dto.response.CursorPage;
+import com.kruger.kdevbill.dto.response.DashboardStatsResponse;
+import com.kruger.kdevbill.dto.response.InvoiceResponse;
+import com.kruger.kdevbill.dto.response.SubscriptionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización JSON de las respuestas con un ObjectMapper configurado como el de Spring Boot
+// (fechas ISO, JavaTimeModule), que es lo que paga cada request al escribir el body.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private SubscriptionResponse subscription;
+    private CursorPage<SubscriptionResponse> subscriptionPage;
+    private CursorPage<InvoiceResponse> invoicePage;
+    private DashboardStatsResponse dashboardStats;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        BillingGraph graph = new BillingGraph(pageSize);
+        SubscriptionMapper subscriptionMapper = BillingGraph.subscriptionMapper();
+        InvoiceMapper invoiceMapper = new InvoiceMapper();
+        List<SubscriptionResponse> subscriptions = graph.subscriptions.stream()
+                .map(subscriptionMapper::toSubscriptionResponse)
+                .toList();
+        subscription = subscriptions.get(0);
+        subscriptionPage = new CursorPage<>(subscriptions, "MjAyNC0wMS0zMVQwOTozMDoxNXwxMDE5");
+        invoicePage = new CursorPage<>(graph.invoices.stream().map(invoiceMapper::toInvoiceResponse).toList(),
+                "MjAyNC0wMS0zMVQwOTozMDoxNXwxMDE5");
+        dashboardStats = DashboardStatsResponse.builder()
+                .totalCustomers(125_000)
+                .totalSubscriptions(180_000)
+                .totalActiveSubscriptions(151_234)
+                .totalInvoices(2_400_000)
+                .openInvoices(48_211)
+                .paidInvoices(2_351_789)
+                .successfulPayments(2_351_789)
+                .failedPayments(73_402)
+                .totalRevenue(new BigDecimal("71234567.89"))
+                .monthlyRevenue(new BigDecimal("2987654.32"))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] singleSubscription() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subscription);
+    }
+
+    @Benchmark
+    public byte[] subscriptionPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subscriptionPage);
+    }
+
+    @Benchmark
+    public byte[] invoicePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(invoicePage);
+    }
+
+    @Benchmark
+    public byte[] dashboardStats() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dashboardStats);
+    }
+}
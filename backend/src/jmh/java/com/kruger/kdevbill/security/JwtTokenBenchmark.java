@@ -0,0 +1,67 @@
+package com.kruger.kdevbill.security;
+
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Emisión de tokens (login/registro) y el camino que recorre el filtro en cada request:
+// verificar el token y armar el principal desde los claims, sin ir a la base.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenBenchmark {
+
+    private static final String SECRET_KEY = "vSBUb8LdD5FzJgRmKpTnWqYt0wUaHc1e+eJkXo+Zl2U=";
+    private static final long EXPIRATION = 86400000L;
+    private static final Long CUSTOMER_ID = 42L;
+
+    private User user;
+    private String token;
+    private JwtService uncachedService;
+    private JwtService cachedService;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(1L)
+                .username("benchmark-user")
+                .email("benchmark@kdevbill.com")
+                .password("n/a")
+                .role(Role.USER)
+                .build();
+        ApplicationMetrics metrics = new ApplicationMetrics(new SimpleMeterRegistry());
+        uncachedService = new JwtService(SECRET_KEY, EXPIRATION, 0, 300000, metrics);
+        cachedService = new JwtService(SECRET_KEY, EXPIRATION, 10000, 300000, metrics);
+        token = cachedService.generateToken(user, CUSTOMER_ID);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateTokenWithCustomer() {
+        return uncachedService.generateToken(user, CUSTOMER_ID);
+    }
+
+    @Benchmark
+    public JwtPrincipal filterPathUncached() {
+        return uncachedService.resolvePrincipal(uncachedService.verifyToken(token));
+    }
+
+    @Benchmark
+    public JwtPrincipal filterPathCached() {
+        return cachedService.resolvePrincipal(cachedService.verifyToken(token));
+    }
+}
@@ -0,0 +1,81 @@
+package com.kruger.kdevbill.security;
+
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Compara la verificación anterior (clave y parser por llamada, tres parseos por request)
+// con el parseo único sobre estado inmutable, con y sin caché de claims verificados.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET_KEY = "vSBUb8LdD5FzJgRmKpTnWqYt0wUaHc1e+eJkXo+Zl2U=";
+    private static final long EXPIRATION = 86400000L;
+
+    private User user;
+    private String token;
+    private JwtService uncachedService;
+    private JwtService cachedService;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(1L)
+                .username("benchmark-user")
+                .email("benchmark@kdevbill.com")
+                .password("n/a")
+                .role(Role.USER)
+                .build();
+        ApplicationMetrics metrics = new ApplicationMetrics(new SimpleMeterRegistry());
+        uncachedService = new JwtService(SECRET_KEY, EXPIRATION, 0, 300000, metrics);
+        cachedService = new JwtService(SECRET_KEY, EXPIRATION, 10000, 300000, metrics);
+        token = cachedService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyClaims(token).getSubject().equals(user.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = uncachedService.verifyToken(token);
+        return uncachedService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean cachedVerification() {
+        Claims claims = cachedService.verifyToken(token);
+        return cachedService.isTokenValid(claims, user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
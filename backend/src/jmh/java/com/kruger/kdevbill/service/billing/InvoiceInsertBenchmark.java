@@ -0,0 +1,123 @@
+package com.kruger.kdevbill.service.billing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Creación masiva de facturas antes y después de pasar de IDENTITY a secuencias pooled-lo:
+// - identityRowByRow: lo que hace Hibernate con IDENTITY, un INSERT y una lectura de la clave por fila.
+// - pooledSequenceBatch: ids reservados por bloques de 50 y un único batch JDBC por operación.
+// Corre sobre H2 en memoria, donde un round trip cuesta microsegundos; contra Postgres en red la
+// diferencia crece con la latencia de cada viaje.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InvoiceInsertBenchmark {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({"1000"})
+    private int invoices;
+
+    private Connection connection;
+    private Date dueDate;
+    private Timestamp issuedAt;
+    private final BigDecimal amount = new BigDecimal("19.99");
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:invoice-insert;MODE=PostgreSQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_invoices (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, amount DECIMAL(10, 2) NOT NULL, " +
+                    "status VARCHAR(50) NOT NULL, due_date DATE NOT NULL, issued_at TIMESTAMP NOT NULL, " +
+                    "subscription_id BIGINT NOT NULL)");
+            statement.execute("CREATE SEQUENCE invoices_id_seq INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("CREATE TABLE invoices (" +
+                    "id BIGINT PRIMARY KEY, amount DECIMAL(10, 2) NOT NULL, " +
+                    "status VARCHAR(50) NOT NULL, due_date DATE NOT NULL, issued_at TIMESTAMP NOT NULL, " +
+                    "subscription_id BIGINT NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        dueDate = Date.valueOf(LocalDate.now().plusDays(7));
+        issuedAt = Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identityRowByRow() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO identity_invoices (amount, status, due_date, issued_at, subscription_id) " +
+                "VALUES (?, 'OPEN', ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < invoices; i++) {
+                insert.setBigDecimal(1, amount);
+                insert.setDate(2, dueDate);
+                insert.setTimestamp(3, issuedAt);
+                insert.setLong(4, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooledSequenceBatch() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement nextBlock = connection.prepareStatement("SELECT nextval('invoices_id_seq')");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO invoices (id, amount, status, due_date, issued_at, subscription_id) " +
+                     "VALUES (?, ?, 'OPEN', ?, ?, ?)")) {
+            long nextId = 0;
+            long blockEnd = 0;
+            for (int i = 0; i < invoices; i++) {
+                if (nextId == blockEnd) {
+                    try (ResultSet block = nextBlock.executeQuery()) {
+                        block.next();
+                        nextId = block.getLong(1);
+                        blockEnd = nextId + ALLOCATION_SIZE;
+                    }
+                }
+                lastId = nextId++;
+                insert.setLong(1, lastId);
+                insert.setBigDecimal(2, amount);
+                insert.setDate(3, dueDate);
+                insert.setTimestamp(4, issuedAt);
+                insert.setLong(5, i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return lastId;
+    }
+}
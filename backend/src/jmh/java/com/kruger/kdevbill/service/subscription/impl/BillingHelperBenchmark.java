@@ -0,0 +1,70 @@
+package com.kruger.kdevbill.service.subscription.impl;
+
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.enums.BillingCycle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Cálculo de la próxima fecha de cobro que corre por cada suscripción en alta, renovación y
+// corrida de facturación. Las fechas recorren un año bisiesto completo para incluir los fines
+// de mes que LocalDate ajusta (31/01 -> 29/02).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BillingHelperBenchmark {
+
+    private static final int RENEWALS = 12;
+
+    @Param({"MONTHLY", "YEARLY"})
+    private BillingCycle billingCycle;
+
+    private BillingHelper billingHelper;
+    private Plan plan;
+    private LocalDate[] startDates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        billingHelper = new BillingHelper();
+        plan = Plan.builder()
+                .id(1L)
+                .name("Benchmark plan")
+                .price(new BigDecimal("29.99"))
+                .billingCycle(billingCycle)
+                .active(true)
+                .build();
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        startDates = new LocalDate[first.lengthOfYear()];
+        for (int i = 0; i < startDates.length; i++) {
+            startDates[i] = first.plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public LocalDate nextBillingDate() {
+        LocalDate startDate = startDates[next];
+        next = next + 1 == startDates.length ? 0 : next + 1;
+        return billingHelper.calculateNextBillingDate(startDate, plan);
+    }
+
+    // Una suscripción que se pone al día con un año de renovaciones pendientes
+    @Benchmark
+    public LocalDate renewalChain() {
+        LocalDate date = startDates[next];
+        next = next + 1 == startDates.length ? 0 : next + 1;
+        for (int i = 0; i < RENEWALS; i++) {
+            date = billingHelper.calculateNextBillingDate(date, plan);
+        }
+        return date;
+    }
+}
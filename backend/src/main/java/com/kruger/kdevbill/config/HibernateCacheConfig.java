@@ -0,0 +1,66 @@
+package com.kruger.kdevbill.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Caché de segundo nivel de Hibernate sobre JCache (Caffeine). Las regiones de entidades, natural ids y
+// consultas tienen tamaño y TTL configurables; la de timestamps no expira porque es la que invalida las
+// consultas cacheadas. Una región que no esté declarada aquí hace fallar el arranque.
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final List<String> BOUNDED_REGIONS = List.of(
+            "plans",
+            "users",
+            "users-by-username",
+            "customers",
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${application.hibernate.cache.max-entries:10000}") long maxEntries,
+            @Value("${application.hibernate.cache.ttl:600000}") long ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Un CacheManager propio por contexto: el de la URI por defecto es compartido por toda la JVM
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("kdevbill-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : BOUNDED_REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = byReference();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttl)));
+            cacheManager.createCache(region, configuration);
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, byReference());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // Hibernate ya guarda el estado desensamblado de la entidad; copiarlo otra vez por valor no aporta nada
+    private static CaffeineConfiguration<Object, Object> byReference() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
@@ -0,0 +1,37 @@
+package com.kruger.kdevbill.config;
+
+import com.kruger.kdevbill.service.querystats.QueryStatsListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Envuelve el DataSource con datasource-proxy para contar y medir cada sentencia (ver QueryStatsFilter).
+// Reemplaza a spring.jpa.show-sql: nada se imprime salvo las sentencias lentas y los posibles N+1.
+@Configuration
+@ConditionalOnProperty(name = "application.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsConfig {
+
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourcePostProcessor(
+            @Value("${application.query-stats.slow-threshold:500}") long slowThresholdMs) {
+        QueryStatsListener listener = new QueryStatsListener(slowThresholdMs);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.kruger.kdevbill.controller;
 import com.kruger.kdevbill.dto.request.LoginRequest;
 import com.kruger.kdevbill.dto.request.RegisterRequest;
 import com.kruger.kdevbill.dto.response.AuthResponse;
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
 import com.kruger.kdevbill.service.auth.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -70,11 +71,20 @@ public class AuthController {
 
     @PostMapping("/admin/migrate-customers")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "ADMIN: Migrar usuarios legacy", description = "Crea customer profiles para todos los usuarios USER que no tengan uno (solo ADMIN)")
-    @ApiResponse(responseCode = "200", description = "Migración completada exitosamente")
+    @Operation(summary = "ADMIN: Migrar usuarios legacy", description = "Crea en segundo plano los customer profiles de los usuarios USER que no tengan uno, por rangos de id. Se puede ejecutar varias veces sin duplicar customers (solo ADMIN)")
+    @ApiResponse(responseCode = "202", description = "Migración encolada")
     @ApiResponse(responseCode = "403", description = "Acceso denegado - Solo para administradores")
-    public ResponseEntity<Map<String, Object>> migrateCustomersForLegacyUsers() {
-        Map<String, Object> result = authService.createMissingCustomers();
-        return ResponseEntity.ok(result);
+    @ApiResponse(responseCode = "409", description = "Ya hay una migración en curso")
+    public ResponseEntity<JobExecutionResponse> migrateCustomersForLegacyUsers() {
+        return ResponseEntity.accepted().body(authService.startCustomerMigration());
+    }
+
+    @GetMapping("/admin/migrate-customers/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "ADMIN: Estado de la migración", description = "Progreso de la migración de usuarios legacy: usuarios revisados, customers creados y omitidos (solo ADMIN)")
+    @ApiResponse(responseCode = "200", description = "Estado obtenido")
+    @ApiResponse(responseCode = "404", description = "Migración no encontrada")
+    public ResponseEntity<JobExecutionResponse> getCustomerMigration(@PathVariable Long id) {
+        return ResponseEntity.ok(authService.getCustomerMigration(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.dto.response.BillingRunResponse;
+import com.kruger.kdevbill.service.billing.BillingRunService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/admin/billing-runs")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Facturación", description = "Corridas de facturación de suscripciones vencidas (Solo administradores)")
+@SecurityRequirement(name = "bearerAuth")
+public class BillingRunController {
+
+    private final BillingRunService billingRunService;
+
+    @PostMapping
+    @Operation(summary = "Ejecutar corrida de facturación", description = "Genera las facturas de las suscripciones activas vencidas a la fecha de corte. Repetir la corrida no duplica facturas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Corrida completada"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado"),
+            @ApiResponse(responseCode = "409", description = "Ya hay una corrida en curso")
+    })
+    public ResponseEntity<BillingRunResponse> runBilling(
+            @Parameter(description = "Fecha de corte (por defecto hoy)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate runDate) {
+        return ResponseEntity.ok(billingRunService.runBilling(runDate != null ? runDate : LocalDate.now()));
+    }
+}
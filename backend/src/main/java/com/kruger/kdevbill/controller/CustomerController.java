@@ -42,13 +42,15 @@ public class CustomerController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Listar todos los clientes", description = "Obtiene la lista completa de clientes (Solo administradores)")
+    @Operation(summary = "Listar todos los clientes", description = "Obtiene la lista de clientes paginada por cursor (Solo administradores)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de clientes obtenida exitosamente"),
             @ApiResponse(responseCode = "403", description = "Acceso denegado")
     })
-    public ResponseEntity<List<CustomerResponse>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<List<CustomerResponse>> getAllCustomers(
+            @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(customerService.getAllCustomers(cursor, size));
     }
 
     @GetMapping("/me")
@@ -0,0 +1,58 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.dto.response.DashboardChartResponse;
+import com.kruger.kdevbill.dto.response.DashboardStatsResponse;
+import com.kruger.kdevbill.service.dashboard.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Dashboard", description = "Estadísticas globales a partir de contadores agregados (Solo administradores)")
+@SecurityRequirement(name = "bearerAuth")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/stats")
+    @Operation(summary = "Estadísticas generales", description = "Totales de clientes, suscripciones, facturas, pagos e ingresos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<DashboardStatsResponse> getStats() {
+        return ResponseEntity.ok(dashboardService.getStats());
+    }
+
+    @GetMapping("/charts")
+    @Operation(summary = "Series para gráficos", description = "Ingresos, pagos, altas y facturas emitidas por día (week, month) o por mes (year)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Series obtenidas"),
+            @ApiResponse(responseCode = "400", description = "Periodo inválido"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<DashboardChartResponse> getCharts(
+            @Parameter(description = "Periodo: week, month o year") @RequestParam(defaultValue = "month") String period) {
+        return ResponseEntity.ok(dashboardService.getCharts(period));
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Recalcular agregados", description = "Recalcula contadores y series desde las tablas de facturación; corrige cualquier diferencia acumulada")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Agregados recalculados"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<DashboardStatsResponse> rebuild() {
+        return ResponseEntity.ok(dashboardService.rebuild());
+    }
+}
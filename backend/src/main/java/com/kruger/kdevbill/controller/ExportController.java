@@ -0,0 +1,96 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.service.export.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/admin/exports")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Exportaciones", description = "Exportación masiva de datos en formato NDJSON (Solo administradores)")
+@SecurityRequirement(name = "bearerAuth")
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportService exportService;
+
+    @GetMapping("/customers")
+    @Operation(summary = "Exportar clientes", description = "Exporta los clientes como NDJSON, filtrando opcionalmente por fecha de creación")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación generada"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @Parameter(description = "Fecha inicial (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha final (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Comprimir la salida con gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("customers", gzip, out -> exportService.exportCustomers(from, to, out));
+    }
+
+    @GetMapping("/invoices")
+    @Operation(summary = "Exportar facturas", description = "Exporta las facturas como NDJSON, filtrando opcionalmente por estado y fecha de emisión")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación generada"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @Parameter(description = "Estado de la factura") @RequestParam(required = false) InvoiceStatus status,
+            @Parameter(description = "Fecha inicial (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha final (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Comprimir la salida con gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("invoices", gzip, out -> exportService.exportInvoices(status, from, to, out));
+    }
+
+    @GetMapping("/payments")
+    @Operation(summary = "Exportar pagos", description = "Exporta los pagos como NDJSON, filtrando opcionalmente por estado y fecha de pago")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación generada"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @Parameter(description = "Estado del pago") @RequestParam(required = false) PaymentStatus status,
+            @Parameter(description = "Fecha inicial (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Fecha final (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Comprimir la salida con gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream("payments", gzip, out -> exportService.exportPayments(status, from, to, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String dataset, boolean gzip, Consumer<OutputStream> export) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                export.accept(gzipOut);
+                gzipOut.finish();
+            } else {
+                export.accept(out);
+            }
+        };
+        String filename = dataset + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
@@ -1,5 +1,6 @@
 package com.kruger.kdevbill.controller;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -28,6 +29,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(Map.of("error", "Access Denied", "message", ex.getMessage()), HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        if (ex.getMessage() != null && ex.getMessage().toLowerCase().contains("already")) {
+            return new ResponseEntity<>(Map.of("error", "Conflict", "message", ex.getMessage()), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(Map.of("error", "Bad Request", "message", String.valueOf(ex.getMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    // Conflictos de concurrencia detectados por la base (lock timeout, serialización)
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return new ResponseEntity<>(Map.of("error", "Conflict", "message", "The resource was modified by a concurrent request"), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleEntityNotFound(RuntimeException ex) {
         if (ex.getMessage().toLowerCase().contains("not found")) {
@@ -2,7 +2,9 @@ package com.kruger.kdevbill.controller;
 
 import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.dto.response.PaymentResponse;
+import com.kruger.kdevbill.service.idempotency.IdempotencyService;
 import com.kruger.kdevbill.service.invoice.InvoiceService;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -23,15 +25,19 @@ import java.util.List;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final IdempotencyService idempotencyService;
+    private final ApplicationMetrics applicationMetrics;
 
     @GetMapping
-    @Operation(summary = "Obtener mis facturas", description = "Obtiene todas las facturas del cliente autenticado")
+    @Operation(summary = "Obtener mis facturas", description = "Obtiene las facturas del cliente autenticado, paginadas por cursor (header X-Next-Cursor)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de facturas obtenida exitosamente"),
             @ApiResponse(responseCode = "401", description = "Usuario no autenticado")
     })
-    public ResponseEntity<List<InvoiceResponse>> getMyInvoices() {
-        return ResponseEntity.ok(invoiceService.getMyInvoices());
+    public ResponseEntity<List<InvoiceResponse>> getMyInvoices(
+            @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(invoiceService.getMyInvoices(cursor, size));
     }
 
     @GetMapping("/{id}")
@@ -47,15 +53,19 @@ public class InvoiceController {
     }
 
     @PostMapping("/{id}/pay")
-    @Operation(summary = "Pagar factura", description = "Procesa el pago de una factura pendiente")
+    @Operation(summary = "Pagar factura", description = "Registra el pago de una factura pendiente y lo envía a la pasarela; el resultado se aplica de forma asíncrona. Con el header Idempotency-Key los reintentos devuelven la respuesta original sin volver a cobrar")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Pago procesado exitosamente"),
+            @ApiResponse(responseCode = "202", description = "Pago aceptado, queda PENDING hasta que responda la pasarela"),
             @ApiResponse(responseCode = "400", description = "Factura ya pagada o datos inválidos"),
             @ApiResponse(responseCode = "403", description = "Acceso denegado"),
-            @ApiResponse(responseCode = "404", description = "Factura no encontrada")
+            @ApiResponse(responseCode = "404", description = "Factura no encontrada"),
+            @ApiResponse(responseCode = "409", description = "La factura ya fue pagada o tiene un pago en curso (incluye pagos concurrentes) o el Idempotency-Key está en uso")
     })
     public ResponseEntity<PaymentResponse> payInvoice(
-            @Parameter(description = "ID de la factura a pagar", required = true) @PathVariable Long id) {
-        return ResponseEntity.ok(invoiceService.payInvoice(id));
+            @Parameter(description = "ID de la factura a pagar", required = true) @PathVariable Long id,
+            @Parameter(description = "Clave única del intento de pago, reutilizada en los reintentos") @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /invoices/" + id + "/pay", PaymentResponse.class,
+                () -> ResponseEntity.accepted().body(
+                        applicationMetrics.getInvoicePay().record(() -> invoiceService.payInvoice(id))));
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.dto.response.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+// El cuerpo sigue siendo un arreglo JSON; el cursor de la página siguiente viaja en un header
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        return ok(page, null);
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page, String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+}
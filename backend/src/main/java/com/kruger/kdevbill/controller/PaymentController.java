@@ -24,13 +24,15 @@ public class PaymentController {
     private final PaymentService paymentService;
 
     @GetMapping
-    @Operation(summary = "Obtener mis pagos", description = "Obtiene todos los pagos del cliente autenticado")
+    @Operation(summary = "Obtener mis pagos", description = "Obtiene los pagos del cliente autenticado, paginados por cursor (header X-Next-Cursor)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de pagos obtenida exitosamente"),
             @ApiResponse(responseCode = "401", description = "Usuario no autenticado")
     })
-    public ResponseEntity<List<PaymentResponse>> getMyPayments() {
-        return ResponseEntity.ok(paymentService.getMyPayments());
+    public ResponseEntity<List<PaymentResponse>> getMyPayments(
+            @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(paymentService.getMyPayments(cursor, size));
     }
 
     @GetMapping("/{id}")
@@ -15,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -41,12 +42,21 @@ public class PlanController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar todos los planes", description = "Obtiene la lista completa de planes disponibles")
+    @Operation(summary = "Listar todos los planes", description = "Obtiene la lista de planes disponibles, paginada por cursor (header X-Next-Cursor). Responde 304 si el ETag enviado en If-None-Match sigue vigente")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de planes obtenida exitosamente")
+            @ApiResponse(responseCode = "200", description = "Lista de planes obtenida exitosamente"),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde el ETag indicado")
     })
-    public ResponseEntity<List<PlanResponse>> getAllPlans() {
-        return ResponseEntity.ok(planService.getAllPlans());
+    public ResponseEntity<List<PlanResponse>> getAllPlans(
+            @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        // El ETag se lee antes que los datos: si el catálogo cambia en medio, el cliente solo pierde un 304
+        String etag = planService.getPlansETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return PageResponses.ok(planService.getAllPlans(cursor, size), etag);
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,42 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.service.querystats.QueryStats;
+import com.kruger.kdevbill.service.querystats.QueryStatsFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+// Con application.query-stats.headers=true, cada respuesta con cuerpo indica cuántas sentencias JDBC y
+// cuánto tiempo de base costó hasta ese momento. Lo que se ejecute al serializar no alcanza a contarse.
+@ControllerAdvice
+@ConditionalOnProperty(name = "application.query-stats.headers", havingValue = "true")
+public class QueryStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(QueryStatsFilter.REQUEST_ATTRIBUTE) instanceof QueryStats stats) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(stats.getStatements()));
+            response.getHeaders().set(QUERY_TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.getElapsedMillis()));
+        }
+        return body;
+    }
+}
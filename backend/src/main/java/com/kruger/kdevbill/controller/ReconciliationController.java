@@ -0,0 +1,78 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
+import com.kruger.kdevbill.dto.response.ReconciliationUnmatchedLineResponse;
+import com.kruger.kdevbill.service.reconciliation.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/reconciliations")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Conciliación", description = "Importación de archivos de liquidación del banco (Solo administradores)")
+@SecurityRequirement(name = "bearerAuth")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importar liquidación", description = "Recibe un CSV con las columnas reference,amount (encabezado opcional) y lo procesa en segundo plano. Los pagos encontrados quedan SUCCESS y sus facturas PAID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Importación encolada"),
+            @ApiResponse(responseCode = "400", description = "Archivo vacío"),
+            @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    })
+    public ResponseEntity<JobExecutionResponse> importSettlement(
+            @Parameter(description = "Archivo CSV de liquidación", required = true) @RequestPart("file") MultipartFile file) {
+        return ResponseEntity.accepted().body(reconciliationService.startImport(file));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Estado de la importación", description = "Progreso y totales de líneas conciliadas y sin coincidencia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado obtenido"),
+            @ApiResponse(responseCode = "404", description = "Importación no encontrada")
+    })
+    public ResponseEntity<JobExecutionResponse> getImport(
+            @Parameter(description = "ID de la importación", required = true) @PathVariable Long id) {
+        return ResponseEntity.ok(reconciliationService.getJob(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Reanudar importación", description = "Reanuda una importación fallida o abandonada desde la última línea confirmada")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Importación reanudada"),
+            @ApiResponse(responseCode = "404", description = "Importación no encontrada"),
+            @ApiResponse(responseCode = "409", description = "La importación ya terminó o sigue en curso")
+    })
+    public ResponseEntity<JobExecutionResponse> resumeImport(
+            @Parameter(description = "ID de la importación", required = true) @PathVariable Long id) {
+        return ResponseEntity.accepted().body(reconciliationService.resumeJob(id));
+    }
+
+    @GetMapping("/{id}/unmatched")
+    @Operation(summary = "Líneas sin coincidencia", description = "Líneas del archivo que no coinciden con ningún pago, paginadas por cursor (header X-Next-Cursor)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Líneas obtenidas"),
+            @ApiResponse(responseCode = "404", description = "Importación no encontrada")
+    })
+    public ResponseEntity<List<ReconciliationUnmatchedLineResponse>> getUnmatchedLines(
+            @Parameter(description = "ID de la importación", required = true) @PathVariable Long id,
+            @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(reconciliationService.getUnmatchedLines(id, cursor, size));
+    }
+}
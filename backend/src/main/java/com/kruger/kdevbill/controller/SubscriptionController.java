@@ -2,8 +2,12 @@ package com.kruger.kdevbill.controller;
 
 import com.kruger.kdevbill.dto.request.SubscriptionCreateRequest;
 import com.kruger.kdevbill.dto.request.SubscriptionUpdateRequest;
+import com.kruger.kdevbill.dto.response.BulkSubscriptionResponse;
 import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.dto.response.SubscriptionResponse;
+import com.kruger.kdevbill.service.idempotency.IdempotencyService;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
+import com.kruger.kdevbill.service.subscription.BulkSubscriptionService;
 import com.kruger.kdevbill.service.subscription.SubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,9 +18,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -27,6 +35,11 @@ import java.util.List;
 public class SubscriptionController {
 
         private final SubscriptionService subscriptionService;
+        private final IdempotencyService idempotencyService;
+        private final BulkSubscriptionService bulkSubscriptionService;
+        // Se mide aquí y no en el servicio para que el tiempo incluya el flush y el commit, y que un commit
+        // fallido quede como error y no como éxito
+        private final ApplicationMetrics applicationMetrics;
 
         @PostMapping
         @Operation(summary = "Crear suscripción", description = "Crea una nueva suscripción a un plan. " +
@@ -40,17 +53,48 @@ public class SubscriptionController {
         })
         public ResponseEntity<SubscriptionResponse> createSubscription(
                         @Valid @RequestBody SubscriptionCreateRequest request) {
-                return new ResponseEntity<>(subscriptionService.createSubscription(request), HttpStatus.CREATED);
+                return new ResponseEntity<>(
+                                applicationMetrics.getSubscriptionCreate().record(() -> subscriptionService.createSubscription(request)),
+                                HttpStatus.CREATED);
+        }
+
+        @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+        @Operation(summary = "Crear suscripciones en lote", description = "Crea una suscripción y su primera factura por cada elemento del arreglo. " +
+                        "Como en el alta individual, una fila sin customerId usa el cliente del usuario autenticado (se crea si no existe); " +
+                        "un ADMIN debe indicar customerId en cada fila y un usuario que no es ADMIN solo puede usar sus propios clientes. " +
+                        "Devuelve el resultado de cada fila: las filas inválidas no impiden crear las demás.")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Lote procesado; revisar el resultado de cada fila"),
+                        @ApiResponse(responseCode = "400", description = "Lote vacío o con más filas que el máximo permitido")
+        })
+        public ResponseEntity<BulkSubscriptionResponse> createSubscriptionsBulk(
+                        @RequestBody List<SubscriptionCreateRequest> requests) {
+                return ResponseEntity.ok(bulkSubscriptionService.createSubscriptions(requests));
+        }
+
+        @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        @Operation(summary = "Crear suscripciones en lote desde CSV", description = "Igual que el lote JSON, leyendo un archivo CSV con las columnas customerId,planId (encabezado opcional); customerId puede quedar vacío con las mismas reglas")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Lote procesado; revisar el resultado de cada fila"),
+                        @ApiResponse(responseCode = "400", description = "Archivo vacío, encabezado inválido o con más filas que el máximo permitido")
+        })
+        public ResponseEntity<BulkSubscriptionResponse> createSubscriptionsBulkFromCsv(
+                        @Parameter(description = "Archivo CSV con las filas customerId,planId", required = true) @RequestPart("file") MultipartFile file) throws IOException {
+                try (InputStream csv = file.getInputStream()) {
+                        return ResponseEntity.ok(bulkSubscriptionService.createSubscriptionsFromCsv(csv));
+                }
         }
 
         @GetMapping
-        @Operation(summary = "Obtener mis suscripciones", description = "Obtiene todas las suscripciones del cliente autenticado")
+        @Operation(summary = "Obtener mis suscripciones", description = "Obtiene las suscripciones del cliente autenticado, paginadas por cursor (header X-Next-Cursor)")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Lista de suscripciones obtenida exitosamente"),
                         @ApiResponse(responseCode = "401", description = "Usuario no autenticado")
         })
-        public ResponseEntity<List<SubscriptionResponse>> getMySubscriptions() {
-                return ResponseEntity.ok(subscriptionService.getMySubscriptions());
+        public ResponseEntity<List<SubscriptionResponse>> getMySubscriptions(
+                        @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size) {
+                return PageResponses.ok(subscriptionService.getMySubscriptions(cursor, size));
         }
 
         @GetMapping("/customer/{customerId}")
@@ -61,8 +105,10 @@ public class SubscriptionController {
                         @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
         })
         public ResponseEntity<List<SubscriptionResponse>> getSubscriptionsByCustomer(
-                        @Parameter(description = "ID del cliente", required = true) @PathVariable Long customerId) {
-                return ResponseEntity.ok(subscriptionService.getSubscriptionsByCustomerId(customerId));
+                        @Parameter(description = "ID del cliente", required = true) @PathVariable Long customerId,
+                        @Parameter(description = "Cursor devuelto en el header X-Next-Cursor de la página anterior") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Tamaño de página (por defecto, el máximo configurado)") @RequestParam(required = false) Integer size) {
+                return PageResponses.ok(subscriptionService.getSubscriptionsByCustomerId(customerId, cursor, size));
         }
 
         @PutMapping("/{id}")
@@ -80,15 +126,19 @@ public class SubscriptionController {
         }
 
         @PostMapping("/{id}/renew")
-        @Operation(summary = "Renovar suscripción", description = "Renueva una suscripción y genera una nueva factura")
+        @Operation(summary = "Renovar suscripción", description = "Renueva una suscripción y genera una nueva factura. Con el header Idempotency-Key los reintentos devuelven la factura original sin generar otra")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Suscripción renovada exitosamente"),
                         @ApiResponse(responseCode = "400", description = "Suscripción no puede ser renovada"),
                         @ApiResponse(responseCode = "403", description = "Acceso denegado"),
-                        @ApiResponse(responseCode = "404", description = "Suscripción no encontrada")
+                        @ApiResponse(responseCode = "404", description = "Suscripción no encontrada"),
+                        @ApiResponse(responseCode = "409", description = "Idempotency-Key en uso por otro request o usada para otra operación")
         })
         public ResponseEntity<InvoiceResponse> renewSubscription(
-                        @Parameter(description = "ID de la suscripción a renovar", required = true) @PathVariable Long id) {
-                return ResponseEntity.ok(subscriptionService.renewSubscription(id));
+                        @Parameter(description = "ID de la suscripción a renovar", required = true) @PathVariable Long id,
+                        @Parameter(description = "Clave única del intento de renovación, reutilizada en los reintentos") @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+                return idempotencyService.execute(idempotencyKey, "POST /subscriptions/" + id + "/renew", InvoiceResponse.class,
+                                () -> ResponseEntity.ok(
+                                                applicationMetrics.getSubscriptionRenew().record(() -> subscriptionService.renewSubscription(id))));
         }
 }
\ No newline at end of file
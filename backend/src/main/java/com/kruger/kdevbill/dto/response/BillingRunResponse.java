@@ -0,0 +1,23 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BillingRunResponse {
+
+    private LocalDate runDate;
+    private long subscriptionsBilled;
+    private long invoicesCreated;
+    // Suscripciones que otra ejecución concurrente ya había facturado
+    private long subscriptionsSkipped;
+    private long durationMs;
+    private long subscriptionsPerSecond;
+}
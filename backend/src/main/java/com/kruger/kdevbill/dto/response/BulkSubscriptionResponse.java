@@ -0,0 +1,23 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkSubscriptionResponse {
+
+    private int totalRows;
+    private int created;
+    private int failed;
+    private long durationMs;
+    private long rowsPerSecond;
+    // Un resultado por fila, en el orden de la entrada
+    private List<BulkSubscriptionRowResult> rows;
+}
@@ -0,0 +1,22 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkSubscriptionRowResult {
+
+    // Número de fila de datos, empezando en 1 (sin contar el encabezado del CSV)
+    private int row;
+    private Long customerId;
+    private Long planId;
+    private boolean created;
+    private Long subscriptionId;
+    private Long invoiceId;
+    private String error;
+}
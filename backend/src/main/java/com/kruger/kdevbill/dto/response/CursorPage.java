@@ -0,0 +1,14 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    // null cuando no hay más resultados
+    private String nextCursor;
+}
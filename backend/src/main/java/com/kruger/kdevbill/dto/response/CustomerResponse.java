@@ -1,9 +1,13 @@
 package com.kruger.kdevbill.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CustomerResponse {
     private Long id;
     private String name;
@@ -0,0 +1,25 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardChartPoint {
+
+    // Primer día del intervalo: un día para week/month, un mes para year
+    private LocalDate date;
+    private BigDecimal revenue;
+    private long successfulPayments;
+    private long failedPayments;
+    private long newSubscriptions;
+    private long newCustomers;
+    private long invoicesIssued;
+}
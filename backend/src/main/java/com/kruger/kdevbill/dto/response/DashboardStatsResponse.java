@@ -0,0 +1,27 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardStatsResponse {
+
+    private long totalCustomers;
+    private long totalSubscriptions;
+    private long totalActiveSubscriptions;
+    private long totalInvoices;
+    // Incluye las facturas en PROCESSING
+    private long openInvoices;
+    private long paidInvoices;
+    private long successfulPayments;
+    private long failedPayments;
+    private BigDecimal totalRevenue;
+    private BigDecimal monthlyRevenue;
+}
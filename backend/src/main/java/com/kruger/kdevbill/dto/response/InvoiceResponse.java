@@ -1,12 +1,16 @@
 package com.kruger.kdevbill.dto.response;
 
 import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class InvoiceResponse {
     private Long id;
     private BigDecimal amount;
@@ -0,0 +1,31 @@
+package com.kruger.kdevbill.dto.response;
+
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.entity.enums.JobType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobExecutionResponse {
+
+    private Long id;
+    private JobType type;
+    private JobStatus status;
+    private long totalItems;
+    private long processedItems;
+    private long succeededItems;
+    private long failedItems;
+    // 0-100; 0 mientras no se conoce el total
+    private double percentComplete;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
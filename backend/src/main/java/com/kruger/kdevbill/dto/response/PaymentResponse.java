@@ -2,11 +2,15 @@ package com.kruger.kdevbill.dto.response;
 
 import com.kruger.kdevbill.entity.enums.PaymentMethod;
 import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class PaymentResponse {
     private Long id;
     private BigDecimal amount;
@@ -0,0 +1,17 @@
+package com.kruger.kdevbill.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationUnmatchedLineResponse {
+    private long lineNumber;
+    private String reference;
+    private BigDecimal amount;
+    private String reason;
+}
@@ -1,11 +1,16 @@
 package com.kruger.kdevbill.dto.response;
 
+import com.kruger.kdevbill.entity.enums.BillingCycle;
 import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class SubscriptionResponse {
     private Long id;
     private SubscriptionStatus status;
@@ -15,4 +20,28 @@ public class SubscriptionResponse {
     
     private PlanResponse plan;
     private CustomerBasicResponse customer;
+
+    // Usado por las proyecciones JPQL que arman la respuesta en una sola consulta
+    public SubscriptionResponse(Long id, SubscriptionStatus status, LocalDate startDate, LocalDate nextBillingDate,
+                                LocalDateTime createdAt, Long planId, String planName, BigDecimal planPrice,
+                                BillingCycle planBillingCycle, boolean planActive, Long customerId,
+                                String customerName, String customerEmail) {
+        this.id = id;
+        this.status = status;
+        this.startDate = startDate;
+        this.nextBillingDate = nextBillingDate;
+        this.createdAt = createdAt;
+
+        this.plan = new PlanResponse();
+        this.plan.setId(planId);
+        this.plan.setName(planName);
+        this.plan.setPrice(planPrice);
+        this.plan.setBillingCycle(planBillingCycle);
+        this.plan.setActive(planActive);
+
+        this.customer = new CustomerBasicResponse();
+        this.customer.setId(customerId);
+        this.customer.setName(customerName);
+        this.customer.setEmail(customerEmail);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.kruger.kdevbill.entity;
+
+import com.kruger.kdevbill.entity.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = @UniqueConstraint(
+        name = "uk_idempotency_keys_user_key", columnNames = {"user_id", "idempotency_key"}))
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_id_seq")
+    @SequenceGenerator(name = "idempotency_keys_id_seq", sequenceName = "idempotency_keys_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    // Método y ruta del request original; la misma clave no puede reutilizarse para otra operación
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyStatus status;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,72 @@
+package com.kruger.kdevbill.entity;
+
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.entity.enums.JobType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Estado y progreso de un trabajo en segundo plano. El checkpoint se guarda en la misma transacción
+// que cada chunk procesado, así un trabajo interrumpido se reanuda desde el último chunk confirmado.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_executions")
+public class JobExecution {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_executions_id_seq")
+    @SequenceGenerator(name = "job_executions_id_seq", sequenceName = "job_executions_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private JobStatus status;
+
+    // Entrada del trabajo, p. ej. el nombre del archivo subido (el contenido va en job_input_blocks)
+    @Column(columnDefinition = "TEXT")
+    private String parameters;
+
+    @Column(nullable = false)
+    private long totalItems;
+
+    @Column(nullable = false)
+    private long processedItems;
+
+    @Column(nullable = false)
+    private long succeededItems;
+
+    @Column(nullable = false)
+    private long failedItems;
+
+    // Última posición confirmada (línea del archivo, id, etc. según el tipo de trabajo)
+    @Column(name = "checkpoint_position", nullable = false)
+    private long checkpoint;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    private Long createdBy;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    // Latido del trabajo: un RUNNING sin actualizar por mucho tiempo se considera abandonado
+    private LocalDateTime updatedAt;
+}
@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, precision = 10, scale = 2)
@@ -39,7 +40,7 @@ public class Payment {
     @Column(nullable = false, updatable = false)
     private LocalDateTime paidAt;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String reference;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
@@ -15,10 +17,12 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Entity
 @Table(name = "plans")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "plans")
 public class Plan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "plans_id_seq")
+    @SequenceGenerator(name = "plans_id_seq", sequenceName = "plans_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,38 @@
+package com.kruger.kdevbill.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reconciliation_unmatched_lines", uniqueConstraints = @UniqueConstraint(
+        name = "uk_reconciliation_unmatched_job_line", columnNames = {"job_id", "line_number"}))
+public class ReconciliationUnmatchedLine {
+
+    // Se insertan por batch JDBC sin id explícito
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false)
+    private long lineNumber;
+
+    private String reference;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String reason;
+}
@@ -21,7 +21,8 @@ import java.util.List;
 public class Subscription {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscriptions_id_seq")
+    @SequenceGenerator(name = "subscriptions_id_seq", sequenceName = "subscriptions_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
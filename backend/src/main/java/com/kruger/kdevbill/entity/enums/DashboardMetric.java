@@ -0,0 +1,13 @@
+package com.kruger.kdevbill.entity.enums;
+
+// Métricas agregadas del dashboard; las de flujo (altas, pagos) también se acumulan por día
+public enum DashboardMetric {
+    CUSTOMERS,
+    SUBSCRIPTIONS,
+    ACTIVE_SUBSCRIPTIONS,
+    INVOICES,
+    OPEN_INVOICES,
+    PAID_INVOICES,
+    SUCCESSFUL_PAYMENTS,
+    FAILED_PAYMENTS
+}
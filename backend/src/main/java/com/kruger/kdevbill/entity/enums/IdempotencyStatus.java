@@ -0,0 +1,6 @@
+package com.kruger.kdevbill.entity.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
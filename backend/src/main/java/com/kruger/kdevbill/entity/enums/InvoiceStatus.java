@@ -2,6 +2,7 @@ package com.kruger.kdevbill.entity.enums;
 
 public enum InvoiceStatus {
     OPEN,
+    PROCESSING,
     PAID,
     VOID
 }
\ No newline at end of file
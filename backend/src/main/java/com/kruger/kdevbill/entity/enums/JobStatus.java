@@ -0,0 +1,8 @@
+package com.kruger.kdevbill.entity.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.kruger.kdevbill.entity.enums;
+
+public enum JobType {
+    BANK_RECONCILIATION,
+    CUSTOMER_MIGRATION
+}
@@ -0,0 +1,19 @@
+package com.kruger.kdevbill.entity.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Cada evento pertenece a un agregado; el relay respeta el orden dentro de cada agregado
+@Getter
+@RequiredArgsConstructor
+public enum OutboxEventType {
+    SUBSCRIPTION_CREATED("SUBSCRIPTION"),
+    SUBSCRIPTION_UPDATED("SUBSCRIPTION"),
+    INVOICE_ISSUED("INVOICE"),
+    INVOICE_PAID("INVOICE"),
+    PAYMENT_FAILED("INVOICE"),
+    // Cobro aprobado que no pudo aplicarse porque la factura ya no estaba en PROCESSING: requiere revisión
+    PAYMENT_UNAPPLIED("INVOICE");
+
+    private final String aggregateType;
+}
@@ -1,6 +1,7 @@
 package com.kruger.kdevbill.entity.enums;
 
 public enum PaymentStatus {
+    PENDING,
     SUCCESS,
     FAILED
 }
\ No newline at end of file
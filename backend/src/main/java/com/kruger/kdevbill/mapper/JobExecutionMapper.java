@@ -0,0 +1,33 @@
+package com.kruger.kdevbill.mapper;
+
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
+import com.kruger.kdevbill.entity.JobExecution;
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JobExecutionMapper {
+
+    public JobExecutionResponse toJobExecutionResponse(JobExecution job) {
+        double percent = 0;
+        if (job.getStatus() == JobStatus.COMPLETED) {
+            percent = 100;
+        } else if (job.getTotalItems() > 0) {
+            percent = Math.min(100, Math.floor(job.getProcessedItems() * 1000.0 / job.getTotalItems()) / 10);
+        }
+        return JobExecutionResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .totalItems(job.getTotalItems())
+                .processedItems(job.getProcessedItems())
+                .succeededItems(job.getSucceededItems())
+                .failedItems(job.getFailedItems())
+                .percentComplete(percent)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -1,23 +1,44 @@
 package com.kruger.kdevbill.repository;
 
+import com.kruger.kdevbill.dto.response.CustomerResponse;
 import com.kruger.kdevbill.entity.Customer;
-import com.kruger.kdevbill.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
-    Optional<Customer> findByOwner(User owner);
-
+    // Caché de consultas: Hibernate la invalida en cuanto se escribe la tabla customers
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Customer> findByOwnerId(Long userId);
 
-    @Query("SELECT c FROM Customer c WHERE c.owner.username = :username")
-    Optional<Customer> findByOwnerUsername(@Param("username") String username);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT c.id FROM Customer c WHERE c.owner.id = :userId")
+    Optional<Long> findIdByOwnerId(@Param("userId") Long userId);
 
     boolean existsByEmail(String email);
+
+    // Paginación keyset sobre (created_at, id), más recientes primero; proyección directa al DTO
+    @Query("SELECT new com.kruger.kdevbill.dto.response.CustomerResponse(" +
+            "c.id, c.name, c.email, c.createdAt, o.username) " +
+            "FROM Customer c JOIN c.owner o " +
+            "WHERE c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CustomerResponse> findPage(@Param("createdAt") LocalDateTime createdAt,
+                            @Param("id") Long id,
+                            Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT c.owner.id FROM Customer c WHERE c.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
 }
\ No newline at end of file
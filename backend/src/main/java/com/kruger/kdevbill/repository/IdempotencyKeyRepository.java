@@ -0,0 +1,39 @@
+package com.kruger.kdevbill.repository;
+
+import com.kruger.kdevbill.entity.IdempotencyKey;
+import com.kruger.kdevbill.entity.enums.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Solo completa la reserva propia: si fue liberada por vencida, el id ya no existe y no se actualiza nada
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = :status, k.responseStatus = :responseStatus, " +
+            "k.responseBody = :responseBody WHERE k.id = :id AND k.status = :claimed")
+    int complete(@Param("id") Long id,
+                 @Param("claimed") IdempotencyStatus claimed,
+                 @Param("status") IdempotencyStatus status,
+                 @Param("responseStatus") Integer responseStatus,
+                 @Param("responseBody") String responseBody);
+
+    // Libera una reserva abandonada (p. ej. la instancia que la tomó se cayó a mitad del request)
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.status = :status AND k.createdAt < :before")
+    int deleteStaleClaim(@Param("id") Long id,
+                         @Param("status") IdempotencyStatus status,
+                         @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,10 +1,16 @@
 package com.kruger.kdevbill.repository;
 
+import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.entity.Invoice;
 import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +18,31 @@ import java.util.Optional;
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     List<Invoice> findBySubscription_CustomerId(Long customerId);
+
+    // Paginación keyset sobre (issued_at, id), más recientes primero; proyección directa al DTO
+    @Query("SELECT new com.kruger.kdevbill.dto.response.InvoiceResponse(" +
+            "i.id, i.amount, i.status, i.dueDate, i.issuedAt, s.id) " +
+            "FROM Invoice i JOIN i.subscription s " +
+            "WHERE s.customer.id = :customerId " +
+            "AND (i.issuedAt < :issuedAt OR (i.issuedAt = :issuedAt AND i.id < :id)) " +
+            "ORDER BY i.issuedAt DESC, i.id DESC")
+    List<InvoiceResponse> findPageByCustomerId(@Param("customerId") Long customerId,
+                                       @Param("issuedAt") LocalDateTime issuedAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
     
     Optional<Invoice> findByIdAndStatus(Long id, InvoiceStatus status);
+
+    // Factura con su suscripción, plan y customer (incluye el user_id del dueño) en una sola consulta
+    @Query("SELECT i FROM Invoice i " +
+            "JOIN FETCH i.subscription s " +
+            "JOIN FETCH s.customer c " +
+            "JOIN FETCH s.plan p " +
+            "WHERE i.id = :id")
+    Optional<Invoice> findWithOwnerById(@Param("id") Long id);
+
+    // Compare-and-set del estado: devuelve 0 si otra transacción ya cambió la factura
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Invoice i SET i.status = :to WHERE i.id = :id AND i.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") InvoiceStatus from, @Param("to") InvoiceStatus to);
 }
\ No newline at end of file
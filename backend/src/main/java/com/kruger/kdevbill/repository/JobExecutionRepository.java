@@ -0,0 +1,57 @@
+package com.kruger.kdevbill.repository;
+
+import com.kruger.kdevbill.entity.JobExecution;
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.entity.enums.JobType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JobExecutionRepository extends JpaRepository<JobExecution, Long> {
+
+    List<JobExecution> findByTypeAndStatusIn(JobType type, Collection<JobStatus> statuses);
+
+    // Toma el trabajo si está en espera, falló o quedó abandonado; devuelve 0 si otro hilo o instancia lo tiene
+    @Modifying
+    @Query("UPDATE JobExecution j SET j.status = com.kruger.kdevbill.entity.enums.JobStatus.RUNNING, " +
+            "j.startedAt = COALESCE(j.startedAt, :now), j.updatedAt = :now, j.errorMessage = NULL " +
+            "WHERE j.id = :id AND (j.status IN :claimable " +
+            "OR (j.status = com.kruger.kdevbill.entity.enums.JobStatus.RUNNING AND j.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id,
+              @Param("claimable") Collection<JobStatus> claimable,
+              @Param("staleBefore") LocalDateTime staleBefore,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE JobExecution j SET j.totalItems = :totalItems, j.updatedAt = :now WHERE j.id = :id")
+    int updateTotal(@Param("id") Long id, @Param("totalItems") long totalItems, @Param("now") LocalDateTime now);
+
+    // Se ejecuta en la transacción de cada chunk: contadores y checkpoint avanzan junto con los datos
+    @Modifying
+    @Query("UPDATE JobExecution j SET j.checkpoint = :checkpoint, " +
+            "j.processedItems = j.processedItems + :processed, " +
+            "j.succeededItems = j.succeededItems + :succeeded, " +
+            "j.failedItems = j.failedItems + :failed, " +
+            "j.updatedAt = :now WHERE j.id = :id")
+    int recordProgress(@Param("id") Long id,
+                       @Param("checkpoint") long checkpoint,
+                       @Param("processed") long processed,
+                       @Param("succeeded") long succeeded,
+                       @Param("failed") long failed,
+                       @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE JobExecution j SET j.status = :status, j.errorMessage = :errorMessage, " +
+            "j.finishedAt = :now, j.updatedAt = :now WHERE j.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") JobStatus status,
+               @Param("errorMessage") String errorMessage,
+               @Param("now") LocalDateTime now);
+}
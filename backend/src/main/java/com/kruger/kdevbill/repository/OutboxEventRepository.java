@@ -0,0 +1,40 @@
+package com.kruger.kdevbill.repository;
+
+import com.kruger.kdevbill.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // FOR UPDATE sin SKIP LOCKED: dos relays se turnan en lugar de repartirse un agregado y desordenarlo.
+    // Keyset por id para que un agregado retenido no vuelva a ocupar cada lote; los agregados con un evento
+    // estacionado quedan fuera hasta que alguien lo libere.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.parkedAt IS NULL AND e.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM OutboxEvent p WHERE p.parkedAt IS NOT NULL " +
+            "AND p.aggregateType = e.aggregateType AND p.aggregateId = e.aggregateId) " +
+            "ORDER BY e.id")
+    List<OutboxEvent> findUnpublishedForUpdate(@Param("afterId") long afterId, Pageable pageable);
+
+    long countByPublishedAtIsNull();
+
+    long countByParkedAtIsNotNull();
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,13 +1,52 @@
 package com.kruger.kdevbill.repository;
 
+import com.kruger.kdevbill.dto.response.PaymentResponse;
 import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByInvoice_Subscription_CustomerId(Long customerId);
-}
\ No newline at end of file
+
+    // Paginación keyset sobre (paid_at, id), más recientes primero; proyección directa al DTO
+    @Query("SELECT new com.kruger.kdevbill.dto.response.PaymentResponse(" +
+            "p.id, p.amount, p.method, p.status, p.paidAt, p.reference, i.id) " +
+            "FROM Payment p JOIN p.invoice i JOIN i.subscription s " +
+            "WHERE s.customer.id = :customerId " +
+            "AND (p.paidAt < :paidAt OR (p.paidAt = :paidAt AND p.id < :id)) " +
+            "ORDER BY p.paidAt DESC, p.id DESC")
+    List<PaymentResponse> findPageByCustomerId(@Param("customerId") Long customerId,
+                                       @Param("paidAt") LocalDateTime paidAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    // Pago con la cadena factura -> suscripción -> customer para resolver el dueño en una sola consulta
+    @Query("SELECT p FROM Payment p " +
+            "JOIN FETCH p.invoice i " +
+            "JOIN FETCH i.subscription s " +
+            "JOIN FETCH s.customer c " +
+            "WHERE p.id = :id")
+    Optional<Payment> findWithOwnerById(@Param("id") Long id);
+
+    // Compare-and-set del estado: devuelve 0 si el resultado ya se aplicó
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :to WHERE p.id = :id AND p.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") PaymentStatus from, @Param("to") PaymentStatus to);
+
+    // paid_at se fija al registrar el pago, así que para los PENDING marca cuándo se solicitó
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.paidAt < :before ORDER BY p.id")
+    List<Long> findIdsByStatusRequestedBefore(@Param("status") PaymentStatus status,
+                                              @Param("before") LocalDateTime before,
+                                              Pageable pageable);
+}
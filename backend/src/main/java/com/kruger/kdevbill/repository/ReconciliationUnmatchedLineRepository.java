@@ -0,0 +1,25 @@
+package com.kruger.kdevbill.repository;
+
+import com.kruger.kdevbill.dto.response.ReconciliationUnmatchedLineResponse;
+import com.kruger.kdevbill.entity.ReconciliationUnmatchedLine;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationUnmatchedLineRepository extends JpaRepository<ReconciliationUnmatchedLine, Long> {
+
+    // Paginación keyset por número de línea sobre la restricción única (job_id, line_number)
+    @Query("SELECT new com.kruger.kdevbill.dto.response.ReconciliationUnmatchedLineResponse(" +
+            "l.lineNumber, l.reference, l.amount, l.reason) " +
+            "FROM ReconciliationUnmatchedLine l " +
+            "WHERE l.jobId = :jobId AND l.lineNumber > :afterLine " +
+            "ORDER BY l.lineNumber")
+    List<ReconciliationUnmatchedLineResponse> findPageByJobId(@Param("jobId") Long jobId,
+                                                              @Param("afterLine") long afterLine,
+                                                              Pageable pageable);
+}
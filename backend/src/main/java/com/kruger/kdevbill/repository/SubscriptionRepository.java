@@ -1,12 +1,16 @@
 package com.kruger.kdevbill.repository;
 
+import com.kruger.kdevbill.dto.response.SubscriptionResponse;
 import com.kruger.kdevbill.entity.Subscription;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
@@ -16,4 +20,23 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
             "LEFT JOIN FETCH s.plan p " +
             "WHERE c.id = :customerId")
     List<Subscription> findByCustomerId(@Param("customerId") Long customerId);
+
+    // Paginación keyset sobre (created_at, id), más recientes primero; proyección directa al DTO
+    @Query("SELECT new com.kruger.kdevbill.dto.response.SubscriptionResponse(" +
+            "s.id, s.status, s.startDate, s.nextBillingDate, s.createdAt, " +
+            "p.id, p.name, p.price, p.billingCycle, p.active, c.id, c.name, c.email) " +
+            "FROM Subscription s JOIN s.customer c JOIN s.plan p " +
+            "WHERE c.id = :customerId " +
+            "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+            "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SubscriptionResponse> findPageByCustomerId(@Param("customerId") Long customerId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query("SELECT s FROM Subscription s " +
+            "JOIN FETCH s.customer c " +
+            "JOIN FETCH s.plan p " +
+            "WHERE s.id = :id")
+    Optional<Subscription> findWithOwnerById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.kruger.kdevbill.repository;
+
+import com.kruger.kdevbill.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByUsername(String username);
+}
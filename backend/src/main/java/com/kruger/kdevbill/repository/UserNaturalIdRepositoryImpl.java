@@ -0,0 +1,26 @@
+package com.kruger.kdevbill.repository;
+
+import com.kruger.kdevbill.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Busca por username como natural id: Hibernate resuelve username -> id desde el caché de natural ids
+// y la entidad desde el caché de segundo nivel, sin consultar la base cuando ambos aciertan
+class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Fuera de una transacción el EntityManager compartido se cierra tras cada llamada, incluida unwrap
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
@@ -1,6 +1,7 @@
 package com.kruger.kdevbill.security;
 
 import com.kruger.kdevbill.repository.UserRepository;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +19,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final ApplicationMetrics applicationMetrics;
 
     @Bean
     public UserDetailsService userDetailsService() {
@@ -27,7 +29,7 @@ public class ApplicationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), applicationMetrics);
     }
 
     @Bean
@@ -1,5 +1,8 @@
 package com.kruger.kdevbill.security;
 
+import com.kruger.kdevbill.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,10 +10,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -22,6 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    // El contexto se guarda en el request: el dispatch ASYNC de las respuestas en streaming no vuelve a pasar
+    // por este filtro y lo recupera de ahí
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
 
     @Override
     protected void doFilterInternal(
@@ -48,19 +57,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
+        final Claims claims;
+        try {
+            claims = jwtService.verifyToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token inválido o vencido: el request sigue como anónimo y termina en 401
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            JwtPrincipal principal = jwtService.resolvePrincipal(claims);
+
+            // Tokens antiguos sin id/rol en los claims: se resuelve el usuario una única vez
+            if (principal == null) {
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                if (userDetails instanceof User user && jwtService.isTokenValid(claims, userDetails)) {
+                    principal = JwtPrincipal.of(user, null);
+                }
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities());
+                        principal.getAuthorities());
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authToken);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
             }
         }
         filterChain.doFilter(request, response);
@@ -0,0 +1,44 @@
+package com.kruger.kdevbill.security;
+
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+
+// Identidad del request construida a partir de los claims firmados del JWT, sin consultar la base de datos
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class JwtPrincipal implements Principal {
+
+    private final Long id;
+    private final String username;
+    private final Role role;
+    private final Long customerId;
+    // Emisión del token: el claim del customer solo vale si es posterior al último cambio de ese vínculo
+    private final Instant issuedAt;
+
+    public static JwtPrincipal of(User user, Long customerId) {
+        return new JwtPrincipal(user.getId(), user.getUsername(), user.getRole(), customerId, null);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+}
@@ -1,65 +1,158 @@
 package com.kruger.kdevbill.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Timer;
 
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
+    private static final String ROLE_CLAIM = "role";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String CUSTOMER_ID_CLAIM = "cid";
 
-    @Value("${application.security.jwt.expiration}")
-    private long jwtExpiration;
+    private static final ThreadLocal<MessageDigest> TOKEN_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final long jwtExpiration;
+    private final SecretKey signInKey;
+    private final JwtParser jwtParser;
+    private final ApplicationMetrics applicationMetrics;
+
+    // Claims ya verificados, indexados por el digest del token (null si la caché está deshabilitada)
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JwtService(
+            @Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.jwt.cache.max-entries:10000}") long cacheMaxEntries,
+            @Value("${application.security.jwt.cache.ttl:300000}") long cacheTtl,
+            ApplicationMetrics applicationMetrics) {
+        this.jwtExpiration = jwtExpiration;
+        this.applicationMetrics = applicationMetrics;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+        this.verifiedClaims = cacheMaxEntries > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheMaxEntries)
+                        .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(cacheTtl)))
+                        .build()
+                : null;
+    }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> extraClaims = new HashMap<>();
         if (userDetails instanceof User) {
-            extraClaims.put("role", ((User) userDetails).getRole().name());
+            extraClaims.put(ROLE_CLAIM, ((User) userDetails).getRole().name());
+            extraClaims.put(USER_ID_CLAIM, ((User) userDetails).getId());
         }
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
+    public String generateToken(User user, Long customerId) {
+        Map<String, Object> extraClaims = new HashMap<>();
+        extraClaims.put(ROLE_CLAIM, user.getRole().name());
+        extraClaims.put(USER_ID_CLAIM, user.getId());
+        if (customerId != null) {
+            extraClaims.put(CUSTOMER_ID_CLAIM, customerId);
+        }
+        return buildToken(extraClaims, user, jwtExpiration);
+    }
+
+    // Devuelve null para tokens emitidos antes de incluir el id y rol del usuario en los claims
+    public JwtPrincipal resolvePrincipal(Claims claims) {
+        Long userId = longClaim(claims, USER_ID_CLAIM);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null || isTokenExpired(claims)) {
+            return null;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return new JwtPrincipal(userId, claims.getSubject(), Role.valueOf(role),
+                longClaim(claims, CUSTOMER_ID_CLAIM), issuedAt == null ? null : issuedAt.toInstant());
+    }
+
+    // Verifica firma y expiración una sola vez; los tokens ya verificados se sirven desde la caché
+    public Claims verifyToken(String token) {
+        long start = System.nanoTime();
+        if (verifiedClaims == null) {
+            return parseTimed(token, start);
+        }
+        String key = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            applicationMetrics.getTokenVerifyCached().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        }
+        claims = parseTimed(token, start);
+        verifiedClaims.put(key, claims);
+        return claims;
+    }
+
+    private Claims parseTimed(String token, long start) {
+        try {
+            Claims claims = extractAllClaims(token);
+            applicationMetrics.getTokenVerifyParsed().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            applicationMetrics.getTokenRejected().increment();
+            throw e;
+        }
+    }
+
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verifyToken(token), userDetails);
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String extractUsername(String token) {
+        return verifyToken(token).getSubject();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static Long longClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value instanceof Number ? ((Number) value).longValue() : null;
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -68,18 +161,52 @@ public class JwtService {
             Map<String, Object> extraClaims,
             UserDetails userDetails,
             long expiration) {
-        return Jwts
+        Timer.Sample sample = Timer.start();
+        String token = Jwts
                 .builder()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
+        sample.stop(applicationMetrics.getTokenGenerate());
+        return token;
+    }
+
+    private static String digest(String token) {
+        MessageDigest messageDigest = TOKEN_DIGEST.get();
+        messageDigest.reset();
+        return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Una entrada nunca sobrevive a la expiración del propio token ni al TTL configurado
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        private final long ttlNanos;
+
+        private TokenExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return ttlNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, remaining));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,25 +16,32 @@ public class SecurityHelper {
         this.userRepository = userRepository;
     }
 
-    public User getAuthenticatedUser() {
+    public JwtPrincipal getPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof JwtPrincipal principal)) {
             throw new RuntimeException("No authenticated user found");
         }
+        return principal;
+    }
 
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Authenticated user not found in database: " + username));
+    public Long getAuthenticatedUserId() {
+        return getPrincipal().getId();
+    }
+
+    // Carga la entidad completa; usar solo cuando se necesiten datos que no viajan en el token
+    public User getAuthenticatedUser() {
+        JwtPrincipal principal = getPrincipal();
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "Authenticated user not found in database: " + principal.getUsername()));
     }
 
     public boolean isOwner(Long ownerId) {
-        User authenticatedUser = getAuthenticatedUser();
-        return authenticatedUser.getId().equals(ownerId);
+        return getPrincipal().getId().equals(ownerId);
     }
 
     public boolean isAdmin() {
-        User authenticatedUser = getAuthenticatedUser();
-        return authenticatedUser.getAuthorities().stream()
-                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+        return getPrincipal().isAdmin();
     }
-}
\ No newline at end of file
+}
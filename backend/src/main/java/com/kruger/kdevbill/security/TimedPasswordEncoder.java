@@ -0,0 +1,40 @@
+package com.kruger.kdevbill.security;
+
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// Mide el costo de BCrypt, que domina el tiempo del login y del registro
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ApplicationMetrics applicationMetrics;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, ApplicationMetrics applicationMetrics) {
+        this.delegate = delegate;
+        this.applicationMetrics = applicationMetrics;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        applicationMetrics.getPasswordEncode().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? applicationMetrics.getPasswordMatch() : applicationMetrics.getPasswordMismatch())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
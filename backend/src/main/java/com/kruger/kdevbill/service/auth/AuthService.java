@@ -3,6 +3,8 @@ package com.kruger.kdevbill.service.auth;
 import com.kruger.kdevbill.dto.request.LoginRequest;
 import com.kruger.kdevbill.dto.request.RegisterRequest;
 import com.kruger.kdevbill.dto.response.AuthResponse;
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
+
 import java.util.List;
 import java.util.Map;
 
@@ -14,5 +16,7 @@ public interface AuthService {
 
     List<Map<String, Object>> getAllCustomersDebug();
 
-    Map<String, Object> createMissingCustomers();
+    JobExecutionResponse startCustomerMigration();
+
+    JobExecutionResponse getCustomerMigration(Long id);
 }
\ No newline at end of file
@@ -3,17 +3,31 @@ package com.kruger.kdevbill.service.auth.impl;
 import com.kruger.kdevbill.dto.request.LoginRequest;
 import com.kruger.kdevbill.dto.request.RegisterRequest;
 import com.kruger.kdevbill.dto.response.AuthResponse;
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
 import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.JobExecution;
 import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.entity.enums.JobType;
 import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.mapper.JobExecutionMapper;
+import com.kruger.kdevbill.repository.JobExecutionRepository;
 import com.kruger.kdevbill.repository.UserRepository;
 import com.kruger.kdevbill.repository.CustomerRepository;
 import com.kruger.kdevbill.security.JwtService;
+import com.kruger.kdevbill.security.SecurityHelper;
 import com.kruger.kdevbill.service.auth.AuthService;
+import com.kruger.kdevbill.service.customer.CustomerCreatedEvent;
+import com.kruger.kdevbill.service.customer.CustomerResolver;
+import com.kruger.kdevbill.service.customer.impl.CustomerMigrationJobRunner;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +47,13 @@ public class AuthServiceImpl implements AuthService {
         private final PasswordEncoder passwordEncoder;
         private final JwtService jwtService;
         private final AuthenticationManager authenticationManager;
+        private final ApplicationEventPublisher eventPublisher;
+        private final CustomerResolver customerResolver;
+        private final JobExecutionRepository jobExecutionRepository;
+        private final JobExecutionMapper jobExecutionMapper;
+        private final CustomerMigrationJobRunner customerMigrationJobRunner;
+        private final SecurityHelper securityHelper;
+        private final DashboardAggregates dashboardAggregates;
 
         @Override
         @Transactional
@@ -58,18 +79,22 @@ public class AuthServiceImpl implements AuthService {
                 User savedUser = userRepository.save(user);
 
                 // Auto-crear customer para usuarios USER (no ADMIN)
+                Long customerId = null;
                 if (userRole == Role.USER) {
                         Customer customer = Customer.builder()
                                         .name(savedUser.getUsername() + " Customer")
                                         .email(savedUser.getEmail())
                                         .owner(savedUser)
                                         .build();
-                        customerRepository.save(customer);
+                        Customer savedCustomer = customerRepository.save(customer);
+                        customerId = savedCustomer.getId();
+                        eventPublisher.publishEvent(new CustomerCreatedEvent(savedUser.getId(), customerId));
+                        dashboardAggregates.apply(new DashboardUpdate().customersCreated(1, savedCustomer.getCreatedAt()));
                         log.info("Auto-created customer for new USER: {} (User ID: {})",
                                         savedUser.getUsername(), savedUser.getId());
                 }
 
-                String jwtToken = jwtService.generateToken(savedUser);
+                String jwtToken = jwtService.generateToken(savedUser, customerId);
 
                 return AuthResponse.builder()
                                 .token(jwtToken)
@@ -80,15 +105,18 @@ public class AuthServiceImpl implements AuthService {
 
         @Override
         public AuthResponse login(LoginRequest request) {
-                authenticationManager.authenticate(
+                Authentication authentication = authenticationManager.authenticate(
                                 new UsernamePasswordAuthenticationToken(
                                                 request.getUsername(),
                                                 request.getPassword()));
 
-                User user = userRepository.findByUsername(request.getUsername())
-                                .orElseThrow(() -> new IllegalStateException("User not found after authentication"));
+                // El provider ya cargó el usuario para validar la contraseña
+                if (!(authentication.getPrincipal() instanceof User user)) {
+                        throw new IllegalStateException("User not found after authentication");
+                }
+                Long customerId = customerResolver.findCustomerId(user.getId()).orElse(null);
 
-                String jwtToken = jwtService.generateToken(user);
+                String jwtToken = jwtService.generateToken(user, customerId);
 
                 return AuthResponse.builder()
                                 .token(jwtToken)
@@ -116,46 +144,33 @@ public class AuthServiceImpl implements AuthService {
         }
 
         @Override
-        @Transactional
-        public Map<String, Object> createMissingCustomers() {
-                log.info("Starting migration: Creating customers for users without customer profile");
-
-                Map<String, Object> result = new HashMap<>();
-                List<String> createdCustomers = new java.util.ArrayList<>();
-
-                // Obtener todos los usuarios USER que no tienen customer
-                List<User> usersWithoutCustomer = userRepository.findAll().stream()
-                                .filter(user -> user.getRole() == Role.USER)
-                                .filter(user -> !customerRepository.findByOwnerId(user.getId()).isPresent())
-                                .collect(Collectors.toList());
-
-                log.info("Found {} users without customer profile", usersWithoutCustomer.size());
-
-                // Crear customer para cada uno
-                for (User user : usersWithoutCustomer) {
-                        try {
-                                Customer customer = Customer.builder()
-                                                .name(user.getUsername() + " Customer")
-                                                .email(user.getEmail())
-                                                .owner(user)
-                                                .build();
-                                customerRepository.save(customer);
-
-                                String info = String.format("Created customer for user: %s (ID: %d)",
-                                                user.getUsername(), user.getId());
-                                createdCustomers.add(info);
-                                log.info(info);
-                        } catch (Exception e) {
-                                log.error("Failed to create customer for user: {} - Error: {}",
-                                                user.getUsername(), e.getMessage());
+        public JobExecutionResponse startCustomerMigration() {
+                List<JobExecution> active = jobExecutionRepository.findByTypeAndStatusIn(JobType.CUSTOMER_MIGRATION,
+                                List.of(JobStatus.QUEUED, JobStatus.RUNNING));
+                for (JobExecution job : active) {
+                        if (job.getStatus() == JobStatus.RUNNING && !customerMigrationJobRunner.isStale(job)) {
+                                throw new IllegalStateException("Customer migration job " + job.getId() + " is already RUNNING");
                         }
                 }
+                // Un trabajo abandonado se reanuda desde su checkpoint en lugar de empezar otro
+                JobExecution job = active.isEmpty()
+                                ? jobExecutionRepository.save(JobExecution.builder()
+                                                .type(JobType.CUSTOMER_MIGRATION)
+                                                .status(JobStatus.QUEUED)
+                                                .createdBy(securityHelper.getAuthenticatedUserId())
+                                                .build())
+                                : active.get(0);
+                log.info("Customer migration job {} submitted", job.getId());
+                customerMigrationJobRunner.submit(job.getId());
+                return jobExecutionMapper.toJobExecutionResponse(job);
+        }
 
-                result.put("total_users_migrated", createdCustomers.size());
-                result.put("created_customers", createdCustomers);
-                result.put("message", "Migration completed successfully");
-
-                log.info("Migration completed: {} customers created", createdCustomers.size());
-                return result;
+        @Override
+        @Transactional(readOnly = true)
+        public JobExecutionResponse getCustomerMigration(Long id) {
+                return jobExecutionRepository.findById(id)
+                                .filter(job -> job.getType() == JobType.CUSTOMER_MIGRATION)
+                                .map(jobExecutionMapper::toJobExecutionResponse)
+                                .orElseThrow(() -> new RuntimeException("Customer migration job not found with id: " + id));
         }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.kruger.kdevbill.service.billing;
+
+import com.kruger.kdevbill.dto.response.BillingRunResponse;
+
+import java.time.LocalDate;
+
+public interface BillingRunService {
+
+    BillingRunResponse runBilling(LocalDate runDate);
+}
@@ -0,0 +1,27 @@
+package com.kruger.kdevbill.service.billing.impl;
+
+import com.kruger.kdevbill.service.billing.BillingRunService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Corrida diaria de facturación; con application.billing.cron=- queda deshabilitada
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BillingRunScheduler {
+
+    private final BillingRunService billingRunService;
+
+    @Scheduled(cron = "${application.billing.cron:0 0 2 * * *}")
+    public void runDailyBilling() {
+        try {
+            billingRunService.runBilling(LocalDate.now());
+        } catch (IllegalStateException e) {
+            log.warn("Scheduled billing run skipped: {}", e.getMessage());
+        }
+    }
+}
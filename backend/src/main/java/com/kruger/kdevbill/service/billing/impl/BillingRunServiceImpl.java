@@ -0,0 +1,275 @@
+package com.kruger.kdevbill.service.billing.impl;
+
+import com.kruger.kdevbill.dto.response.BillingRunResponse;
+import com.kruger.kdevbill.dto.response.InvoiceResponse;
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.enums.BillingCycle;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
+import com.kruger.kdevbill.service.billing.BillingRunService;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
+import com.kruger.kdevbill.service.outbox.OutboxWriter;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Genera las facturas de las suscripciones ACTIVE vencidas a una fecha de corte.
+// Un único lector recorre el índice (status, next_billing_date, id) por keyset, una sola vez, y reparte los
+// chunks entre los workers. Cada chunk se procesa en una transacción: avanza next_billing_date con un
+// compare-and-set y solo las filas ganadoras reciben facturas, por lo que repetir la corrida (o correr dos
+// a la vez) no duplica nada. Las fechas avanzadas quedan después de la fecha de corte, así que el lector no
+// vuelve a encontrarlas.
+@Slf4j
+@Service
+public class BillingRunServiceImpl implements BillingRunService {
+
+    // La consulta sigue al índice tal cual para que cada chunk empiece en el cursor y corte en el LIMIT: la cota
+    // next_billing_date >= ? da el rango que H2 no saca de la comparación de filas, y ordenar también por status
+    // (constante) es lo que le permite recorrer el índice ya ordenado en vez de ordenar todo el resto
+    private static final String SELECT_DUE =
+            "SELECT s.id, s.next_billing_date, s.plan_id, p.price, p.billing_cycle " +
+            "FROM subscriptions s JOIN plans p ON p.id = s.plan_id " +
+            "WHERE s.status = 'ACTIVE' AND s.next_billing_date <= ? " +
+            "AND s.next_billing_date >= ? AND (s.next_billing_date, s.id) > (?, ?) " +
+            "ORDER BY s.status, s.next_billing_date, s.id LIMIT ?";
+
+    private static final String ADVANCE_BILLING_DATE =
+            "UPDATE subscriptions SET next_billing_date = ? " +
+            "WHERE id = ? AND status = 'ACTIVE' AND next_billing_date = ?";
+
+    private static final String INSERT_INVOICE =
+            "INSERT INTO invoices (id, amount, status, due_date, issued_at, subscription_id) " +
+            "VALUES (?, ?, 'OPEN', ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BillingHelper billingHelper;
+    private final IdBlockAllocator idBlockAllocator;
+    private final OutboxWriter outboxWriter;
+    private final DashboardAggregates dashboardAggregates;
+    private final int chunkSize;
+    private final int workerCount;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BillingRunServiceImpl(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 BillingHelper billingHelper,
+                                 IdBlockAllocator idBlockAllocator,
+                                 OutboxWriter outboxWriter,
+                                 DashboardAggregates dashboardAggregates,
+                                 @Value("${application.billing.chunk-size:1000}") int chunkSize,
+                                 @Value("${application.billing.workers:4}") int workerCount) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.billingHelper = billingHelper;
+        this.idBlockAllocator = idBlockAllocator;
+        this.outboxWriter = outboxWriter;
+        this.dashboardAggregates = dashboardAggregates;
+        this.chunkSize = chunkSize;
+        this.workerCount = workerCount;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "billing-run-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public BillingRunResponse runBilling(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A billing run is already in progress");
+        }
+        try {
+            return execute(runDate);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BillingRunResponse execute(LocalDate runDate) {
+        log.info("Starting billing run for {} with {} workers (chunk size {})", runDate, workerCount, chunkSize);
+        long started = System.nanoTime();
+
+        // Los planes son pocos: se resuelven una vez por corrida y se comparten entre chunks
+        ConcurrentMap<Long, Plan> plans = new ConcurrentHashMap<>();
+        Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>(workerCount);
+        ChunkResult total = new ChunkResult();
+        LocalDate lastDate = LocalDate.of(1900, 1, 1);
+        long lastId = 0;
+
+        while (true) {
+            List<DueSubscription> chunk = jdbcTemplate.query(SELECT_DUE,
+                    (rs, rowNum) -> toDueSubscription(rs, plans),
+                    Date.valueOf(runDate), Date.valueOf(lastDate), Date.valueOf(lastDate), lastId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            // La lectura se adelanta a lo sumo un chunk por worker
+            if (inFlight.size() == workerCount) {
+                total.add(await(inFlight.poll()));
+            }
+            inFlight.add(workers.submit(() -> transactionTemplate.execute(status -> billChunk(chunk, runDate))));
+
+            DueSubscription last = chunk.get(chunk.size() - 1);
+            lastDate = last.nextBillingDate;
+            lastId = last.id;
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            total.add(await(inFlight.poll()));
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        long perSecond = total.billed * 1000 / durationMs;
+        log.info("Billing run for {} finished: {} subscriptions billed, {} invoices, {} skipped in {} ms ({} subscriptions/s)",
+                runDate, total.billed, total.invoices, total.skipped, durationMs, perSecond);
+
+        return BillingRunResponse.builder()
+                .runDate(runDate)
+                .subscriptionsBilled(total.billed)
+                .invoicesCreated(total.invoices)
+                .subscriptionsSkipped(total.skipped)
+                .durationMs(durationMs)
+                .subscriptionsPerSecond(perSecond)
+                .build();
+    }
+
+    private static ChunkResult await(Future<ChunkResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Billing run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Billing run failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static DueSubscription toDueSubscription(ResultSet rs, ConcurrentMap<Long, Plan> plans) throws SQLException {
+        long planId = rs.getLong("plan_id");
+        Plan plan = plans.get(planId);
+        if (plan == null) {
+            plan = Plan.builder()
+                    .id(planId)
+                    .price(rs.getBigDecimal("price"))
+                    .billingCycle(BillingCycle.valueOf(rs.getString("billing_cycle")))
+                    .build();
+            plans.putIfAbsent(planId, plan);
+        }
+        return new DueSubscription(rs.getLong("id"), rs.getDate("next_billing_date").toLocalDate(), plan);
+    }
+
+    private ChunkResult billChunk(List<DueSubscription> chunk, LocalDate runDate) {
+        ChunkResult result = new ChunkResult();
+
+        // Una suscripción atrasada varios ciclos recibe una factura por cada ciclo vencido
+        List<Object[]> advances = new ArrayList<>(chunk.size());
+        for (DueSubscription subscription : chunk) {
+            LocalDate next = subscription.nextBillingDate;
+            while (!next.isAfter(runDate)) {
+                subscription.billingDates.add(next);
+                next = billingHelper.calculateNextBillingDate(next, subscription.plan);
+            }
+            advances.add(new Object[]{Date.valueOf(next), subscription.id, Date.valueOf(subscription.nextBillingDate)});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(ADVANCE_BILLING_DATE, advances);
+
+        Timestamp issuedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> invoices = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            DueSubscription subscription = chunk.get(i);
+            // 0 filas: otra corrida ya movió la fecha, esas facturas ya existen
+            if (updated[i] == 0) {
+                result.skipped++;
+                continue;
+            }
+            result.billed++;
+            for (LocalDate billingDate : subscription.billingDates) {
+                invoices.add(new Object[]{null, subscription.plan.getPrice(), Date.valueOf(billingDate.plusDays(7)),
+                        issuedAt, subscription.id});
+            }
+        }
+        if (!invoices.isEmpty()) {
+            // Ids explícitos por bloques: el INSERT se puede reescribir como un único multi-row
+            long[] ids = idBlockAllocator.allocate("invoices_id_seq", invoices.size());
+            for (int i = 0; i < ids.length; i++) {
+                invoices.get(i)[0] = ids[i];
+            }
+            jdbcTemplate.batchUpdate(INSERT_INVOICE, invoices);
+            result.invoices += invoices.size();
+
+            Map<Long, InvoiceResponse> issued = new LinkedHashMap<>(invoices.size() * 2);
+            for (Object[] row : invoices) {
+                issued.put((Long) row[0], new InvoiceResponse((Long) row[0], (BigDecimal) row[1], InvoiceStatus.OPEN,
+                        ((Date) row[2]).toLocalDate(), ((Timestamp) row[3]).toLocalDateTime(), (Long) row[4]));
+            }
+            outboxWriter.appendAll(OutboxEventType.INVOICE_ISSUED, issued);
+            dashboardAggregates.apply(new DashboardUpdate().invoicesIssued(invoices.size(), issuedAt.toLocalDateTime()));
+        }
+        return result;
+    }
+
+    private static final class DueSubscription {
+        private final long id;
+        private final LocalDate nextBillingDate;
+        private final Plan plan;
+        private final List<LocalDate> billingDates = new ArrayList<>(1);
+
+        private DueSubscription(long id, LocalDate nextBillingDate, Plan plan) {
+            this.id = id;
+            this.nextBillingDate = nextBillingDate;
+            this.plan = plan;
+        }
+    }
+
+    private static final class ChunkResult {
+        private long billed;
+        private long invoices;
+        private long skipped;
+
+        private void add(ChunkResult other) {
+            billed += other.billed;
+            invoices += other.invoices;
+            skipped += other.skipped;
+        }
+    }
+}
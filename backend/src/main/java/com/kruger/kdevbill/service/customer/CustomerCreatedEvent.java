@@ -0,0 +1,11 @@
+package com.kruger.kdevbill.service.customer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class CustomerCreatedEvent {
+    private final Long ownerId;
+    private final Long customerId;
+}
@@ -0,0 +1,103 @@
+package com.kruger.kdevbill.service.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.security.JwtPrincipal;
+import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Resuelve el customer del usuario autenticado: primero el claim del token, luego una caché acotada
+// userId -> customerId y solo si falla ambas, la base. Las ausencias no se cachean, así que un customer
+// creado después del login se encuentra en la siguiente consulta. Si el vínculo usuario -> customer cambia,
+// el claim de los tokens emitidos antes deja de valer y esos requests vuelven a la caché o a la base.
+@Slf4j
+@Component
+public class CustomerResolver {
+
+    private final CustomerRepository customerRepository;
+    private final SecurityHelper securityHelper;
+    private final ApplicationMetrics applicationMetrics;
+    private final Cache<Long, Long> customerIdsByOwner;
+    // Último cambio de vínculo por usuario; pasada la expiración del JWT ya no queda token anterior vigente
+    private final Cache<Long, Instant> linkChangedAt;
+
+    public CustomerResolver(CustomerRepository customerRepository,
+                            SecurityHelper securityHelper,
+                            ApplicationMetrics applicationMetrics,
+                            @Value("${application.customers.resolver.max-entries:100000}") long maxEntries,
+                            @Value("${application.customers.resolver.ttl:3600000}") long ttl,
+                            @Value("${application.security.jwt.expiration}") long jwtExpiration) {
+        this.customerRepository = customerRepository;
+        this.securityHelper = securityHelper;
+        this.applicationMetrics = applicationMetrics;
+        this.customerIdsByOwner = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+        this.linkChangedAt = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+    }
+
+    public Optional<Long> findCurrentCustomerId() {
+        long start = System.nanoTime();
+        JwtPrincipal principal = securityHelper.getPrincipal();
+        Long tokenCustomerId = tokenCustomerId(principal);
+        if (tokenCustomerId != null) {
+            applicationMetrics.getCustomerResolveToken().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(tokenCustomerId);
+        }
+        return findCustomerId(principal.getId());
+    }
+
+    // Customer del claim si sigue vigente; null si el token no lo trae o es anterior al último cambio de vínculo
+    public Long tokenCustomerId(JwtPrincipal principal) {
+        if (principal.getCustomerId() == null) {
+            return null;
+        }
+        Instant changedAt = linkChangedAt.getIfPresent(principal.getId());
+        if (changedAt != null && (principal.getIssuedAt() == null || !principal.getIssuedAt().isAfter(changedAt))) {
+            return null;
+        }
+        return principal.getCustomerId();
+    }
+
+    public Long requireCurrentCustomerId() {
+        return findCurrentCustomerId().orElseThrow(() -> new RuntimeException(
+                "No customer profile found for user: " + securityHelper.getPrincipal().getUsername() +
+                        ". Please create a customer profile first or contact administrator."));
+    }
+
+    public Optional<Long> findCustomerId(Long ownerId) {
+        long start = System.nanoTime();
+        Long cached = customerIdsByOwner.getIfPresent(ownerId);
+        if (cached != null) {
+            applicationMetrics.getCustomerResolveCache().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached);
+        }
+        Optional<Long> customerId = customerRepository.findIdByOwnerId(ownerId);
+        customerId.ifPresent(id -> customerIdsByOwner.put(ownerId, id));
+        applicationMetrics.getCustomerResolveDatabase().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return customerId;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCustomerCreated(CustomerCreatedEvent event) {
+        log.debug("Customer {} created for user {}, invalidating cached resolution", event.getCustomerId(),
+                event.getOwnerId());
+        linkChangedAt.put(event.getOwnerId(), Instant.now());
+        customerIdsByOwner.invalidate(event.getOwnerId());
+    }
+}
@@ -1,15 +1,14 @@
 package com.kruger.kdevbill.service.customer;
 
 import com.kruger.kdevbill.dto.request.CustomerRequest;
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.CustomerResponse;
 
-import java.util.List;
-
 public interface CustomerService {
 
     CustomerResponse createCustomer(CustomerRequest request);
 
-    List<CustomerResponse> getAllCustomers();
+    CursorPage<CustomerResponse> getAllCustomers(String cursor, Integer size);
 
     CustomerResponse getCustomerById(Long id);
 
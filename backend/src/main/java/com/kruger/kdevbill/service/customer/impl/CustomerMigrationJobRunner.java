@@ -0,0 +1,194 @@
+package com.kruger.kdevbill.service.customer.impl;
+
+import com.kruger.kdevbill.entity.JobExecution;
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.repository.JobExecutionRepository;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Crea los customers faltantes de los usuarios USER recorriendo users por rangos de id. Cada rango lee los
+// usuarios sin customer y los inserta en un batch JDBC con ids reservados por bloques, en su propia transacción
+// junto con el avance del checkpoint, así que ningún lock ni dato del lote vive más que un chunk y volver a
+// ejecutarlo no duplica nada.
+@Slf4j
+@Component
+public class CustomerMigrationJobRunner {
+
+    private static final String COUNT_USERS =
+            "SELECT COUNT(*) FROM users WHERE role = 'USER' AND id > ? AND id <= ?";
+
+    // Usuarios del rango y cuántos de ellos no tienen customer antes del INSERT
+    private static final String COUNT_RANGE =
+            "SELECT COUNT(*) AS user_count, " +
+            "COALESCE(SUM(CASE WHEN NOT EXISTS (SELECT 1 FROM customers c WHERE c.user_id = u.id) THEN 1 ELSE 0 END), 0) AS missing_count " +
+            "FROM users u WHERE u.role = 'USER' AND u.id > ? AND u.id <= ?";
+
+    // Los usuarios cuyo email ya usa otro customer se omiten y cuentan como fallidos
+    private static final String SELECT_MISSING =
+            "SELECT u.id, u.username, u.email FROM users u WHERE u.role = 'USER' AND u.id > ? AND u.id <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM customers c WHERE c.user_id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM customers c WHERE c.email = u.email) " +
+            "ORDER BY u.id";
+
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customers (id, name, email, user_id, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobExecutionRepository jobExecutionRepository;
+    private final DashboardAggregates dashboardAggregates;
+    private final IdBlockAllocator idBlockAllocator;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration staleAfter;
+    private final ExecutorService worker;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public CustomerMigrationJobRunner(JobExecutionRepository jobExecutionRepository,
+                                      DashboardAggregates dashboardAggregates,
+                                      IdBlockAllocator idBlockAllocator,
+                                      EntityManagerFactory entityManagerFactory,
+                                      DataSource dataSource,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${application.customers.migration.chunk-size:10000}") int chunkSize,
+                                      @Value("${application.customers.migration.stale-after:300000}") long staleAfterMs) {
+        this.jobExecutionRepository = jobExecutionRepository;
+        this.dashboardAggregates = dashboardAggregates;
+        this.idBlockAllocator = idBlockAllocator;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-migration-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public void submit(Long jobId) {
+        if (running.add(jobId)) {
+            worker.execute(() -> run(jobId));
+        }
+    }
+
+    public boolean isStale(JobExecution job) {
+        return job.getStatus() == JobStatus.RUNNING
+                && (job.getUpdatedAt() == null || job.getUpdatedAt().isBefore(LocalDateTime.now().minus(staleAfter)));
+    }
+
+    private void run(Long jobId) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer claimed = transactionTemplate.execute(status -> jobExecutionRepository.claim(jobId,
+                    List.of(JobStatus.QUEUED, JobStatus.FAILED), now.minus(staleAfter), now));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+            JobExecution job = jobExecutionRepository.findById(jobId)
+                    .orElseThrow(() -> new IllegalStateException("Customer migration job not found with id: " + jobId));
+            // Los usuarios registrados después de este punto reciben su customer al registrarse
+            Long maxUserId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+            long upperBound = maxUserId == null ? 0 : maxUserId;
+            if (job.getTotalItems() == 0) {
+                Long total = jdbcTemplate.queryForObject(COUNT_USERS, Long.class, job.getCheckpoint(), upperBound);
+                transactionTemplate.executeWithoutResult(status ->
+                        jobExecutionRepository.updateTotal(jobId, total == null ? 0 : total, LocalDateTime.now()));
+            }
+
+            log.info("Customer migration job {} started after user id {}", jobId, job.getCheckpoint());
+            long from = job.getCheckpoint();
+            while (from < upperBound) {
+                long to = Math.min(from + chunkSize, upperBound);
+                migrateRange(jobId, from, to);
+                from = to;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    jobExecutionRepository.finish(jobId, JobStatus.COMPLETED, null, LocalDateTime.now()));
+            log.info("Customer migration job {} completed", jobId);
+        } catch (Exception e) {
+            log.error("Customer migration job {} failed, it can be resumed from its last checkpoint", jobId, e);
+            String message = String.valueOf(e.getMessage());
+            String error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+            transactionTemplate.executeWithoutResult(status ->
+                    jobExecutionRepository.finish(jobId, JobStatus.FAILED, error, LocalDateTime.now()));
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    private void migrateRange(Long jobId, long fromExclusive, long toInclusive) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            Map<String, Object> counts = jdbcTemplate.queryForMap(COUNT_RANGE, fromExclusive, toInclusive);
+            long users = ((Number) counts.get("user_count")).longValue();
+            long missing = ((Number) counts.get("missing_count")).longValue();
+            LocalDateTime createdAt = LocalDateTime.now();
+            int created = missing == 0 ? 0 : insertMissing(fromExclusive, toInclusive, createdAt);
+            dashboardAggregates.apply(new DashboardUpdate().customersCreated(created, createdAt));
+            jobExecutionRepository.recordProgress(jobId, toInclusive, users, created, missing - created,
+                    LocalDateTime.now());
+            return created;
+        });
+        // Los INSERT no pasan por Hibernate: las consultas cacheadas de customers por owner quedarían obsoletas
+        if (inserted != null && inserted > 0) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        }
+    }
+
+    // Un nextval por bloque de customers_id_seq y no por fila: ids explícitos con la misma semántica pooled-lo
+    // de Hibernate, así que no chocan con sus ids
+    private int insertMissing(long fromExclusive, long toInclusive, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        // Dos usuarios del rango con el mismo email: solo el primero recibe customer
+        Set<String> emails = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(SELECT_MISSING, rs -> {
+            String email = rs.getString("email");
+            if (emails.add(email)) {
+                rows.add(new Object[]{null, rs.getString("username") + " Customer", email, rs.getLong("id"), timestamp});
+            }
+        }, fromExclusive, toInclusive);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        long[] ids = idBlockAllocator.allocate("customers_id_seq", rows.size());
+        for (int i = 0; i < ids.length; i++) {
+            rows.get(i)[0] = ids[i];
+        }
+        jdbcTemplate.batchUpdate(INSERT_CUSTOMER, rows);
+        return rows.size();
+    }
+}
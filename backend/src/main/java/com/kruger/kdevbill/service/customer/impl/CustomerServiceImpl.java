@@ -1,6 +1,7 @@
 package com.kruger.kdevbill.service.customer.impl;
 
 import com.kruger.kdevbill.dto.request.CustomerRequest;
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.CustomerResponse;
 import com.kruger.kdevbill.entity.Customer;
 import com.kruger.kdevbill.entity.User;
@@ -8,15 +9,21 @@ import com.kruger.kdevbill.mapper.CustomerMapper;
 import com.kruger.kdevbill.repository.CustomerRepository;
 import com.kruger.kdevbill.repository.UserRepository;
 import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.customer.CustomerCreatedEvent;
+import com.kruger.kdevbill.service.customer.CustomerResolver;
 import com.kruger.kdevbill.service.customer.CustomerService;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
+import com.kruger.kdevbill.service.pagination.KeysetCursor;
+import com.kruger.kdevbill.service.pagination.KeysetPagination;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +33,10 @@ public class CustomerServiceImpl implements CustomerService {
     private final UserRepository userRepository;
     private final CustomerMapper customerMapper;
     private final SecurityHelper securityHelper;
+    private final KeysetPagination keysetPagination;
+    private final CustomerResolver customerResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DashboardAggregates dashboardAggregates;
 
     @Override
     @Transactional
@@ -34,7 +45,7 @@ public class CustomerServiceImpl implements CustomerService {
         User owner = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + request.getUserId()));
 
-        if (customerRepository.findByOwnerId(owner.getId()).isPresent()) {
+        if (customerResolver.findCustomerId(owner.getId()).isPresent()) {
             throw new IllegalArgumentException("User already has a customer profile");
         }
         if (customerRepository.existsByEmail(request.getEmail())) {
@@ -42,6 +53,8 @@ public class CustomerServiceImpl implements CustomerService {
         }
         Customer customer = customerMapper.toCustomer(request, owner);
         Customer savedCustomer = customerRepository.save(customer);
+        eventPublisher.publishEvent(new CustomerCreatedEvent(owner.getId(), savedCustomer.getId()));
+        dashboardAggregates.apply(new DashboardUpdate().customersCreated(1, savedCustomer.getCreatedAt()));
 
         return customerMapper.toCustomerResponse(savedCustomer);
     }
@@ -49,15 +62,20 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN')")
-    public List<CustomerResponse> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(customerMapper::toCustomerResponse)
-                .collect(Collectors.toList());
+    public CursorPage<CustomerResponse> getAllCustomers(String cursor, Integer size) {
+        int pageSize = keysetPagination.resolveSize(size);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<CustomerResponse> customers = customerRepository.findPage(position.getTimestamp(), position.getId(),
+                keysetPagination.probe(pageSize));
+
+        return keysetPagination.toPage(customers, pageSize,
+                customer -> new KeysetCursor(customer.getCreatedAt(), customer.getId()).encode());
     }
 
     @Override
     @Transactional(readOnly = true)
     public CustomerResponse getCustomerById(Long id) {
+        // Customer y owner salen del caché de segundo nivel una vez cargados
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
         if (!securityHelper.isAdmin() && !securityHelper.isOwner(customer.getOwner().getId())) {
@@ -70,9 +88,10 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     public CustomerResponse getMyCustomerDetails() {
-        User authenticatedUser = securityHelper.getAuthenticatedUser();
-        Customer customer = customerRepository.findByOwner(authenticatedUser)
+        Long customerId = customerResolver.findCurrentCustomerId()
                 .orElseThrow(() -> new RuntimeException("No customer profile found for the authenticated user")); // O una 404
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new RuntimeException("No customer profile found for the authenticated user"));
 
         return customerMapper.toCustomerResponse(customer);
     }
@@ -0,0 +1,97 @@
+package com.kruger.kdevbill.service.dashboard;
+
+import com.kruger.kdevbill.entity.enums.DashboardMetric;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Mantiene los contadores del dashboard dentro de la transacción que cambia los datos. Cada métrica está
+// repartida en varias filas (stripes) para que los pagos concurrentes no se serialicen sobre una sola fila;
+// la lectura suma las stripes. Una transacción usa una única stripe y recorre fechas y métricas en orden fijo,
+// así dos escritores nunca toman los mismos locks en distinto orden.
+@Component
+public class DashboardAggregates {
+
+    private static final String UPDATE_TOTAL =
+            "UPDATE dashboard_counters SET item_count = item_count + ?, amount = amount + ? " +
+            "WHERE metric = ? AND stripe = ?";
+
+    private static final String ENSURE_TOTAL =
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) VALUES (?, ?, 0, 0) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String UPDATE_DAILY =
+            "UPDATE dashboard_daily_rollups SET item_count = item_count + ?, amount = amount + ? " +
+            "WHERE rollup_date = ? AND metric = ? AND stripe = ?";
+
+    private static final String ENSURE_DAILY =
+            "INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount) " +
+            "VALUES (?, ?, ?, 0, 0) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int stripes;
+
+    public DashboardAggregates(DataSource dataSource,
+                               @Value("${application.dashboard.stripes:8}") int stripes) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.stripes = stripes;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(DashboardUpdate update) {
+        if (update.isEmpty()) {
+            return;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+
+        List<Object[]> totals = new ArrayList<>();
+        List<Object[]> totalKeys = new ArrayList<>();
+        for (Map.Entry<DashboardMetric, DashboardUpdate.Delta> entry : update.getTotals().entrySet()) {
+            totals.add(new Object[]{entry.getValue().getCount(), entry.getValue().getAmount(), entry.getKey().name(), stripe});
+            totalKeys.add(new Object[]{entry.getKey().name(), stripe});
+        }
+        List<Object[]> daily = new ArrayList<>();
+        List<Object[]> dailyKeys = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<DashboardMetric, DashboardUpdate.Delta>> day : update.getDaily().entrySet()) {
+            Date date = Date.valueOf(day.getKey());
+            for (Map.Entry<DashboardMetric, DashboardUpdate.Delta> entry : day.getValue().entrySet()) {
+                daily.add(new Object[]{entry.getValue().getCount(), entry.getValue().getAmount(), date, entry.getKey().name(), stripe});
+                dailyKeys.add(new Object[]{date, entry.getKey().name(), stripe});
+            }
+        }
+
+        applyDeltas(UPDATE_TOTAL, ENSURE_TOTAL, totals, totalKeys);
+        applyDeltas(UPDATE_DAILY, ENSURE_DAILY, daily, dailyKeys);
+    }
+
+    // En estado estable basta el UPDATE; las filas que aún no existen (día nuevo, stripe sin usar,
+    // tabla recién reconstruida) se crean en cero y se actualizan otra vez
+    private void applyDeltas(String update, String ensure, List<Object[]> deltas, List<Object[]> keys) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(update, deltas);
+        List<Object[]> missingDeltas = new ArrayList<>();
+        List<Object[]> missingKeys = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missingDeltas.add(deltas.get(i));
+                missingKeys.add(keys.get(i));
+            }
+        }
+        if (!missingDeltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(ensure, missingKeys);
+            jdbcTemplate.batchUpdate(update, missingDeltas);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.kruger.kdevbill.service.dashboard;
+
+import com.kruger.kdevbill.dto.response.DashboardChartResponse;
+import com.kruger.kdevbill.dto.response.DashboardStatsResponse;
+
+public interface DashboardService {
+
+    DashboardStatsResponse getStats();
+
+    DashboardChartResponse getCharts(String period);
+
+    DashboardStatsResponse rebuild();
+}
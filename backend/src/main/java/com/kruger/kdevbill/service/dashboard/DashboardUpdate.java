@@ -0,0 +1,120 @@
+package com.kruger.kdevbill.service.dashboard;
+
+import com.kruger.kdevbill.entity.enums.DashboardMetric;
+import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Cambios de una transacción sobre los agregados del dashboard. Se acumulan aquí y DashboardAggregates
+// los aplica juntos, así cada transacción toca cada fila de contador una sola vez.
+// Las filas diarias se asignan por la fecha del evento (created_at, issued_at, paid_at), la misma que usa
+// la reconstrucción, y no por la fecha en que se aplica el cambio.
+public class DashboardUpdate {
+
+    private final Map<DashboardMetric, Delta> totals = new EnumMap<>(DashboardMetric.class);
+    // Ordenado por fecha y métrica: el orden en que DashboardAggregates toma los locks
+    private final Map<LocalDate, Map<DashboardMetric, Delta>> daily = new TreeMap<>();
+
+    public DashboardUpdate customersCreated(long count, LocalDateTime createdAt) {
+        return total(DashboardMetric.CUSTOMERS, count, BigDecimal.ZERO)
+                .daily(createdAt, DashboardMetric.CUSTOMERS, count, BigDecimal.ZERO);
+    }
+
+    public DashboardUpdate subscriptionsCreated(long count, LocalDateTime createdAt) {
+        return total(DashboardMetric.SUBSCRIPTIONS, count, BigDecimal.ZERO)
+                .total(DashboardMetric.ACTIVE_SUBSCRIPTIONS, count, BigDecimal.ZERO)
+                .daily(createdAt, DashboardMetric.SUBSCRIPTIONS, count, BigDecimal.ZERO);
+    }
+
+    public DashboardUpdate subscriptionStatusChanged(SubscriptionStatus from, SubscriptionStatus to) {
+        if (from == to) {
+            return this;
+        }
+        if (from == SubscriptionStatus.ACTIVE) {
+            total(DashboardMetric.ACTIVE_SUBSCRIPTIONS, -1, BigDecimal.ZERO);
+        } else if (to == SubscriptionStatus.ACTIVE) {
+            total(DashboardMetric.ACTIVE_SUBSCRIPTIONS, 1, BigDecimal.ZERO);
+        }
+        return this;
+    }
+
+    // Las facturas abiertas incluyen las que están en PROCESSING: siguen sin cobrar
+    public DashboardUpdate invoicesIssued(long count, LocalDateTime issuedAt) {
+        return total(DashboardMetric.INVOICES, count, BigDecimal.ZERO)
+                .total(DashboardMetric.OPEN_INVOICES, count, BigDecimal.ZERO)
+                .daily(issuedAt, DashboardMetric.INVOICES, count, BigDecimal.ZERO);
+    }
+
+    public DashboardUpdate invoicesPaid(long count) {
+        return total(DashboardMetric.OPEN_INVOICES, -count, BigDecimal.ZERO)
+                .total(DashboardMetric.PAID_INVOICES, count, BigDecimal.ZERO);
+    }
+
+    public DashboardUpdate paymentsSucceeded(long count, BigDecimal amount, LocalDateTime paidAt) {
+        return total(DashboardMetric.SUCCESSFUL_PAYMENTS, count, amount)
+                .daily(paidAt, DashboardMetric.SUCCESSFUL_PAYMENTS, count, amount);
+    }
+
+    public DashboardUpdate paymentsFailed(long count, LocalDateTime paidAt) {
+        return total(DashboardMetric.FAILED_PAYMENTS, count, BigDecimal.ZERO)
+                .daily(paidAt, DashboardMetric.FAILED_PAYMENTS, count, BigDecimal.ZERO);
+    }
+
+    // Un pago FAILED que el banco confirma después deja de contar como fallido, también en su día
+    public DashboardUpdate failedPaymentsRecovered(long count, LocalDateTime paidAt) {
+        return total(DashboardMetric.FAILED_PAYMENTS, -count, BigDecimal.ZERO)
+                .daily(paidAt, DashboardMetric.FAILED_PAYMENTS, -count, BigDecimal.ZERO);
+    }
+
+    public boolean isEmpty() {
+        return totals.isEmpty() && daily.values().stream().allMatch(Map::isEmpty);
+    }
+
+    public Map<DashboardMetric, Delta> getTotals() {
+        return Collections.unmodifiableMap(totals);
+    }
+
+    public Map<LocalDate, Map<DashboardMetric, Delta>> getDaily() {
+        return Collections.unmodifiableMap(daily);
+    }
+
+    private DashboardUpdate total(DashboardMetric metric, long count, BigDecimal amount) {
+        add(totals, metric, count, amount);
+        return this;
+    }
+
+    private DashboardUpdate daily(LocalDateTime at, DashboardMetric metric, long count, BigDecimal amount) {
+        // Sin fecha: entidad recién guardada cuyo INSERT (y su @CreationTimestamp) aún no se ejecutó, es de hoy
+        LocalDate date = at == null ? LocalDate.now() : at.toLocalDate();
+        add(daily.computeIfAbsent(date, key -> new EnumMap<>(DashboardMetric.class)), metric, count, amount);
+        return this;
+    }
+
+    private static void add(Map<DashboardMetric, Delta> deltas, DashboardMetric metric, long count, BigDecimal amount) {
+        if (count == 0 && amount.signum() == 0) {
+            return;
+        }
+        Delta current = deltas.get(metric);
+        deltas.put(metric, current == null
+                ? new Delta(count, amount)
+                : new Delta(current.count + count, current.amount.add(amount)));
+    }
+
+    @Getter
+    public static final class Delta {
+        private final long count;
+        private final BigDecimal amount;
+
+        private Delta(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.kruger.kdevbill.service.dashboard.impl;
+
+import com.kruger.kdevbill.dto.response.DashboardChartPoint;
+import com.kruger.kdevbill.dto.response.DashboardChartResponse;
+import com.kruger.kdevbill.dto.response.DashboardStatsResponse;
+import com.kruger.kdevbill.entity.enums.DashboardMetric;
+import com.kruger.kdevbill.service.dashboard.DashboardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Lee los agregados que mantiene DashboardAggregates: las estadísticas suman un número fijo de filas
+// (métricas x stripes) y los gráficos, las filas diarias del periodo; nunca recorren las tablas de negocio.
+@Slf4j
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final String SELECT_TOTALS =
+            "SELECT metric, SUM(item_count) AS item_count, SUM(amount) AS amount " +
+            "FROM dashboard_counters GROUP BY metric";
+
+    private static final String SELECT_DAILY =
+            "SELECT rollup_date, metric, SUM(item_count) AS item_count, SUM(amount) AS amount " +
+            "FROM dashboard_daily_rollups WHERE rollup_date >= ? GROUP BY rollup_date, metric";
+
+    private static final String SELECT_REVENUE_SINCE =
+            "SELECT COALESCE(SUM(amount), 0) FROM dashboard_daily_rollups " +
+            "WHERE metric = 'SUCCESSFUL_PAYMENTS' AND rollup_date >= ?";
+
+    // Recalculo completo desde las tablas de negocio, todo en stripe 0
+    private static final List<String> REBUILD = List.of(
+            "DELETE FROM dashboard_counters",
+            "DELETE FROM dashboard_daily_rollups",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'CUSTOMERS', 0, COUNT(*), 0 FROM customers",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'SUBSCRIPTIONS', 0, COUNT(*), 0 FROM subscriptions",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'ACTIVE_SUBSCRIPTIONS', 0, COUNT(*), 0 FROM subscriptions WHERE status = 'ACTIVE'",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'INVOICES', 0, COUNT(*), 0 FROM invoices",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'OPEN_INVOICES', 0, COUNT(*), 0 FROM invoices WHERE status IN ('OPEN', 'PROCESSING')",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'PAID_INVOICES', 0, COUNT(*), 0 FROM invoices WHERE status = 'PAID'",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'SUCCESSFUL_PAYMENTS', 0, COUNT(*), COALESCE(SUM(amount), 0) FROM payments WHERE status = 'SUCCESS'",
+            "INSERT INTO dashboard_counters (metric, stripe, item_count, amount) " +
+                    "SELECT 'FAILED_PAYMENTS', 0, COUNT(*), 0 FROM payments WHERE status = 'FAILED'",
+            "INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount) " +
+                    "SELECT CAST(created_at AS DATE), 'CUSTOMERS', 0, COUNT(*), 0 FROM customers " +
+                    "GROUP BY CAST(created_at AS DATE)",
+            "INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount) " +
+                    "SELECT CAST(created_at AS DATE), 'SUBSCRIPTIONS', 0, COUNT(*), 0 FROM subscriptions " +
+                    "WHERE created_at IS NOT NULL GROUP BY CAST(created_at AS DATE)",
+            "INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount) " +
+                    "SELECT CAST(issued_at AS DATE), 'INVOICES', 0, COUNT(*), 0 FROM invoices " +
+                    "GROUP BY CAST(issued_at AS DATE)",
+            "INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount) " +
+                    "SELECT CAST(paid_at AS DATE), 'SUCCESSFUL_PAYMENTS', 0, COUNT(*), SUM(amount) FROM payments " +
+                    "WHERE status = 'SUCCESS' AND paid_at IS NOT NULL GROUP BY CAST(paid_at AS DATE)",
+            "INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount) " +
+                    "SELECT CAST(paid_at AS DATE), 'FAILED_PAYMENTS', 0, COUNT(*), 0 FROM payments " +
+                    "WHERE status = 'FAILED' AND paid_at IS NOT NULL GROUP BY CAST(paid_at AS DATE)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DashboardServiceImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardStatsResponse getStats() {
+        Map<DashboardMetric, Long> counts = new EnumMap<>(DashboardMetric.class);
+        Map<DashboardMetric, BigDecimal> amounts = new EnumMap<>(DashboardMetric.class);
+        jdbcTemplate.query(SELECT_TOTALS, rs -> {
+            DashboardMetric metric = DashboardMetric.valueOf(rs.getString("metric"));
+            counts.put(metric, rs.getLong("item_count"));
+            amounts.put(metric, rs.getBigDecimal("amount"));
+        });
+        BigDecimal monthlyRevenue = jdbcTemplate.queryForObject(SELECT_REVENUE_SINCE, BigDecimal.class,
+                Date.valueOf(LocalDate.now().withDayOfMonth(1)));
+
+        return DashboardStatsResponse.builder()
+                .totalCustomers(counts.getOrDefault(DashboardMetric.CUSTOMERS, 0L))
+                .totalSubscriptions(counts.getOrDefault(DashboardMetric.SUBSCRIPTIONS, 0L))
+                .totalActiveSubscriptions(counts.getOrDefault(DashboardMetric.ACTIVE_SUBSCRIPTIONS, 0L))
+                .totalInvoices(counts.getOrDefault(DashboardMetric.INVOICES, 0L))
+                .openInvoices(counts.getOrDefault(DashboardMetric.OPEN_INVOICES, 0L))
+                .paidInvoices(counts.getOrDefault(DashboardMetric.PAID_INVOICES, 0L))
+                .successfulPayments(counts.getOrDefault(DashboardMetric.SUCCESSFUL_PAYMENTS, 0L))
+                .failedPayments(counts.getOrDefault(DashboardMetric.FAILED_PAYMENTS, 0L))
+                .totalRevenue(amounts.getOrDefault(DashboardMetric.SUCCESSFUL_PAYMENTS, BigDecimal.ZERO))
+                .monthlyRevenue(monthlyRevenue)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DashboardChartResponse getCharts(String period) {
+        String resolved = period == null ? "month" : period.toLowerCase(Locale.ROOT);
+        LocalDate today = LocalDate.now();
+        boolean monthly = resolved.equals("year");
+        LocalDate from = switch (resolved) {
+            case "week" -> today.minusDays(6);
+            case "month" -> today.minusDays(29);
+            case "year" -> today.withDayOfMonth(1).minusMonths(11);
+            default -> throw new IllegalArgumentException("Invalid period: " + period + ". Expected week, month or year");
+        };
+
+        // Todos los intervalos del periodo, incluso los que no tienen movimientos
+        Map<LocalDate, DashboardChartPoint> points = new LinkedHashMap<>();
+        for (LocalDate bucket = from; !bucket.isAfter(today); bucket = monthly ? bucket.plusMonths(1) : bucket.plusDays(1)) {
+            points.put(bucket, DashboardChartPoint.builder().date(bucket).revenue(BigDecimal.ZERO).build());
+        }
+        jdbcTemplate.query(SELECT_DAILY, rs -> {
+            LocalDate day = rs.getDate("rollup_date").toLocalDate();
+            DashboardChartPoint point = points.get(monthly ? day.withDayOfMonth(1) : day);
+            if (point == null) {
+                return;
+            }
+            long count = rs.getLong("item_count");
+            switch (DashboardMetric.valueOf(rs.getString("metric"))) {
+                case CUSTOMERS -> point.setNewCustomers(point.getNewCustomers() + count);
+                case SUBSCRIPTIONS -> point.setNewSubscriptions(point.getNewSubscriptions() + count);
+                case INVOICES -> point.setInvoicesIssued(point.getInvoicesIssued() + count);
+                case SUCCESSFUL_PAYMENTS -> {
+                    point.setSuccessfulPayments(point.getSuccessfulPayments() + count);
+                    point.setRevenue(point.getRevenue().add(rs.getBigDecimal("amount")));
+                }
+                case FAILED_PAYMENTS -> point.setFailedPayments(point.getFailedPayments() + count);
+                default -> {
+                }
+            }
+        }, Date.valueOf(from));
+
+        return DashboardChartResponse.builder()
+                .period(resolved)
+                .points(new ArrayList<>(points.values()))
+                .build();
+    }
+
+    // Corrige cualquier deriva de los contadores. El DELETE bloquea las filas existentes, así que los
+    // escritores concurrentes esperan y suman su cambio sobre los valores recalculados.
+    @Override
+    @Transactional
+    public DashboardStatsResponse rebuild() {
+        long start = System.currentTimeMillis();
+        REBUILD.forEach(jdbcTemplate::update);
+        log.info("Dashboard aggregates rebuilt in {} ms", System.currentTimeMillis() - start);
+        return getStats();
+    }
+}
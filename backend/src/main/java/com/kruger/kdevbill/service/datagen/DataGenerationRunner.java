@@ -0,0 +1,35 @@
+package com.kruger.kdevbill.service.datagen;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Con el perfil datagen la aplicación genera los datos y termina; si la generación falla, el arranque falla
+@Component
+@Profile("datagen")
+public class DataGenerationRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final ConfigurableApplicationContext applicationContext;
+    private final boolean exitOnCompletion;
+
+    public DataGenerationRunner(SyntheticDataGenerator syntheticDataGenerator,
+                                ConfigurableApplicationContext applicationContext,
+                                @Value("${application.datagen.exit-on-completion:true}") boolean exitOnCompletion) {
+        this.syntheticDataGenerator = syntheticDataGenerator;
+        this.applicationContext = applicationContext;
+        this.exitOnCompletion = exitOnCompletion;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        syntheticDataGenerator.generate();
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+}
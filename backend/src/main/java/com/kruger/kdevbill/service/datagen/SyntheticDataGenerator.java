@@ -0,0 +1,382 @@
+package com.kruger.kdevbill.service.datagen;
+
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.enums.BillingCycle;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentMethod;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
+import com.kruger.kdevbill.service.dashboard.DashboardService;
+import com.kruger.kdevbill.service.payment.impl.PaymentReferenceGenerator;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+// Llena un esquema vacío con datos sintéticos para pruebas de rendimiento. Cada chunk usa su propio
+// SplittableRandom derivado de la semilla y del número de chunk, y los ids salen de la posición de la fila
+// (no de las secuencias), así que la misma semilla produce exactamente las mismas filas con cualquier
+// cantidad de hilos. Al terminar se reinician las secuencias después de los ids usados y se recalculan
+// los agregados del dashboard.
+@Slf4j
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator {
+
+    // Tablas que se llenan, cada una con su secuencia <tabla>_id_seq
+    private static final List<String> TABLES =
+            List.of("payments", "invoices", "subscriptions", "customers", "plans", "users");
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, username, email, password, role) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customers (id, name, email, created_at, user_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PLAN =
+            "INSERT INTO plans (id, name, price, billing_cycle, active) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SUBSCRIPTION =
+            "INSERT INTO subscriptions (id, status, start_date, next_billing_date, created_at, customer_id, plan_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INVOICE =
+            "INSERT INTO invoices (id, amount, status, due_date, issued_at, subscription_id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PAYMENT =
+            "INSERT INTO payments (id, amount, method, status, paid_at, reference, invoice_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long CUSTOMERS_PHASE = 1;
+    private static final long SUBSCRIPTIONS_PHASE = 2;
+    private static final long PLANS_PHASE = 3;
+
+    private static final String[] NAME_PREFIXES = {"Andes", "Pacífico", "Austral", "Litoral", "Sierra", "Amazonía",
+            "Galápagos", "Cotopaxi", "Chimborazo", "Guayas", "Manabí", "Imbabura", "Azuay", "Loja", "Cóndor"};
+    private static final String[] NAME_ACTIVITIES = {"Logística", "Software", "Comercial", "Consultores", "Alimentos",
+            "Textiles", "Importaciones", "Servicios", "Construcciones", "Farmacéutica", "Digital", "Energía"};
+    private static final String[] NAME_SUFFIXES = {"S.A.", "Cía. Ltda.", "S.A.S.", "Group", "Corp."};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final IdBlockAllocator idBlockAllocator;
+    private final BillingHelper billingHelper;
+    private final DashboardService dashboardService;
+    private final long seed;
+    private final int customers;
+    private final int plans;
+    private final int subscriptions;
+    private final int historyMonths;
+    private final double customerSkew;
+    private final double yearlyRatio;
+    private final double paidRatio;
+    private final double failedPaymentRatio;
+    private final int threads;
+    private final int chunkSize;
+    private final String password;
+    private final String referenceDate;
+
+    public SyntheticDataGenerator(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  PasswordEncoder passwordEncoder,
+                                  IdBlockAllocator idBlockAllocator,
+                                  BillingHelper billingHelper,
+                                  DashboardService dashboardService,
+                                  @Value("${application.datagen.seed:42}") long seed,
+                                  @Value("${application.datagen.customers:100000}") int customers,
+                                  @Value("${application.datagen.plans:20}") int plans,
+                                  @Value("${application.datagen.subscriptions:150000}") int subscriptions,
+                                  @Value("${application.datagen.history-months:24}") int historyMonths,
+                                  @Value("${application.datagen.customer-skew:2.0}") double customerSkew,
+                                  @Value("${application.datagen.yearly-ratio:0.25}") double yearlyRatio,
+                                  @Value("${application.datagen.paid-ratio:0.9}") double paidRatio,
+                                  @Value("${application.datagen.failed-payment-ratio:0.05}") double failedPaymentRatio,
+                                  @Value("${application.datagen.threads:4}") int threads,
+                                  @Value("${application.datagen.chunk-size:1000}") int chunkSize,
+                                  @Value("${application.datagen.password:datagen}") String password,
+                                  @Value("${application.datagen.reference-date:}") String referenceDate) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.idBlockAllocator = idBlockAllocator;
+        this.billingHelper = billingHelper;
+        this.dashboardService = dashboardService;
+        this.seed = seed;
+        this.customers = customers;
+        this.plans = plans;
+        this.subscriptions = subscriptions;
+        this.historyMonths = historyMonths;
+        this.customerSkew = customerSkew;
+        this.yearlyRatio = yearlyRatio;
+        this.paidRatio = paidRatio;
+        this.failedPaymentRatio = failedPaymentRatio;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.password = password;
+        this.referenceDate = referenceDate;
+    }
+
+    // Filas insertadas por tabla
+    public Map<String, Long> generate() {
+        if (customers < 1 || plans < 1 || subscriptions < 0 || historyMonths < 1 || threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Data generation sizes must be positive");
+        }
+        for (String table : TABLES) {
+            if (!jdbcTemplate.queryForList("SELECT id FROM " + table + " LIMIT 1", Long.class).isEmpty()) {
+                throw new IllegalStateException("Synthetic data can only be generated into an empty schema, " +
+                        table + " already has rows");
+            }
+        }
+
+        LocalDate reference = referenceDate.isBlank() ? LocalDate.now() : LocalDate.parse(referenceDate);
+        log.info("Generating {} customers, {} plans and {} subscriptions over {} months up to {} (seed {}, {} threads)",
+                customers, plans, subscriptions, historyMonths, reference, seed, threads);
+        long started = System.nanoTime();
+
+        // Un solo hash BCrypt para todos los usuarios: calcular millones de hashes tomaría horas
+        String passwordHash = passwordEncoder.encode(password);
+        List<Plan> catalog = generatePlans();
+        Map<String, Long> rows = new LinkedHashMap<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "datagen-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_USER, 1L, "datagen-admin", "datagen-admin@kdevbill.com", passwordHash,
+                        Role.ADMIN.name());
+                jdbcTemplate.batchUpdate(INSERT_PLAN, catalog.stream()
+                        .map(plan -> new Object[]{plan.getId(), plan.getName(), plan.getPrice(),
+                                plan.getBillingCycle().name(), plan.isActive()})
+                        .toList());
+            });
+            rows.put("plans", (long) catalog.size());
+
+            long[] customerRows = runChunks(workers, customers,
+                    chunk -> () -> insertCustomers(chunk, passwordHash, reference));
+            rows.put("users", customerRows[0] + 1);
+            rows.put("customers", customerRows[0]);
+
+            long[] billingRows = runChunks(workers, subscriptions,
+                    chunk -> () -> insertSubscriptions(chunk, catalog, reference));
+            rows.put("subscriptions", (long) subscriptions);
+            rows.put("invoices", billingRows[0]);
+            rows.put("payments", billingRows[1]);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        restartSequences();
+        analyze();
+        dashboardService.rebuild();
+        log.info("Synthetic data generated in {} ms: {}", (System.nanoTime() - started) / 1_000_000, rows);
+        return rows;
+    }
+
+    private List<Plan> generatePlans() {
+        SplittableRandom random = random(PLANS_PHASE, 0);
+        List<Plan> catalog = new ArrayList<>(plans);
+        for (int i = 0; i < plans; i++) {
+            boolean yearly = random.nextDouble() < yearlyRatio;
+            // Escalones de precio: los planes de índice bajo son los baratos y también los más elegidos
+            BigDecimal monthly = new BigDecimal(5 + 10 * i).subtract(new BigDecimal("0.01"));
+            catalog.add(Plan.builder()
+                    .id((long) i + 1)
+                    .name(String.format("Plan %03d %s", i + 1, yearly ? "Yearly" : "Monthly"))
+                    .price(yearly ? monthly.multiply(BigDecimal.TEN) : monthly)
+                    .billingCycle(yearly ? BillingCycle.YEARLY : BillingCycle.MONTHLY)
+                    .active(i % 10 != 9)
+                    .build());
+        }
+        return catalog;
+    }
+
+    private long[] insertCustomers(int chunk, String passwordHash, LocalDate reference) {
+        SplittableRandom random = random(CUSTOMERS_PHASE, chunk);
+        LocalDateTime windowStart = reference.minusMonths(historyMonths).atStartOfDay();
+        long windowSeconds = ChronoUnit.SECONDS.between(windowStart, reference.atStartOfDay());
+        int from = chunk * chunkSize + 1;
+        int to = Math.min(from + chunkSize - 1, customers);
+
+        List<Object[]> users = new ArrayList<>(to - from + 1);
+        List<Object[]> customerRows = new ArrayList<>(to - from + 1);
+        for (long customerId = from; customerId <= to; customerId++) {
+            // El usuario 1 es el administrador; cada customer tiene el usuario siguiente a su id
+            long userId = customerId + 1;
+            String username = String.format("user%08d", customerId);
+            users.add(new Object[]{userId, username, username + "@datagen.kdevbill.com", passwordHash,
+                    Role.USER.name()});
+            String name = NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)] + " " +
+                    NAME_ACTIVITIES[random.nextInt(NAME_ACTIVITIES.length)] + " " +
+                    NAME_SUFFIXES[random.nextInt(NAME_SUFFIXES.length)];
+            // Más altas recientes que antiguas: la base de clientes crece con el tiempo
+            LocalDateTime createdAt = windowStart.plusSeconds((long) (windowSeconds * Math.sqrt(random.nextDouble())));
+            customerRows.add(new Object[]{customerId, name, String.format("customer%08d@datagen.kdevbill.com", customerId),
+                    Timestamp.valueOf(createdAt), userId});
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER, users);
+            jdbcTemplate.batchUpdate(INSERT_CUSTOMER, customerRows);
+        });
+        return new long[]{customerRows.size(), 0};
+    }
+
+    private long[] insertSubscriptions(int chunk, List<Plan> catalog, LocalDate reference) {
+        SplittableRandom random = random(SUBSCRIPTIONS_PHASE, chunk);
+        LocalDate windowStart = reference.minusMonths(historyMonths);
+        long windowDays = ChronoUnit.DAYS.between(windowStart, reference);
+        // Cota de facturas por suscripción (mensual desde el inicio de la ventana): define el espacio de ids
+        long invoiceSlots = historyMonths + 1L;
+        int from = chunk * chunkSize + 1;
+        int to = Math.min(from + chunkSize - 1, subscriptions);
+
+        List<Object[]> subscriptionRows = new ArrayList<>(to - from + 1);
+        List<Object[]> invoices = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        for (long subscriptionId = from; subscriptionId <= to; subscriptionId++) {
+            // Distribución sesgada: unos pocos clientes concentran buena parte de las suscripciones
+            long customerId = 1 + Math.min(customers - 1, (long) (customers * Math.pow(random.nextDouble(), customerSkew)));
+            Plan plan = catalog.get(Math.min(plans - 1, (int) (plans * Math.pow(random.nextDouble(), 2))));
+            double statusDraw = random.nextDouble();
+            SubscriptionStatus status = statusDraw < 0.8 ? SubscriptionStatus.ACTIVE
+                    : statusDraw < 0.88 ? SubscriptionStatus.PAUSED : SubscriptionStatus.CANCELED;
+            LocalDate startDate = windowStart.plusDays((long) (windowDays * Math.sqrt(random.nextDouble())));
+            LocalDateTime createdAt = startDate.atTime(8 + random.nextInt(12), random.nextInt(60), random.nextInt(60));
+
+            List<LocalDate> billingDates = new ArrayList<>();
+            LocalDate next = startDate;
+            while (!next.isAfter(reference) && billingDates.size() < invoiceSlots) {
+                billingDates.add(next);
+                next = billingHelper.calculateNextBillingDate(next, plan);
+            }
+            // Las pausadas y canceladas dejaron de facturarse en algún ciclo intermedio
+            if (status != SubscriptionStatus.ACTIVE) {
+                int billed = 1 + random.nextInt(billingDates.size());
+                next = billed < billingDates.size() ? billingDates.get(billed) : next;
+                billingDates = billingDates.subList(0, billed);
+            }
+            subscriptionRows.add(new Object[]{subscriptionId, status.name(), Date.valueOf(startDate),
+                    status == SubscriptionStatus.CANCELED ? null : Date.valueOf(next), Timestamp.valueOf(createdAt),
+                    customerId, plan.getId()});
+
+            for (int period = 0; period < billingDates.size(); period++) {
+                long invoiceId = (subscriptionId - 1) * invoiceSlots + period + 1;
+                LocalDateTime issuedAt = period == 0 ? createdAt
+                        : billingDates.get(period).atTime(2, random.nextInt(60), random.nextInt(60));
+                boolean paid = random.nextDouble() < paidRatio;
+                invoices.add(new Object[]{invoiceId, plan.getPrice(),
+                        (paid ? InvoiceStatus.PAID : InvoiceStatus.OPEN).name(),
+                        Date.valueOf(issuedAt.toLocalDate().plusDays(7)), Timestamp.valueOf(issuedAt), subscriptionId});
+
+                // Hasta dos pagos por factura: un intento rechazado y el cobro exitoso
+                if (random.nextDouble() < failedPaymentRatio) {
+                    payments.add(payment(invoiceId * 2 - 1, plan.getPrice(), PaymentStatus.FAILED,
+                            issuedAt.plusMinutes(random.nextInt(72 * 60)), invoiceId, random));
+                }
+                if (paid) {
+                    payments.add(payment(invoiceId * 2, plan.getPrice(), PaymentStatus.SUCCESS,
+                            issuedAt.plusMinutes(random.nextInt(7 * 24 * 60)), invoiceId, random));
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SUBSCRIPTION, subscriptionRows);
+            jdbcTemplate.batchUpdate(INSERT_INVOICE, invoices);
+            jdbcTemplate.batchUpdate(INSERT_PAYMENT, payments);
+        });
+        return new long[]{invoices.size(), payments.size()};
+    }
+
+    private static Object[] payment(long paymentId, BigDecimal amount, PaymentStatus status, LocalDateTime paidAt,
+                                    long invoiceId, SplittableRandom random) {
+        int methodDraw = random.nextInt(100);
+        PaymentMethod method = methodDraw < 70 ? PaymentMethod.CARD
+                : methodDraw < 95 ? PaymentMethod.TRANSFER : PaymentMethod.CASH;
+        // La referencia usa el id del pago como valor de payment_reference_seq, que se reinicia más adelante
+        return new Object[]{paymentId, amount, method.name(), status.name(), Timestamp.valueOf(paidAt),
+                PaymentReferenceGenerator.encode(paymentId), invoiceId};
+    }
+
+    // Suma las filas que informa cada chunk (dos contadores por chunk)
+    private long[] runChunks(ExecutorService workers, int total, IntFunction<Callable<long[]>> task) {
+        int chunks = (total + chunkSize - 1) / chunkSize;
+        List<Future<long[]>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            futures.add(workers.submit(task.apply(chunk)));
+        }
+        long[] result = new long[2];
+        for (Future<long[]> future : futures) {
+            try {
+                long[] counts = future.get();
+                result[0] += counts[0];
+                result[1] += counts[1];
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Synthetic data generation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Synthetic data generation failed: " + e.getCause().getMessage(),
+                        e.getCause());
+            }
+        }
+        return result;
+    }
+
+    // Los ids se asignaron sin pasar por las secuencias: Hibernate e IdBlockAllocator deben seguir después
+    private void restartSequences() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            jdbcTemplate.execute("ALTER SEQUENCE " + table + "_id_seq RESTART WITH " + (maxId + 1));
+        }
+        // payment_reference_seq entrega el primer valor de cada bloque: el siguiente bloque empieza después
+        // del mayor id de pago usado como referencia
+        Long maxPaymentId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM payments", Long.class);
+        long blockSize = idBlockAllocator.blockSize("payment_reference_seq");
+        long nextBlock = (maxPaymentId + blockSize - 1) / blockSize * blockSize + 1;
+        jdbcTemplate.execute("ALTER SEQUENCE payment_reference_seq RESTART WITH " + nextBlock);
+    }
+
+    // Sin estadísticas frescas Postgres planifica las primeras consultas como si las tablas estuvieran vacías
+    private void analyze() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read database metadata", e);
+        }
+        TABLES.forEach(table -> jdbcTemplate.execute("ANALYZE " + table));
+    }
+
+    private SplittableRandom random(long phase, long chunk) {
+        return new SplittableRandom(seed ^ (phase * 0x9E3779B97F4A7C15L) ^ (chunk * 0xC2B2AE3D27D4EB4FL));
+    }
+}
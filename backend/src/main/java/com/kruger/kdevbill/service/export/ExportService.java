@@ -0,0 +1,16 @@
+package com.kruger.kdevbill.service.export;
+
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface ExportService {
+
+    long exportCustomers(LocalDate from, LocalDate to, OutputStream out);
+
+    long exportInvoices(InvoiceStatus status, LocalDate from, LocalDate to, OutputStream out);
+
+    long exportPayments(PaymentStatus status, LocalDate from, LocalDate to, OutputStream out);
+}
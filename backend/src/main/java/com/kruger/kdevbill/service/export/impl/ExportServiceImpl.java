@@ -0,0 +1,166 @@
+package com.kruger.kdevbill.service.export.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.service.export.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Exporta filas como NDJSON leyendo con un cursor JDBC de solo avance: ninguna fila se materializa
+// como entidad ni DTO, por lo que la memoria usada no depende del tamaño de la tabla.
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ExportServiceImpl(DataSource dataSource,
+                             @Value("${application.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCustomers(LocalDate from, LocalDate to, OutputStream out) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT c.id, c.name, c.email, c.created_at, c.user_id, u.username " +
+                "FROM customers c JOIN users u ON u.id = c.user_id WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        appendDateRange(sql, args, "c.created_at", from, to);
+        sql.append(" ORDER BY c.id");
+
+        return stream(sql.toString(), args, out, (rs, gen) -> {
+            gen.writeNumberField("id", rs.getLong("id"));
+            gen.writeStringField("name", rs.getString("name"));
+            gen.writeStringField("email", rs.getString("email"));
+            writeTimestamp(gen, "createdAt", rs.getTimestamp("created_at"));
+            gen.writeNumberField("ownerId", rs.getLong("user_id"));
+            gen.writeStringField("ownerUsername", rs.getString("username"));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportInvoices(InvoiceStatus status, LocalDate from, LocalDate to, OutputStream out) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT i.id, i.subscription_id, i.amount, i.status, i.due_date, i.issued_at " +
+                "FROM invoices i WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND i.status = ?");
+            args.add(status.name());
+        }
+        appendDateRange(sql, args, "i.issued_at", from, to);
+        sql.append(" ORDER BY i.id");
+
+        return stream(sql.toString(), args, out, (rs, gen) -> {
+            gen.writeNumberField("id", rs.getLong("id"));
+            gen.writeNumberField("subscriptionId", rs.getLong("subscription_id"));
+            gen.writeNumberField("amount", rs.getBigDecimal("amount"));
+            gen.writeStringField("status", rs.getString("status"));
+            writeDate(gen, "dueDate", rs.getDate("due_date"));
+            writeTimestamp(gen, "issuedAt", rs.getTimestamp("issued_at"));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPayments(PaymentStatus status, LocalDate from, LocalDate to, OutputStream out) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT p.id, p.invoice_id, p.amount, p.method, p.status, p.paid_at, p.reference " +
+                "FROM payments p WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND p.status = ?");
+            args.add(status.name());
+        }
+        appendDateRange(sql, args, "p.paid_at", from, to);
+        sql.append(" ORDER BY p.id");
+
+        return stream(sql.toString(), args, out, (rs, gen) -> {
+            gen.writeNumberField("id", rs.getLong("id"));
+            gen.writeNumberField("invoiceId", rs.getLong("invoice_id"));
+            gen.writeNumberField("amount", rs.getBigDecimal("amount"));
+            gen.writeStringField("method", rs.getString("method"));
+            gen.writeStringField("status", rs.getString("status"));
+            writeTimestamp(gen, "paidAt", rs.getTimestamp("paid_at"));
+            gen.writeStringField("reference", rs.getString("reference"));
+        });
+    }
+
+    private long stream(String sql, List<Object> args, OutputStream out, RowWriter rowWriter) {
+        long[] rows = {0};
+        try (JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                try {
+                    gen.writeStartObject();
+                    rowWriter.write(rs, gen);
+                    gen.writeEndObject();
+                    gen.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            gen.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} rows", rows[0]);
+        return rows[0];
+    }
+
+    private static void appendDateRange(StringBuilder sql, List<Object> args, String column, LocalDate from, LocalDate to) {
+        if (from != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND ").append(column).append(" < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(field);
+        } else {
+            gen.writeStringField(field, value.toLocalDateTime().toString());
+        }
+    }
+
+    private static void writeDate(JsonGenerator gen, String field, Date value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(field);
+        } else {
+            gen.writeStringField(field, value.toLocalDate().toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs, JsonGenerator gen) throws SQLException, IOException;
+    }
+}
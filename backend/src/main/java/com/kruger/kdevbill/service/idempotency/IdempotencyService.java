@@ -0,0 +1,15 @@
+package com.kruger.kdevbill.service.idempotency;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Ejecuta la acción una sola vez por clave y usuario; los reintentos reciben la respuesta guardada
+    <T> ResponseEntity<T> execute(String idempotencyKey, String fingerprint, Class<T> responseType,
+                                  Supplier<ResponseEntity<T>> action);
+}
@@ -0,0 +1,214 @@
+package com.kruger.kdevbill.service.idempotency.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kruger.kdevbill.entity.IdempotencyKey;
+import com.kruger.kdevbill.entity.enums.IdempotencyStatus;
+import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.idempotency.IdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Dos niveles: una caché acotada con TTL para las respuestas recientes y la tabla idempotency_keys,
+// cuya restricción única decide qué request ejecuta la operación cuando hay varias instancias.
+// Los duplicados concurrentes dentro de la misma instancia esperan al primero en lugar de competir.
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final SecurityHelper securityHelper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyStore idempotencyStore,
+                                  SecurityHelper securityHelper,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${application.idempotency.ttl:86400000}") long ttl,
+                                  @Value("${application.idempotency.claim-timeout:300000}") long claimTimeout,
+                                  @Value("${application.idempotency.cache.max-entries:10000}") long cacheMaxEntries) {
+        this.idempotencyStore = idempotencyStore;
+        this.securityHelper = securityHelper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMillis(ttl);
+        this.claimTimeout = Duration.ofMillis(claimTimeout);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(this.ttl)
+                .build();
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String fingerprint, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        Long userId = securityHelper.getAuthenticatedUserId();
+        String cacheKey = userId + ":" + idempotencyKey;
+
+        while (true) {
+            StoredResponse stored = completed.getIfPresent(cacheKey);
+            if (stored != null) {
+                return replay(stored, fingerprint, responseType);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+            if (running != null) {
+                StoredResponse result = await(running);
+                if (result != null) {
+                    return replay(result, fingerprint, responseType);
+                }
+                // El primero falló y liberó la clave: este request la vuelve a intentar
+                continue;
+            }
+
+            try {
+                Outcome<T> outcome = claimAndRun(userId, idempotencyKey, fingerprint, responseType, action);
+                completed.put(cacheKey, outcome.stored);
+                inFlight.remove(cacheKey, mine);
+                mine.complete(outcome.stored);
+                return outcome.response;
+            } catch (RuntimeException e) {
+                inFlight.remove(cacheKey, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private <T> Outcome<T> claimAndRun(Long userId, String key, String fingerprint, Class<T> responseType,
+                                       Supplier<ResponseEntity<T>> action) {
+        Long claimId = claim(userId, key, fingerprint);
+        if (claimId == null) {
+            // Otra instancia ya completó esta clave
+            IdempotencyKey existing = idempotencyStore.find(userId, key)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency-Key " + key + " is already being processed"));
+            StoredResponse stored = new StoredResponse(existing.getFingerprint(), existing.getResponseStatus(),
+                    existing.getResponseBody());
+            return new Outcome<>(stored, replay(stored, fingerprint, responseType));
+        }
+
+        try {
+            // La respuesta se guarda en la misma transacción que la operación: o quedan ambas o ninguna
+            return transactionTemplate.execute(status -> {
+                ResponseEntity<T> response = action.get();
+                StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                        toJson(response.getBody()));
+                idempotencyStore.complete(claimId, stored.status, stored.body);
+                return new Outcome<>(stored, response);
+            });
+        } catch (RuntimeException e) {
+            idempotencyStore.release(claimId);
+            throw e;
+        }
+    }
+
+    // Devuelve el id de la reserva, o null si la clave ya estaba completada
+    private Long claim(Long userId, String key, String fingerprint) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return idempotencyStore.claim(userId, key, fingerprint, LocalDateTime.now().plus(ttl));
+            } catch (DataIntegrityViolationException duplicate) {
+                Optional<IdempotencyKey> existing = idempotencyStore.find(userId, key);
+                if (existing.isEmpty()) {
+                    continue;
+                }
+                if (existing.get().getStatus() == IdempotencyStatus.COMPLETED) {
+                    return null;
+                }
+                boolean released = attempt == 0 && idempotencyStore.releaseStale(existing.get().getId(),
+                        LocalDateTime.now().minus(claimTimeout));
+                if (!released) {
+                    throw new IllegalStateException("A request with this Idempotency-Key is already in progress");
+                }
+                log.warn("Released stale idempotency claim {} for user {}", existing.get().getId(), userId);
+            }
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(claimTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is already in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String fingerprint, Class<T> responseType) {
+        if (!stored.fingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+        try {
+            T body = stored.body == null ? null : objectMapper.readValue(stored.body, responseType);
+            return ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored for idempotent replay", e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final String body;
+
+        private StoredResponse(String fingerprint, int status, String body) {
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class Outcome<T> {
+        private final StoredResponse stored;
+        private final ResponseEntity<T> response;
+
+        private Outcome(StoredResponse stored, ResponseEntity<T> response) {
+            this.stored = stored;
+            this.response = response;
+        }
+    }
+}
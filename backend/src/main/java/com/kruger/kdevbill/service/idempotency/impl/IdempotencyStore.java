@@ -0,0 +1,72 @@
+package com.kruger.kdevbill.service.idempotency.impl;
+
+import com.kruger.kdevbill.entity.IdempotencyKey;
+import com.kruger.kdevbill.entity.enums.IdempotencyStatus;
+import com.kruger.kdevbill.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Persistencia de las claves. La reserva y la liberación se confirman por separado para que otras
+// instancias las vean de inmediato; completar se une a la transacción de la operación.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    // Lanza DataIntegrityViolationException si la clave ya está reservada
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long claim(Long userId, String key, String fingerprint, LocalDateTime expiresAt) {
+        IdempotencyKey claim = IdempotencyKey.builder()
+                .userId(userId)
+                .idempotencyKey(key)
+                .fingerprint(fingerprint)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .expiresAt(expiresAt)
+                .build();
+        return idempotencyKeyRepository.saveAndFlush(claim).getId();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public Optional<IdempotencyKey> find(Long userId, String key) {
+        return idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+    }
+
+    // El id de la reserva funciona como token: si la reserva se liberó por vencida mientras la operación seguía
+    // en curso y otro request tomó la clave, la excepción revierte esta operación en lugar de confirmar un duplicado
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(Long claimId, int responseStatus, String responseBody) {
+        int updated = idempotencyKeyRepository.complete(claimId, IdempotencyStatus.IN_PROGRESS,
+                IdempotencyStatus.COMPLETED, responseStatus, responseBody);
+        if (updated == 0) {
+            throw new IllegalStateException("Idempotency claim " + claimId + " was taken over by another request");
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(Long claimId) {
+        idempotencyKeyRepository.deleteById(claimId);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean releaseStale(Long claimId, LocalDateTime claimedBefore) {
+        return idempotencyKeyRepository.deleteStaleClaim(claimId, IdempotencyStatus.IN_PROGRESS, claimedBefore) == 1;
+    }
+
+    @Scheduled(cron = "${application.idempotency.cleanup-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
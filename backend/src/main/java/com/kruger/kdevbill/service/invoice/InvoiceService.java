@@ -1,13 +1,12 @@
 package com.kruger.kdevbill.service.invoice;
 
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.dto.response.PaymentResponse;
 
-import java.util.List;
-
 public interface InvoiceService {
 
-    List<InvoiceResponse> getMyInvoices();
+    CursorPage<InvoiceResponse> getMyInvoices(String cursor, Integer size);
 
     InvoiceResponse getInvoiceById(Long id);
 
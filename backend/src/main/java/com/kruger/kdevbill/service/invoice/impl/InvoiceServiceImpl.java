@@ -1,32 +1,29 @@
 package com.kruger.kdevbill.service.invoice.impl;
 
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.dto.response.PaymentResponse;
-import com.kruger.kdevbill.entity.Customer;
 import com.kruger.kdevbill.entity.Invoice;
 import com.kruger.kdevbill.entity.Payment;
-import com.kruger.kdevbill.entity.Subscription;
-import com.kruger.kdevbill.entity.User;
 import com.kruger.kdevbill.entity.enums.InvoiceStatus;
-import com.kruger.kdevbill.entity.enums.PaymentStatus;
 import com.kruger.kdevbill.mapper.InvoiceMapper;
 import com.kruger.kdevbill.mapper.PaymentMapper;
-import com.kruger.kdevbill.repository.CustomerRepository;
 import com.kruger.kdevbill.repository.InvoiceRepository;
 import com.kruger.kdevbill.repository.PaymentRepository;
-import com.kruger.kdevbill.repository.SubscriptionRepository;
 import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.customer.CustomerResolver;
 import com.kruger.kdevbill.service.invoice.InvoiceService;
-import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import com.kruger.kdevbill.service.pagination.KeysetCursor;
+import com.kruger.kdevbill.service.pagination.KeysetPagination;
+import com.kruger.kdevbill.service.payment.PaymentRequestedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -35,37 +32,32 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
-    private final CustomerRepository customerRepository;
-    private final SubscriptionRepository subscriptionRepository;
+    private final CustomerResolver customerResolver;
     private final SecurityHelper securityHelper;
     private final InvoiceMapper invoiceMapper;
     private final PaymentMapper paymentMapper;
     private final PaymentHelper paymentHelper;
-    private final BillingHelper billingHelper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KeysetPagination keysetPagination;
 
     @Override
     @Transactional(readOnly = true)
-    public List<InvoiceResponse> getMyInvoices() {
-        User authenticatedUser = securityHelper.getAuthenticatedUser();
+    public CursorPage<InvoiceResponse> getMyInvoices(String cursor, Integer size) {
+        Long customerId = customerResolver.requireCurrentCustomerId();
 
-        // Búsqueda del customer por ID del owner para evitar problemas de comparación
-        // de instancias
-        Customer customer = customerRepository.findByOwnerId(authenticatedUser.getId())
-                .orElseThrow(() -> new RuntimeException(
-                        "No customer profile found for user: " + authenticatedUser.getUsername() +
-                                ". Please create a customer profile first or contact administrator."));
+        int pageSize = keysetPagination.resolveSize(size);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<InvoiceResponse> invoices = invoiceRepository.findPageByCustomerId(customerId,
+                position.getTimestamp(), position.getId(), keysetPagination.probe(pageSize));
 
-        List<Invoice> invoices = invoiceRepository.findBySubscription_CustomerId(customer.getId());
-
-        return invoices.stream()
-                .map(invoiceMapper::toInvoiceResponse)
-                .collect(Collectors.toList());
+        return keysetPagination.toPage(invoices, pageSize,
+                invoice -> new KeysetCursor(invoice.getIssuedAt(), invoice.getId()).encode());
     }
 
     @Override
     @Transactional(readOnly = true)
     public InvoiceResponse getInvoiceById(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
+        Invoice invoice = invoiceRepository.findWithOwnerById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
         Long ownerId = invoice.getSubscription().getCustomer().getOwner().getId();
         if (!securityHelper.isAdmin() && !securityHelper.isOwner(ownerId)) {
@@ -77,28 +69,23 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional
     public PaymentResponse payInvoice(Long id) {
-        Invoice invoice = invoiceRepository.findByIdAndStatus(id, InvoiceStatus.OPEN)
-                .orElseThrow(() -> new RuntimeException("Invoice not found or is not in 'OPEN' status. ID: " + id));
+        Invoice invoice = invoiceRepository.findWithOwnerById(id)
+                .orElseThrow(() -> new RuntimeException("Invoice not found with id: " + id));
         Long ownerId = invoice.getSubscription().getCustomer().getOwner().getId();
         if (!securityHelper.isAdmin() && !securityHelper.isOwner(ownerId)) {
             throw new AccessDeniedException("You do not have permission to pay this invoice");
         }
-        Payment payment = paymentHelper.processPayment(invoice);
-        Payment savedPayment = paymentRepository.save(payment);
-        if (savedPayment.getStatus() == PaymentStatus.SUCCESS) {
-            invoice.setStatus(InvoiceStatus.PAID);
-            invoiceRepository.save(invoice);
-            Subscription subscription = invoice.getSubscription();
-            if (subscription.getNextBillingDate() != null &&
-                    subscription.getNextBillingDate().isEqual(invoice.getDueDate().minusDays(7))) {
+        if (invoice.getStatus() != InvoiceStatus.OPEN) {
+            throw new IllegalStateException("Invoice " + id + " is already " + invoice.getStatus());
+        }
 
-                LocalDate newNextBillingDate = billingHelper.calculateNextBillingDate(
-                        subscription.getNextBillingDate(),
-                        subscription.getPlan());
-                subscription.setNextBillingDate(newNextBillingDate);
-                subscriptionRepository.save(subscription);
-            }
+        // OPEN -> PROCESSING con un UPDATE condicionado: un solo request registra el pago
+        if (invoiceRepository.transitionStatus(id, InvoiceStatus.OPEN, InvoiceStatus.PROCESSING) == 0) {
+            throw new IllegalStateException("Invoice " + id + " is already being paid by a concurrent request");
         }
+        Payment savedPayment = paymentRepository.save(paymentHelper.newPendingPayment(invoice));
+        // El cobro se hace fuera de esta transacción, cuando el pago PENDING ya está confirmado
+        eventPublisher.publishEvent(new PaymentRequestedEvent(savedPayment.getId()));
         return paymentMapper.toPaymentResponse(savedPayment);
     }
 }
\ No newline at end of file
@@ -4,17 +4,23 @@ import com.kruger.kdevbill.entity.Invoice;
 import com.kruger.kdevbill.entity.Payment;
 import com.kruger.kdevbill.entity.enums.PaymentMethod;
 import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.service.payment.impl.PaymentReferenceGenerator;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 public class PaymentHelper {
-    public Payment processPayment(Invoice invoice) {
-        PaymentStatus status = PaymentStatus.SUCCESS;
+
+    private final PaymentReferenceGenerator paymentReferenceGenerator;
+
+    // El pago nace PENDING; el resultado lo aplica PaymentProcessor cuando responde la pasarela
+    public Payment newPendingPayment(Invoice invoice) {
+        PaymentStatus status = PaymentStatus.PENDING;
         PaymentMethod method = PaymentMethod.CARD;
-        String reference = "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String reference = paymentReferenceGenerator.next();
         return Payment.builder()
                 .invoice(invoice)
                 .amount(invoice.getAmount())
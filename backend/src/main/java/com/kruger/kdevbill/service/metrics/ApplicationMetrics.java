@@ -0,0 +1,95 @@
+package com.kruger.kdevbill.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+// Meters de las rutas críticas (facturación, pagos y autenticación), registrados una sola vez al iniciar.
+// Todos usan el prefijo kdevbill para activar histogramas y SLOs por propiedades sin tocar el código.
+@Getter
+@Component
+public class ApplicationMetrics {
+
+    private final OutcomeTimer subscriptionCreate;
+    private final OutcomeTimer subscriptionRenew;
+    private final OutcomeTimer invoicePay;
+
+    private final Timer paymentGatewayApproved;
+    private final Timer paymentGatewayDeclined;
+    private final Timer paymentGatewayError;
+
+    private final Timer tokenGenerate;
+    private final Timer tokenVerifyCached;
+    private final Timer tokenVerifyParsed;
+    private final Counter tokenRejected;
+
+    private final Timer passwordEncode;
+    private final Timer passwordMatch;
+    private final Timer passwordMismatch;
+
+    private final Timer customerResolveToken;
+    private final Timer customerResolveCache;
+    private final Timer customerResolveDatabase;
+
+    public ApplicationMetrics(MeterRegistry registry) {
+        this.subscriptionCreate = OutcomeTimer.register(registry, "kdevbill.subscriptions.create",
+                "Subscription creation, including the initial invoice");
+        this.subscriptionRenew = OutcomeTimer.register(registry, "kdevbill.subscriptions.renew",
+                "Manual subscription renewal");
+        this.invoicePay = OutcomeTimer.register(registry, "kdevbill.invoices.pay",
+                "Invoice payment request, up to the PENDING payment");
+
+        this.paymentGatewayApproved = paymentGateway(registry, "approved");
+        this.paymentGatewayDeclined = paymentGateway(registry, "declined");
+        this.paymentGatewayError = paymentGateway(registry, "error");
+
+        this.tokenGenerate = Timer.builder("kdevbill.auth.tokens.generate")
+                .description("JWT signing")
+                .register(registry);
+        this.tokenVerifyCached = tokenVerify(registry, "hit");
+        this.tokenVerifyParsed = tokenVerify(registry, "miss");
+        this.tokenRejected = Counter.builder("kdevbill.auth.tokens.rejected")
+                .description("Tokens with an invalid signature or format")
+                .register(registry);
+
+        this.passwordEncode = Timer.builder("kdevbill.auth.password.encode")
+                .description("BCrypt hashing of a new password")
+                .register(registry);
+        this.passwordMatch = passwordCheck(registry, "match");
+        this.passwordMismatch = passwordCheck(registry, "mismatch");
+
+        this.customerResolveToken = customerResolve(registry, "token");
+        this.customerResolveCache = customerResolve(registry, "cache");
+        this.customerResolveDatabase = customerResolve(registry, "database");
+    }
+
+    private static Timer paymentGateway(MeterRegistry registry, String outcome) {
+        return Timer.builder("kdevbill.payments.gateway")
+                .description("Payment gateway charge, outside the request thread")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer tokenVerify(MeterRegistry registry, String cache) {
+        return Timer.builder("kdevbill.auth.tokens.verify")
+                .description("JWT verification, from the verified-claims cache or by parsing the token")
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    private static Timer passwordCheck(MeterRegistry registry, String outcome) {
+        return Timer.builder("kdevbill.auth.password.check")
+                .description("BCrypt comparison on login")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer customerResolve(MeterRegistry registry, String source) {
+        return Timer.builder("kdevbill.customers.resolve")
+                .description("Resolution of the authenticated user's customer")
+                .tag("source", source)
+                .register(registry);
+    }
+}
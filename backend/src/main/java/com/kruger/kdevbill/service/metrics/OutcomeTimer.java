@@ -0,0 +1,59 @@
+package com.kruger.kdevbill.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Timer de una operación con el tag outcome: success, conflict (IllegalStateException: estado que ya cambió),
+// rejected (datos inválidos o sin permiso) o error. Los cuatro se registran al crearlo, así que medir no
+// busca ni crea meters. Los histogramas se activan por prefijo con management.metrics.distribution.*.
+public final class OutcomeTimer {
+
+    private final Timer success;
+    private final Timer conflict;
+    private final Timer rejected;
+    private final Timer error;
+
+    private OutcomeTimer(MeterRegistry registry, String name, String description) {
+        this.success = timer(registry, name, description, "success");
+        this.conflict = timer(registry, name, description, "conflict");
+        this.rejected = timer(registry, name, description, "rejected");
+        this.error = timer(registry, name, description, "error");
+    }
+
+    public static OutcomeTimer register(MeterRegistry registry, String name, String description) {
+        return new OutcomeTimer(registry, name, description);
+    }
+
+    public <T> T record(Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            T result = operation.get();
+            success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timerFor(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timerFor(RuntimeException e) {
+        if (e instanceof IllegalStateException) {
+            return conflict;
+        }
+        if (e instanceof IllegalArgumentException || e instanceof AccessDeniedException) {
+            return rejected;
+        }
+        return error;
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.kruger.kdevbill.service.outbox;
+
+import com.kruger.kdevbill.entity.OutboxEvent;
+
+// Destino de los eventos del outbox. Una excepción en publish retiene ese evento y los siguientes del mismo
+// agregado hasta el próximo intento; flush se llama una vez por lote antes de marcarlo como publicado.
+public interface OutboxSink {
+
+    void publish(OutboxEvent event);
+
+    default void flush() {
+    }
+}
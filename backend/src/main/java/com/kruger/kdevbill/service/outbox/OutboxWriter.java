@@ -0,0 +1,66 @@
+package com.kruger.kdevbill.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.OutboxEvent;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
+import com.kruger.kdevbill.repository.OutboxEventRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Escribe los eventos en outbox_events. Solo se puede llamar dentro de la transacción del cambio que los
+// origina: si esa transacción se revierte, el evento desaparece con ella.
+@Component
+public class OutboxWriter {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at, attempts) " +
+            "VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper, DataSource dataSource) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType type, Long aggregateId, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(type.getAggregateType())
+                .aggregateId(aggregateId)
+                .eventType(type)
+                .payload(toJson(payload))
+                .build());
+    }
+
+    // Variante por lotes para las escrituras JDBC (corrida de facturación); las claves son ids de agregado
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(OutboxEventType type, Map<Long, ?> payloadsByAggregateId) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(payloadsByAggregateId.size());
+        payloadsByAggregateId.forEach((aggregateId, payload) -> rows.add(new Object[]{
+                type.getAggregateType(), aggregateId, type.name(), toJson(payload), createdAt}));
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox payload cannot be serialized", e);
+        }
+    }
+}
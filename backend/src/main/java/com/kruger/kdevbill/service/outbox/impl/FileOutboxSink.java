@@ -0,0 +1,91 @@
+package com.kruger.kdevbill.service.outbox.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.kruger.kdevbill.entity.OutboxEvent;
+import com.kruger.kdevbill.service.outbox.OutboxSink;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Agrega cada evento como una línea JSON (NDJSON) a un archivo local
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private BufferedWriter writer;
+
+    public FileOutboxSink(ObjectMapper objectMapper,
+                          @Value("${application.outbox.file.path:${java.io.tmpdir}/kdevbill-outbox/events.ndjson}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public synchronized void publish(OutboxEvent event) {
+        ObjectNode line = objectMapper.createObjectNode()
+                .put("id", event.getId())
+                .put("aggregateType", event.getAggregateType())
+                .put("aggregateId", event.getAggregateId())
+                .put("eventType", event.getEventType().name())
+                .put("createdAt", String.valueOf(event.getCreatedAt()));
+        // El payload ya es JSON: se copia tal cual, sin volver a parsearlo
+        line.putRawValue("payload", new RawValue(event.getPayload()));
+        try {
+            writer().write(objectMapper.writeValueAsString(line));
+            writer.newLine();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event " + event.getId() + " cannot be serialized", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write outbox event to " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot flush outbox events to " + path, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private BufferedWriter writer() throws IOException {
+        if (writer == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("Writing outbox events to {}", path.toAbsolutePath());
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,30 @@
+package com.kruger.kdevbill.service.outbox.impl;
+
+import com.kruger.kdevbill.entity.OutboxEvent;
+import com.kruger.kdevbill.service.outbox.OutboxSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Guarda los eventos entregados en memoria; pensado para pruebas
+@Component
+@ConditionalOnProperty(name = "application.outbox.sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(OutboxEvent event) {
+        events.add(event);
+    }
+
+    public List<OutboxEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,147 @@
+package com.kruger.kdevbill.service.outbox.impl;
+
+import com.kruger.kdevbill.entity.OutboxEvent;
+import com.kruger.kdevbill.repository.OutboxEventRepository;
+import com.kruger.kdevbill.service.outbox.OutboxSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Entrega los eventos pendientes en lotes ordenados por id, al menos una vez: un lote se marca como
+// publicado solo después de que el sink lo aceptó. Si un evento falla, los siguientes del mismo agregado
+// esperan al próximo ciclo; los demás agregados siguen avanzando, porque cada pasada recorre los pendientes
+// por keyset en lugar de releer siempre el primer lote. Tras max-attempts fallos el evento se estaciona
+// (parked_at) y su agregado queda detenido sin bloquear al resto.
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retentionMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxSink outboxSink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${application.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${application.outbox.relay.max-attempts:10}") int maxAttempts,
+                       @Value("${application.outbox.retention:604800000}") long retentionMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retentionMs = retentionMs;
+    }
+
+    @Scheduled(cron = "${application.outbox.relay.cron:* * * * * *}")
+    public void drain() {
+        relayPending();
+    }
+
+    // Devuelve cuántos eventos se entregaron
+    public int relayPending() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            // Los agregados retenidos en esta pasada se saltan también en los lotes siguientes
+            Set<String> heldBack = new HashSet<>();
+            int delivered = 0;
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                BatchResult result = transactionTemplate.execute(status -> relayBatch(from, heldBack));
+                delivered += result.delivered;
+                if (result.fetched < batchSize) {
+                    return delivered;
+                }
+                afterId = result.lastId;
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BatchResult relayBatch(long afterId, Set<String> heldBack) {
+        List<OutboxEvent> batch = outboxEventRepository.findUnpublishedForUpdate(afterId, PageRequest.of(0, batchSize));
+        List<Long> delivered = new ArrayList<>(batch.size());
+
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (heldBack.contains(aggregate)) {
+                continue;
+            }
+            try {
+                outboxSink.publish(event);
+                delivered.add(event.getId());
+            } catch (RuntimeException e) {
+                heldBack.add(aggregate);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(truncate(e.getMessage()));
+                if (event.getAttempts() >= maxAttempts) {
+                    event.setParkedAt(LocalDateTime.now());
+                    log.error("Outbox event {} ({} {}) parked after {} failed attempts, the aggregate is stalled " +
+                            "until it is released: {}", event.getId(), event.getEventType(), aggregate,
+                            event.getAttempts(), e.getMessage());
+                } else {
+                    log.warn("Outbox event {} ({} {}) could not be delivered, attempt {}: {}",
+                            event.getId(), event.getEventType(), aggregate, event.getAttempts(), e.getMessage());
+                }
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxSink.flush();
+            outboxEventRepository.markPublished(delivered, LocalDateTime.now());
+        }
+        long lastId = batch.isEmpty() ? afterId : batch.get(batch.size() - 1).getId();
+        return new BatchResult(batch.size(), delivered.size(), lastId);
+    }
+
+    @Scheduled(cron = "${application.outbox.cleanup-cron:0 30 * * * *}")
+    @Transactional
+    public void purgePublished() {
+        int purged = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusNanos(retentionMs * 1_000_000));
+        if (purged > 0) {
+            log.info("Purged {} published outbox events", purged);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class BatchResult {
+        private final int fetched;
+        private final int delivered;
+        private final long lastId;
+
+        private BatchResult(int fetched, int delivered, long lastId) {
+            this.fetched = fetched;
+            this.delivered = delivered;
+            this.lastId = lastId;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.kruger.kdevbill.service.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Posición opaca (timestamp, id) del último elemento entregado en una página; el timestamp es
+// opcional para listados ordenados solo por id
+@Getter
+@RequiredArgsConstructor
+public class KeysetCursor {
+
+    // Centinela para la primera página: mayor que cualquier (timestamp, id) almacenado
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public static KeysetCursor ofId(Long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String timestamp = raw.substring(0, separator);
+            return new KeysetCursor(timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.kruger.kdevbill.service.pagination;
+
+import com.kruger.kdevbill.dto.response.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class KeysetPagination {
+
+    private final int maxSize;
+
+    public KeysetPagination(@Value("${application.pagination.max-size:200}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Sin tamaño se pagina con el máximo configurado: ninguna respuesta devuelve la lista completa y el
+    // cliente sigue el header X-Next-Cursor para obtener el resto.
+    public int resolveSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return maxSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    // Se pide un elemento extra para saber si existe una página siguiente sin ejecutar un COUNT
+    public Pageable probe(int size) {
+        return Pageable.ofSize(size + 1);
+    }
+
+    public int probeLimit(int size) {
+        return size + 1;
+    }
+
+    public <E, T> CursorPage<T> toPage(List<E> rows, int size, Function<E, String> cursorOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(size - 1)) : null;
+        return new CursorPage<>(pageRows.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+
+    // Para consultas que ya proyectan directamente al DTO de respuesta
+    public <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> pageRows = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(size - 1)) : null;
+        return new CursorPage<>(List.copyOf(pageRows), nextCursor);
+    }
+}
@@ -0,0 +1,12 @@
+package com.kruger.kdevbill.service.payment;
+
+import com.kruger.kdevbill.entity.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+
+// Cobro contra la pasarela externa. La referencia identifica el cobro: una pasarela real debe tratar
+// dos llamadas con la misma referencia como el mismo cobro, porque los pagos atascados se reintentan.
+public interface PaymentGateway {
+
+    PaymentGatewayResult charge(String reference, BigDecimal amount, PaymentMethod method);
+}
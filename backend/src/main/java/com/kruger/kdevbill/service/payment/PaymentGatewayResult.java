@@ -0,0 +1,22 @@
+package com.kruger.kdevbill.service.payment;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class PaymentGatewayResult {
+
+    private final boolean approved;
+    private final String message;
+
+    public static PaymentGatewayResult approved() {
+        return new PaymentGatewayResult(true, "Approved");
+    }
+
+    public static PaymentGatewayResult declined(String reason) {
+        return new PaymentGatewayResult(false, reason);
+    }
+}
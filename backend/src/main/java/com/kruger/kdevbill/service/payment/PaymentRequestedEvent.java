@@ -0,0 +1,10 @@
+package com.kruger.kdevbill.service.payment;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class PaymentRequestedEvent {
+    private final Long paymentId;
+}
@@ -1,12 +1,11 @@
 package com.kruger.kdevbill.service.payment;
 
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.PaymentResponse;
 
-import java.util.List;
-
 public interface PaymentService {
 
-    List<PaymentResponse> getMyPayments();
+    CursorPage<PaymentResponse> getMyPayments(String cursor, Integer size);
 
     PaymentResponse getPaymentById(Long id);
 }
\ No newline at end of file
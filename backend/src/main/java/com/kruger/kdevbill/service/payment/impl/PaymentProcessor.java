@@ -0,0 +1,135 @@
+package com.kruger.kdevbill.service.payment.impl;
+
+import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.repository.PaymentRepository;
+import com.kruger.kdevbill.service.metrics.ApplicationMetrics;
+import com.kruger.kdevbill.service.payment.PaymentGateway;
+import com.kruger.kdevbill.service.payment.PaymentGatewayResult;
+import com.kruger.kdevbill.service.payment.PaymentRequestedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Llama a la pasarela fuera de la transacción y del hilo del request, en un pool acotado.
+// Si el pool está lleno o la pasarela falla, el pago queda PENDING y el barrido lo vuelve a enviar.
+// Hilos de plataforma porque el toolchain es Java 17 (sin hilos virtuales). El tamaño del pool es a la vez el
+// límite de llamadas simultáneas a la pasarela y de conexiones que piden los applies, así que debe quedar por
+// debajo de maximum-pool-size de Hikari; la cola acotada hace de contrapresión en lugar de un semáforo.
+@Slf4j
+@Component
+public class PaymentProcessor {
+
+    private final PaymentGateway paymentGateway;
+    private final PaymentResultApplier paymentResultApplier;
+    private final PaymentRepository paymentRepository;
+    private final ApplicationMetrics applicationMetrics;
+    private final ThreadPoolExecutor executor;
+    private final long stuckAfterMs;
+    private final int sweepBatchSize;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PaymentProcessor(PaymentGateway paymentGateway,
+                            PaymentResultApplier paymentResultApplier,
+                            PaymentRepository paymentRepository,
+                            ApplicationMetrics applicationMetrics,
+                            @Value("${application.payments.executor.threads:32}") int threads,
+                            @Value("${application.payments.executor.queue-capacity:1000}") int queueCapacity,
+                            @Value("${application.payments.sweeper.stuck-after:300000}") long stuckAfterMs,
+                            @Value("${application.payments.sweeper.batch-size:500}") int sweepBatchSize) {
+        this.paymentGateway = paymentGateway;
+        this.paymentResultApplier = paymentResultApplier;
+        this.paymentRepository = paymentRepository;
+        this.applicationMetrics = applicationMetrics;
+        this.stuckAfterMs = stuckAfterMs;
+        this.sweepBatchSize = sweepBatchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-gateway-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentRequested(PaymentRequestedEvent event) {
+        submit(event.getPaymentId());
+    }
+
+    @Scheduled(cron = "${application.payments.sweeper.cron:30 * * * * *}")
+    public void resubmitStuckPayments() {
+        LocalDateTime requestedBefore = LocalDateTime.now().minusNanos(stuckAfterMs * 1_000_000);
+        List<Long> stuck = paymentRepository.findIdsByStatusRequestedBefore(PaymentStatus.PENDING, requestedBefore,
+                PageRequest.of(0, sweepBatchSize));
+        if (!stuck.isEmpty()) {
+            log.info("Resubmitting {} payments stuck in PENDING", stuck.size());
+            stuck.forEach(this::submit);
+        }
+    }
+
+    private void submit(Long paymentId) {
+        if (!inFlight.add(paymentId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(paymentId));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(paymentId);
+            log.warn("Payment executor saturated, payment {} stays PENDING until the next sweep", paymentId);
+        }
+    }
+
+    private void process(Long paymentId) {
+        try {
+            Payment payment = paymentRepository.findById(paymentId).orElse(null);
+            if (payment == null || payment.getStatus() != PaymentStatus.PENDING) {
+                return;
+            }
+            PaymentGatewayResult result = charge(payment);
+            paymentResultApplier.apply(paymentId, payment.getInvoice().getId(), result);
+        } catch (RuntimeException e) {
+            log.warn("Payment {} could not be processed, it will be retried by the sweeper: {}",
+                    paymentId, e.getMessage());
+        } finally {
+            inFlight.remove(paymentId);
+        }
+    }
+
+    private PaymentGatewayResult charge(Payment payment) {
+        long start = System.nanoTime();
+        try {
+            PaymentGatewayResult result = paymentGateway.charge(payment.getReference(), payment.getAmount(),
+                    payment.getMethod());
+            (result.isApproved() ? applicationMetrics.getPaymentGatewayApproved()
+                    : applicationMetrics.getPaymentGatewayDeclined())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            applicationMetrics.getPaymentGatewayError().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+}
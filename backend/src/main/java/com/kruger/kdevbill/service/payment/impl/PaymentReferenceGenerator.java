@@ -0,0 +1,82 @@
+package com.kruger.kdevbill.service.payment.impl;
+
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import org.springframework.stereotype.Component;
+
+// Genera referencias de pago únicas sin tocar la base en cada pago: cada hilo reserva un bloque de la
+// secuencia payment_reference_seq y lo consume localmente. El número se pasa por una permutación de
+// 50 bits (Feistel) para que las referencias no revelen el volumen ni el orden, y se codifica en
+// Base32 de Crockford con ancho fijo: "PAY-" + 10 caracteres.
+@Component
+public class PaymentReferenceGenerator {
+
+    static final String SEQUENCE = "payment_reference_seq";
+    static final String PREFIX = "PAY-";
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 10;
+    private static final int HALF_BITS = 25;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final long MAX_VALUE = (1L << (2 * HALF_BITS)) - 1;
+    private static final long[] ROUND_KEYS = {0x5BD1E995L, 0x1B873593L, 0x27D4EB2FL, 0x165667B1L};
+
+    private final IdBlockAllocator idBlockAllocator;
+    private final ThreadLocal<Block> blocks = new ThreadLocal<>();
+
+    public PaymentReferenceGenerator(IdBlockAllocator idBlockAllocator) {
+        this.idBlockAllocator = idBlockAllocator;
+    }
+
+    public String next() {
+        Block block = blocks.get();
+        if (block == null || block.next == block.end) {
+            long low = idBlockAllocator.reserveBlock(SEQUENCE);
+            block = new Block(low, low + idBlockAllocator.blockSize(SEQUENCE));
+            blocks.set(block);
+        }
+        return encode(block.next++);
+    }
+
+    public static String encode(long value) {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalStateException("Payment reference sequence exhausted at " + value);
+        }
+        long permuted = permute(value);
+        char[] chars = new char[PREFIX.length() + LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (permuted & 31)];
+            permuted >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    // Red de Feistel sobre dos mitades de 25 bits: es biyectiva por construcción, así que valores
+    // distintos de la secuencia nunca producen la misma referencia
+    private static long permute(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (long key : ROUND_KEYS) {
+            long mixed = left ^ round(right, key);
+            left = right;
+            right = mixed;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long round(long half, long key) {
+        long x = (half ^ key) * 0x9E3779B97F4A7C15L;
+        x ^= x >>> 29;
+        return x & HALF_MASK;
+    }
+
+    private static final class Block {
+        private long next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.kruger.kdevbill.service.payment.impl;
+
+import com.kruger.kdevbill.dto.response.InvoiceResponse;
+import com.kruger.kdevbill.dto.response.PaymentResponse;
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.enums.BillingCycle;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
+import com.kruger.kdevbill.entity.enums.PaymentMethod;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.mapper.PaymentMapper;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.repository.PaymentRepository;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
+import com.kruger.kdevbill.service.outbox.OutboxWriter;
+import com.kruger.kdevbill.service.payment.PaymentGatewayResult;
+import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Aplica la respuesta de la pasarela en una transacción corta. Cada paso es un compare-and-set,
+// así que aplicar dos veces el mismo resultado (reintento del barrido) no tiene efecto.
+// settleAll es también la entrada de la conciliación bancaria, para que un cobro confirmado por el banco deje
+// factura, suscripción, dashboard y outbox igual que uno confirmado por la pasarela. Liquida un lote completo
+// con un compare-and-set por lotes por tabla, un solo insert de eventos y una sola actualización del dashboard.
+@Slf4j
+@Component
+public class PaymentResultApplier {
+
+    public enum Settlement {
+        // Pago SUCCESS y factura PAID
+        PAID,
+        // Pago SUCCESS, pero la factura ya no esperaba este pago: queda un PAYMENT_UNAPPLIED para revisión
+        UNAPPLIED,
+        // El pago ya no estaba en el estado esperado; no se cambió nada
+        ALREADY_SETTLED,
+        // La factura tiene otro pago PENDING o SUCCESS; no se cambió nada
+        CONFLICT
+    }
+
+    private static final String SELECT_SETTLEMENT_ROWS =
+            "SELECT p.id, p.amount, p.method, p.paid_at, p.reference, " +
+            "i.amount AS invoice_amount, i.due_date, i.issued_at, i.subscription_id, " +
+            "s.next_billing_date, pl.billing_cycle " +
+            "FROM payments p JOIN invoices i ON i.id = p.invoice_id " +
+            "JOIN subscriptions s ON s.id = i.subscription_id JOIN plans pl ON pl.id = s.plan_id " +
+            "WHERE p.id IN (%s)";
+
+    private static final String SELECT_ACTIVE_PAYMENTS =
+            "SELECT id, invoice_id FROM payments WHERE invoice_id IN (%s) AND status IN ('PENDING', 'SUCCESS')";
+
+    private static final String SETTLE_PAYMENT =
+            "UPDATE payments SET status = 'SUCCESS' WHERE id = ? AND status = ?";
+
+    private static final String PAY_INVOICE =
+            "UPDATE invoices SET status = 'PAID' WHERE id = ? AND status = ?";
+
+    private static final String ADVANCE_BILLING_DATE =
+            "UPDATE subscriptions SET next_billing_date = ? WHERE id = ? AND next_billing_date = ?";
+
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final BillingHelper billingHelper;
+    private final PaymentMapper paymentMapper;
+    private final OutboxWriter outboxWriter;
+    private final DashboardAggregates dashboardAggregates;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentResultApplier(PaymentRepository paymentRepository,
+                                InvoiceRepository invoiceRepository,
+                                BillingHelper billingHelper,
+                                PaymentMapper paymentMapper,
+                                OutboxWriter outboxWriter,
+                                DashboardAggregates dashboardAggregates,
+                                DataSource dataSource) {
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.billingHelper = billingHelper;
+        this.paymentMapper = paymentMapper;
+        this.outboxWriter = outboxWriter;
+        this.dashboardAggregates = dashboardAggregates;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Transactional
+    public void apply(Long paymentId, Long invoiceId, PaymentGatewayResult result) {
+        if (result.isApproved()) {
+            if (settle(paymentId, invoiceId, PaymentStatus.PENDING) == Settlement.ALREADY_SETTLED) {
+                log.debug("Payment {} was already settled, ignoring gateway result", paymentId);
+            }
+            return;
+        }
+        if (paymentRepository.transitionStatus(paymentId, PaymentStatus.PENDING, PaymentStatus.FAILED) == 0) {
+            log.debug("Payment {} was already settled, ignoring gateway result", paymentId);
+            return;
+        }
+        // La factura vuelve a OPEN para que el cliente pueda intentar de nuevo
+        invoiceRepository.transitionStatus(invoiceId, InvoiceStatus.PROCESSING, InvoiceStatus.OPEN);
+        paymentRepository.findById(paymentId).ifPresent(payment -> {
+            dashboardAggregates.apply(new DashboardUpdate().paymentsFailed(1, payment.getPaidAt()));
+            outboxWriter.append(OutboxEventType.PAYMENT_FAILED, invoiceId, paymentMapper.toPaymentResponse(payment));
+        });
+        log.info("Payment {} for invoice {} declined: {}", paymentId, invoiceId, result.getMessage());
+    }
+
+    @Transactional
+    public Settlement settle(Long paymentId, Long invoiceId, PaymentStatus from) {
+        return settleAll(List.of(new SettlementRequest(paymentId, invoiceId, from))).get(0);
+    }
+
+    // Pasa a SUCCESS pagos PENDING (respuesta de la pasarela o del banco) o FAILED (el banco confirmó un cobro
+    // que la pasarela había rechazado). Un FAILED solo se recupera si la factura no tiene otro pago en curso o
+    // exitoso, ni otro pago del mismo lote que la liquide; si no, se devuelve CONFLICT sin tocar nada para que
+    // se revise a mano. El resultado sigue el orden de los pedidos.
+    @Transactional
+    public List<Settlement> settleAll(List<SettlementRequest> requests) {
+        for (SettlementRequest request : requests) {
+            if (request.from != PaymentStatus.PENDING && request.from != PaymentStatus.FAILED) {
+                throw new IllegalArgumentException("Only PENDING or FAILED payments can be settled, got " + request.from);
+            }
+        }
+        Settlement[] results = new Settlement[requests.size()];
+        Map<Long, Set<Long>> activeByInvoice = findActivePayments(requests);
+        Set<Long> claimedInvoices = new HashSet<>();
+
+        List<Integer> attempted = new ArrayList<>(requests.size());
+        List<Object[]> paymentUpdates = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SettlementRequest request = requests.get(i);
+            if (request.isRecovering()) {
+                Set<Long> active = activeByInvoice.getOrDefault(request.invoiceId, Set.of());
+                boolean otherActive = active.size() > (active.contains(request.paymentId) ? 1 : 0);
+                if (otherActive || claimedInvoices.contains(request.invoiceId)) {
+                    results[i] = Settlement.CONFLICT;
+                    continue;
+                }
+            }
+            claimedInvoices.add(request.invoiceId);
+            attempted.add(i);
+            paymentUpdates.add(new Object[]{request.paymentId, request.from.name()});
+        }
+        if (attempted.isEmpty()) {
+            return List.of(results);
+        }
+
+        // 0 filas: el pago ya no estaba en el estado esperado
+        int[] settled = jdbcTemplate.batchUpdate(SETTLE_PAYMENT, paymentUpdates);
+        List<Integer> changed = new ArrayList<>(attempted.size());
+        List<Object[]> invoiceUpdates = new ArrayList<>(attempted.size());
+        for (int j = 0; j < attempted.size(); j++) {
+            int i = attempted.get(j);
+            if (settled[j] == 0) {
+                results[i] = Settlement.ALREADY_SETTLED;
+                continue;
+            }
+            SettlementRequest request = requests.get(i);
+            changed.add(i);
+            // Tras un rechazo la factura volvió a OPEN; mientras el pago está PENDING sigue en PROCESSING
+            invoiceUpdates.add(new Object[]{request.invoiceId, request.expectedInvoiceStatus().name()});
+        }
+        if (changed.isEmpty()) {
+            return List.of(results);
+        }
+        int[] paid = jdbcTemplate.batchUpdate(PAY_INVOICE, invoiceUpdates);
+
+        Map<Long, SettlementRow> rows = findSettlementRows(changed, requests);
+        DashboardUpdate dashboardUpdate = new DashboardUpdate();
+        Map<Long, InvoiceResponse> paidInvoices = new LinkedHashMap<>();
+        Map<Long, PaymentResponse> unapplied = new LinkedHashMap<>();
+        // Fecha original y fecha avanzada por suscripción; dos facturas de la misma suscripción avanzan en orden
+        Map<Long, LocalDate[]> billingDates = new LinkedHashMap<>();
+        for (int j = 0; j < changed.size(); j++) {
+            int i = changed.get(j);
+            SettlementRequest request = requests.get(i);
+            SettlementRow row = rows.get(request.paymentId);
+            // El día del dashboard es el de paid_at, como en la reconstrucción
+            if (request.isRecovering()) {
+                dashboardUpdate.failedPaymentsRecovered(1, row.paidAt);
+            }
+            dashboardUpdate.paymentsSucceeded(1, row.amount, row.paidAt);
+
+            if (paid[j] == 0) {
+                // La factura cambió mientras se cobraba (anulada o liquidada por otra vía). El cobro es real, así
+                // que el pago queda SUCCESS, pero no se marca la factura ni se adelanta la facturación: se deja el
+                // evento para que se revise y se reembolse si corresponde.
+                unapplied.put(request.invoiceId, row.toPaymentResponse(request.invoiceId));
+                log.warn("Payment {} was approved but invoice {} was no longer {}, flagged for review",
+                        request.paymentId, request.invoiceId, request.expectedInvoiceStatus());
+                results[i] = Settlement.UNAPPLIED;
+                continue;
+            }
+            paidInvoices.put(request.invoiceId, row.toInvoiceResponse(request.invoiceId));
+            if (row.nextBillingDate != null) {
+                LocalDate[] dates = billingDates.computeIfAbsent(row.subscriptionId,
+                        id -> new LocalDate[]{row.nextBillingDate, row.nextBillingDate});
+                if (dates[1].isEqual(row.dueDate.minusDays(7))) {
+                    dates[1] = billingHelper.calculateNextBillingDate(dates[1], row.plan());
+                }
+            }
+            results[i] = Settlement.PAID;
+        }
+
+        if (!paidInvoices.isEmpty()) {
+            dashboardUpdate.invoicesPaid(paidInvoices.size());
+            outboxWriter.appendAll(OutboxEventType.INVOICE_PAID, paidInvoices);
+        }
+        if (!unapplied.isEmpty()) {
+            outboxWriter.appendAll(OutboxEventType.PAYMENT_UNAPPLIED, unapplied);
+        }
+        dashboardAggregates.apply(dashboardUpdate);
+        List<Object[]> advances = new ArrayList<>(billingDates.size());
+        billingDates.forEach((subscriptionId, dates) -> {
+            if (!dates[1].isEqual(dates[0])) {
+                advances.add(new Object[]{Date.valueOf(dates[1]), subscriptionId, Date.valueOf(dates[0])});
+            }
+        });
+        if (!advances.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADVANCE_BILLING_DATE, advances);
+        }
+        return List.of(results);
+    }
+
+    // Pagos PENDING o SUCCESS de las facturas con pagos FAILED a recuperar, agrupados por factura
+    private Map<Long, Set<Long>> findActivePayments(List<SettlementRequest> requests) {
+        Set<Long> invoiceIds = new LinkedHashSet<>();
+        for (SettlementRequest request : requests) {
+            if (request.isRecovering()) {
+                invoiceIds.add(request.invoiceId);
+            }
+        }
+        Map<Long, Set<Long>> activeByInvoice = new HashMap<>();
+        if (invoiceIds.isEmpty()) {
+            return activeByInvoice;
+        }
+        jdbcTemplate.query(String.format(SELECT_ACTIVE_PAYMENTS, placeholders(invoiceIds)), rs -> {
+            activeByInvoice.computeIfAbsent(rs.getLong("invoice_id"), id -> new HashSet<>()).add(rs.getLong("id"));
+        }, invoiceIds.toArray());
+        return activeByInvoice;
+    }
+
+    private Map<Long, SettlementRow> findSettlementRows(List<Integer> changed, List<SettlementRequest> requests) {
+        Set<Long> paymentIds = new LinkedHashSet<>();
+        for (int i : changed) {
+            paymentIds.add(requests.get(i).paymentId);
+        }
+        Map<Long, SettlementRow> rows = new HashMap<>(paymentIds.size() * 2);
+        jdbcTemplate.query(String.format(SELECT_SETTLEMENT_ROWS, placeholders(paymentIds)), rs -> {
+            Date nextBillingDate = rs.getDate("next_billing_date");
+            rows.put(rs.getLong("id"), new SettlementRow(
+                    rs.getLong("id"),
+                    rs.getBigDecimal("amount"),
+                    PaymentMethod.valueOf(rs.getString("method")),
+                    rs.getTimestamp("paid_at").toLocalDateTime(),
+                    rs.getString("reference"),
+                    rs.getBigDecimal("invoice_amount"),
+                    rs.getDate("due_date").toLocalDate(),
+                    rs.getTimestamp("issued_at").toLocalDateTime(),
+                    rs.getLong("subscription_id"),
+                    nextBillingDate == null ? null : nextBillingDate.toLocalDate(),
+                    BillingCycle.valueOf(rs.getString("billing_cycle"))));
+        }, paymentIds.toArray());
+        return rows;
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+
+    public static final class SettlementRequest {
+        private final Long paymentId;
+        private final Long invoiceId;
+        private final PaymentStatus from;
+
+        public SettlementRequest(Long paymentId, Long invoiceId, PaymentStatus from) {
+            this.paymentId = paymentId;
+            this.invoiceId = invoiceId;
+            this.from = from;
+        }
+
+        private boolean isRecovering() {
+            return from == PaymentStatus.FAILED;
+        }
+
+        private InvoiceStatus expectedInvoiceStatus() {
+            return isRecovering() ? InvoiceStatus.OPEN : InvoiceStatus.PROCESSING;
+        }
+    }
+
+    private static final class SettlementRow {
+        private final long id;
+        private final BigDecimal amount;
+        private final PaymentMethod method;
+        private final LocalDateTime paidAt;
+        private final String reference;
+        private final BigDecimal invoiceAmount;
+        private final LocalDate dueDate;
+        private final LocalDateTime issuedAt;
+        private final long subscriptionId;
+        private final LocalDate nextBillingDate;
+        private final BillingCycle billingCycle;
+
+        private SettlementRow(long id, BigDecimal amount, PaymentMethod method, LocalDateTime paidAt, String reference,
+                              BigDecimal invoiceAmount, LocalDate dueDate, LocalDateTime issuedAt, long subscriptionId,
+                              LocalDate nextBillingDate, BillingCycle billingCycle) {
+            this.id = id;
+            this.amount = amount;
+            this.method = method;
+            this.paidAt = paidAt;
+            this.reference = reference;
+            this.invoiceAmount = invoiceAmount;
+            this.dueDate = dueDate;
+            this.issuedAt = issuedAt;
+            this.subscriptionId = subscriptionId;
+            this.nextBillingDate = nextBillingDate;
+            this.billingCycle = billingCycle;
+        }
+
+        private Plan plan() {
+            return Plan.builder().billingCycle(billingCycle).build();
+        }
+
+        private PaymentResponse toPaymentResponse(Long invoiceId) {
+            return new PaymentResponse(id, amount, method, PaymentStatus.SUCCESS, paidAt, reference, invoiceId);
+        }
+
+        private InvoiceResponse toInvoiceResponse(Long invoiceId) {
+            return new InvoiceResponse(invoiceId, invoiceAmount, InvoiceStatus.PAID, dueDate, issuedAt, subscriptionId);
+        }
+    }
+}
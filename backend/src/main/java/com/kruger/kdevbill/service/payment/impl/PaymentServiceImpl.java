@@ -1,13 +1,14 @@
 package com.kruger.kdevbill.service.payment.impl;
 
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.PaymentResponse;
-import com.kruger.kdevbill.entity.Customer;
 import com.kruger.kdevbill.entity.Payment;
-import com.kruger.kdevbill.entity.User;
 import com.kruger.kdevbill.mapper.PaymentMapper;
-import com.kruger.kdevbill.repository.CustomerRepository;
 import com.kruger.kdevbill.repository.PaymentRepository;
 import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.customer.CustomerResolver;
+import com.kruger.kdevbill.service.pagination.KeysetCursor;
+import com.kruger.kdevbill.service.pagination.KeysetPagination;
 import com.kruger.kdevbill.service.payment.PaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
@@ -15,38 +16,35 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final CustomerRepository customerRepository;
+    private final CustomerResolver customerResolver;
     private final SecurityHelper securityHelper;
     private final PaymentMapper paymentMapper;
+    private final KeysetPagination keysetPagination;
 
     @Override
     @Transactional(readOnly = true)
-    public List<PaymentResponse> getMyPayments() {
-        User authenticatedUser = securityHelper.getAuthenticatedUser();
-
-        // Usar findByOwnerId en lugar de findByOwner para evitar problemas de
-        // comparación de instancias
-        Customer customer = customerRepository.findByOwnerId(authenticatedUser.getId())
-                .orElseThrow(() -> new RuntimeException(
-                        "No customer profile found for user: " + authenticatedUser.getUsername() +
-                                ". Please create a customer profile first or contact administrator."));
-
-        return paymentRepository.findByInvoice_Subscription_CustomerId(customer.getId()).stream()
-                .map(paymentMapper::toPaymentResponse)
-                .collect(Collectors.toList());
+    public CursorPage<PaymentResponse> getMyPayments(String cursor, Integer size) {
+        Long customerId = customerResolver.requireCurrentCustomerId();
+
+        int pageSize = keysetPagination.resolveSize(size);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<PaymentResponse> payments = paymentRepository.findPageByCustomerId(customerId,
+                position.getTimestamp(), position.getId(), keysetPagination.probe(pageSize));
+
+        return keysetPagination.toPage(payments, pageSize,
+                payment -> new KeysetCursor(payment.getPaidAt(), payment.getId()).encode());
     }
 
     @Override
     @Transactional(readOnly = true)
     public PaymentResponse getPaymentById(Long id) {
-        Payment payment = paymentRepository.findById(id)
+        Payment payment = paymentRepository.findWithOwnerById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found with id: " + id));
         Long ownerId = payment.getInvoice().getSubscription().getCustomer().getOwner().getId();
         if (!securityHelper.isAdmin() && !securityHelper.isOwner(ownerId)) {
@@ -0,0 +1,59 @@
+package com.kruger.kdevbill.service.payment.impl;
+
+import com.kruger.kdevbill.entity.enums.PaymentMethod;
+import com.kruger.kdevbill.service.payment.PaymentGateway;
+import com.kruger.kdevbill.service.payment.PaymentGatewayResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Pasarela en proceso para desarrollo y pruebas de carga sin red: latencia configurable con jitter,
+// rechazos (pago FAILED) y errores técnicos (excepción, el pago queda PENDING para el reintento).
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.payments.gateway", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double declineRate;
+    private final double errorRate;
+
+    public SimulatedPaymentGateway(
+            @Value("${application.payments.simulated.latency-ms:200}") long latencyMs,
+            @Value("${application.payments.simulated.jitter-ms:100}") long jitterMs,
+            @Value("${application.payments.simulated.decline-rate:0.0}") double declineRate,
+            @Value("${application.payments.simulated.error-rate:0.0}") double errorRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        log.info("Simulated payment gateway: latency {}±{} ms, decline rate {}, error rate {}",
+                latencyMs, jitterMs, declineRate, errorRate);
+    }
+
+    @Override
+    public PaymentGatewayResult charge(String reference, BigDecimal amount, PaymentMethod method) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(-jitterMs, jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulated gateway interrupted", e);
+            }
+        }
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Simulated gateway error for payment " + reference);
+        }
+        if (random.nextDouble() < declineRate) {
+            return PaymentGatewayResult.declined("Simulated decline");
+        }
+        return PaymentGatewayResult.approved();
+    }
+}
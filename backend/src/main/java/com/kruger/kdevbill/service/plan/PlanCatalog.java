@@ -0,0 +1,129 @@
+package com.kruger.kdevbill.service.plan;
+
+import com.kruger.kdevbill.dto.response.PlanResponse;
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.mapper.PlanMapper;
+import com.kruger.kdevbill.repository.PlanRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Catálogo de planes en memoria: se carga al iniciar y se reemplaza completo tras cada escritura confirmada
+@Slf4j
+@Component
+public class PlanCatalog {
+
+    private final PlanRepository planRepository;
+    private final PlanMapper planMapper;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public PlanCatalog(PlanRepository planRepository, PlanMapper planMapper) {
+        this.planRepository = planRepository;
+        this.planMapper = planMapper;
+    }
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onPlanChanged(PlanChangedEvent event) {
+        log.debug("Plan {} changed, reloading catalog", event.getPlanId());
+        refresh();
+    }
+
+    // También lo usan los procesos que escriben planes sin pasar por PlanService.
+    // Sincronizado para que una recarga más antigua no pise a una más reciente.
+    public synchronized void refresh() {
+        List<Plan> plans = planRepository.findAll(Sort.by("id"));
+        Snapshot previous = current.get();
+        long version = previous == null ? 1 : previous.getVersion() + 1;
+        Snapshot snapshot = new Snapshot(version, plans.stream().map(PlanCatalog::copyOf).toList(), planMapper);
+        current.set(snapshot);
+        log.info("Plan catalog v{} loaded with {} plans (ETag {})", version, plans.size(), snapshot.getEtag());
+    }
+
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    // Copia desacoplada del plan: sirve como referencia para asociaciones sin consultar la base
+    public Optional<Plan> findPlan(Long id) {
+        Plan plan = current.get().plansById.get(id);
+        return plan == null ? Optional.empty() : Optional.of(copyOf(plan));
+    }
+
+    private static Plan copyOf(Plan plan) {
+        return Plan.builder()
+                .id(plan.getId())
+                .name(plan.getName())
+                .price(plan.getPrice())
+                .billingCycle(plan.getBillingCycle())
+                .active(plan.isActive())
+                .build();
+    }
+
+    public static final class Snapshot {
+
+        @Getter
+        private final long version;
+        @Getter
+        private final String etag;
+        // Ordenados por id; las respuestas se comparten entre requests y no deben modificarse
+        @Getter
+        private final List<PlanResponse> plans;
+        private final long[] ids;
+        private final Map<Long, Plan> plansById;
+
+        private Snapshot(long version, List<Plan> plans, PlanMapper planMapper) {
+            this.version = version;
+            this.plans = plans.stream().map(planMapper::toPlanResponse).toList();
+            this.ids = plans.stream().mapToLong(Plan::getId).toArray();
+            this.plansById = plans.stream().collect(Collectors.toUnmodifiableMap(Plan::getId, Function.identity()));
+            this.etag = contentTag(plans);
+        }
+
+        // Planes con id mayor a afterId, hasta limit elementos
+        public List<PlanResponse> plansAfter(long afterId, int limit) {
+            int index = Arrays.binarySearch(ids, afterId);
+            int from = index >= 0 ? index + 1 : -index - 1;
+            return plans.subList(from, from + Math.min(plans.size() - from, limit));
+        }
+
+        // ETag fuerte: depende solo del contenido, así que es estable entre reinicios y réplicas
+        private static String contentTag(List<Plan> plans) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            for (Plan plan : plans) {
+                String row = plan.getId() + "|" + plan.getName() + "|" + plan.getPrice().toPlainString() + "|"
+                        + plan.getBillingCycle() + "|" + plan.isActive() + "\n";
+                digest.update(row.getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.kruger.kdevbill.service.plan;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class PlanChangedEvent {
+    private final Long planId;
+}
@@ -1,15 +1,16 @@
 package com.kruger.kdevbill.service.plan;
 
 import com.kruger.kdevbill.dto.request.PlanRequest;
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.PlanResponse;
 
-import java.util.List;
-
 public interface PlanService {
 
     PlanResponse createPlan(PlanRequest request);
 
-    List<PlanResponse> getAllPlans();
+    CursorPage<PlanResponse> getAllPlans(String cursor, Integer size);
+
+    String getPlansETag();
 
     PlanResponse updatePlan(Long id, PlanRequest request);
 
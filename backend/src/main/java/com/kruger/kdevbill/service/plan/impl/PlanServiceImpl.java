@@ -1,18 +1,23 @@
 package com.kruger.kdevbill.service.plan.impl;
 
 import com.kruger.kdevbill.dto.request.PlanRequest;
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.PlanResponse;
 import com.kruger.kdevbill.entity.Plan;
 import com.kruger.kdevbill.mapper.PlanMapper;
 import com.kruger.kdevbill.repository.PlanRepository;
+import com.kruger.kdevbill.service.pagination.KeysetCursor;
+import com.kruger.kdevbill.service.pagination.KeysetPagination;
+import com.kruger.kdevbill.service.plan.PlanCatalog;
+import com.kruger.kdevbill.service.plan.PlanChangedEvent;
 import com.kruger.kdevbill.service.plan.PlanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +25,9 @@ public class PlanServiceImpl implements PlanService {
 
     private final PlanRepository planRepository;
     private final PlanMapper planMapper;
+    private final KeysetPagination keysetPagination;
+    private final PlanCatalog planCatalog;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -28,18 +36,25 @@ public class PlanServiceImpl implements PlanService {
         Plan plan = planMapper.toPlan(request);
         
         Plan savedPlan = planRepository.save(plan);
-        
+        eventPublisher.publishEvent(new PlanChangedEvent(savedPlan.getId()));
+
         return planMapper.toPlanResponse(savedPlan);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<PlanResponse> getAllPlans() {
-        List<Plan> plans = planRepository.findAll();
-        
-        return plans.stream()
-                .map(planMapper::toPlanResponse)
-                .collect(Collectors.toList());
+    public CursorPage<PlanResponse> getAllPlans(String cursor, Integer size) {
+        // Se sirve desde el catálogo en memoria, sin consultar la base
+        int pageSize = keysetPagination.resolveSize(size);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : KeysetCursor.decode(cursor).getId();
+        List<PlanResponse> plans = planCatalog.snapshot().plansAfter(afterId, keysetPagination.probeLimit(pageSize));
+
+        return keysetPagination.toPage(plans, pageSize,
+                plan -> KeysetCursor.ofId(plan.getId()).encode());
+    }
+
+    @Override
+    public String getPlansETag() {
+        return planCatalog.snapshot().getEtag();
     }
 
     @Override
@@ -52,6 +67,7 @@ public class PlanServiceImpl implements PlanService {
         planMapper.updatePlanFromRequest(request, plan);
 
         Plan updatedPlan = planRepository.save(plan);
+        eventPublisher.publishEvent(new PlanChangedEvent(updatedPlan.getId()));
 
         return planMapper.toPlanResponse(updatedPlan);
     }
@@ -64,5 +80,6 @@ public class PlanServiceImpl implements PlanService {
             throw new RuntimeException("Plan not found with id: " + id);
         }
         planRepository.deleteById(id);
+        eventPublisher.publishEvent(new PlanChangedEvent(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.kruger.kdevbill.service.querystats;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Sentencias JDBC ejecutadas por el hilo actual mientras el ámbito está abierto. Los ámbitos se pueden anidar
+// (el request y, dentro, un test que mide una llamada): cada sentencia se suma a todos los abiertos.
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<Deque<QueryStats>> OPEN = new ThreadLocal<>();
+
+    // Literales e IN (?, ?, ...) se reducen para que la misma consulta con otros valores tenga la misma forma
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LISTS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final Map<String, Integer> executionsByShape = new HashMap<>();
+    private long statements;
+    private long elapsedNanos;
+    private int slowStatements;
+
+    private QueryStats() {
+    }
+
+    public static QueryStats open() {
+        Deque<QueryStats> open = OPEN.get();
+        if (open == null) {
+            open = new ArrayDeque<>();
+            OPEN.set(open);
+        }
+        QueryStats stats = new QueryStats();
+        open.push(stats);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        Deque<QueryStats> open = OPEN.get();
+        if (open != null) {
+            open.remove(this);
+            if (open.isEmpty()) {
+                OPEN.remove();
+            }
+        }
+    }
+
+    // Cierra lo que haya quedado abierto en el hilo, por ejemplo tras una excepción entre open y close
+    public static void closeAll() {
+        OPEN.remove();
+    }
+
+    static boolean isRecording() {
+        return OPEN.get() != null;
+    }
+
+    static void record(String sql, long elapsedNanos, boolean slow) {
+        Deque<QueryStats> open = OPEN.get();
+        if (open == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        for (QueryStats stats : open) {
+            stats.statements++;
+            stats.elapsedNanos += elapsedNanos;
+            if (slow) {
+                stats.slowStatements++;
+            }
+            stats.executionsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static String shapeOf(String sql) {
+        String withoutLiterals = LITERALS.matcher(sql.strip()).replaceAll("?");
+        return IN_LISTS.matcher(withoutLiterals).replaceAll("(?)");
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public int getSlowStatements() {
+        return slowStatements;
+    }
+
+    // Formas ejecutadas al menos threshold veces, de la más repetida a la menos: el patrón típico de un N+1
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsByShape.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    public Map<String, Integer> getExecutionsByShape() {
+        return Map.copyOf(executionsByShape);
+    }
+}
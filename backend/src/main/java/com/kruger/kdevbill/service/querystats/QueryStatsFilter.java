@@ -0,0 +1,86 @@
+package com.kruger.kdevbill.service.querystats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Abre un ámbito de QueryStats por request, antes que la seguridad, y al terminar publica cuántas sentencias
+// y cuánto tiempo de JDBC costó cada endpoint. Las formas que se repiten demasiado se reportan como posible N+1.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "application.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ATTRIBUTE = QueryStats.class.getName();
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatedThreshold;
+
+    public QueryStatsFilter(MeterRegistry meterRegistry,
+                            @Value("${application.query-stats.repeated-threshold:5}") int repeatedThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.open();
+        request.setAttribute(REQUEST_ATTRIBUTE, stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats.close();
+            publish(request, stats);
+        }
+    }
+
+    private void publish(HttpServletRequest request, QueryStats stats) {
+        // El patrón del mapping, no la URI real, para que los ids no disparen la cardinalidad
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("jdbc.request.statements")
+                .description("JDBC statements executed per HTTP request")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("jdbc.request.time")
+                .description("Time spent in JDBC per HTTP request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+        if (stats.getSlowStatements() > 0) {
+            meterRegistry.counter("jdbc.request.slow.statements", tags).increment(stats.getSlowStatements());
+        }
+
+        Map<String, Integer> repeated = stats.repeatedShapes(repeatedThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("jdbc.request.repeated.statements", tags).increment();
+            repeated.forEach((shape, executions) -> log.warn("Possible N+1 in {} {}: {} executions of {}",
+                    request.getMethod(), uri, executions, shape));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.kruger.kdevbill.service.querystats;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Recibe cada ejecución del DataSource instrumentado. Un batch cuenta como una sola ejecución, igual que
+// en el servidor. Las sentencias lentas se registran siempre; el conteo solo si hay un ámbito abierto.
+@Slf4j
+public class QueryStatsListener implements QueryExecutionListener {
+
+    private static final String STARTED_AT = QueryStatsListener.class.getName() + ".startedAt";
+
+    private final long slowThresholdNanos;
+
+    public QueryStatsListener(long slowThresholdMs) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (startedAt == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        String sql = queryInfoList.get(0).getQuery();
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (slow) {
+            log.warn("Slow statement ({} ms{}): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", sql);
+        }
+        if (QueryStats.isRecording()) {
+            QueryStats.record(sql, elapsedNanos, slow);
+        }
+    }
+}
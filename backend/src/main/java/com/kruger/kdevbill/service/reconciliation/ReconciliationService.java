@@ -0,0 +1,17 @@
+package com.kruger.kdevbill.service.reconciliation;
+
+import com.kruger.kdevbill.dto.response.CursorPage;
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
+import com.kruger.kdevbill.dto.response.ReconciliationUnmatchedLineResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ReconciliationService {
+
+    JobExecutionResponse startImport(MultipartFile file);
+
+    JobExecutionResponse getJob(Long id);
+
+    JobExecutionResponse resumeJob(Long id);
+
+    CursorPage<ReconciliationUnmatchedLineResponse> getUnmatchedLines(Long id, String cursor, Integer size);
+}
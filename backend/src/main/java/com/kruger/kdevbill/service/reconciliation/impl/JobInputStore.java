@@ -0,0 +1,112 @@
+package com.kruger.kdevbill.service.reconciliation.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+// Archivo de entrada de un trabajo guardado en la base en bloques de líneas (job_input_blocks). Cualquier
+// instancia puede procesarlo o reanudarlo, y la lectura trae un bloque a la vez en lugar del archivo completo.
+@Component
+public class JobInputStore {
+
+    private static final String INSERT_BLOCK =
+            "INSERT INTO job_input_blocks (job_id, seq, first_line, content) VALUES (?, ?, ?, ?)";
+
+    // Bloque que contiene la línea pedida: el último que empieza en ella o antes
+    private static final String SELECT_START_SEQ =
+            "SELECT COALESCE(MAX(seq), 0) FROM job_input_blocks WHERE job_id = ? AND first_line <= ?";
+
+    private static final String SELECT_BLOCK =
+            "SELECT first_line, content FROM job_input_blocks WHERE job_id = ? AND seq = ?";
+
+    private static final String DELETE_BLOCKS = "DELETE FROM job_input_blocks WHERE job_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int linesPerBlock;
+
+    public JobInputStore(DataSource dataSource,
+                         @Value("${application.reconciliation.input-block-lines:5000}") int linesPerBlock) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.linesPerBlock = linesPerBlock;
+    }
+
+    // Se guarda en la transacción del llamador, junto con el trabajo. Devuelve la cantidad de líneas no vacías.
+    public long store(Long jobId, InputStream input) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            StringBuilder block = new StringBuilder();
+            int seq = 0;
+            int linesInBlock = 0;
+            long lineNumber = 0;
+            long firstLine = 1;
+            long nonBlank = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    nonBlank++;
+                }
+                block.append(line).append('\n');
+                if (++linesInBlock == linesPerBlock) {
+                    jdbcTemplate.update(INSERT_BLOCK, jobId, seq++, firstLine, block.toString());
+                    block.setLength(0);
+                    linesInBlock = 0;
+                    firstLine = lineNumber + 1;
+                }
+            }
+            if (linesInBlock > 0) {
+                jdbcTemplate.update(INSERT_BLOCK, jobId, seq, firstLine, block.toString());
+            }
+            return nonBlank;
+        }
+    }
+
+    // Entrega cada línea posterior a afterLine con su número (base 1), empezando por el bloque que la contiene
+    public void forEachLine(Long jobId, long afterLine, ObjLongConsumer<String> consumer) {
+        Integer seq = jdbcTemplate.queryForObject(SELECT_START_SEQ, Integer.class, jobId, afterLine + 1);
+        for (int current = seq == null ? 0 : seq; ; current++) {
+            List<Block> blocks = jdbcTemplate.query(SELECT_BLOCK,
+                    (rs, row) -> new Block(rs.getLong("first_line"), rs.getString("content")), jobId, current);
+            if (blocks.isEmpty()) {
+                return;
+            }
+            Block block = blocks.get(0);
+            long lineNumber = block.firstLine - 1;
+            try (BufferedReader reader = new BufferedReader(new StringReader(block.content))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (lineNumber > afterLine) {
+                        consumer.accept(line, lineNumber);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void delete(Long jobId) {
+        jdbcTemplate.update(DELETE_BLOCKS, jobId);
+    }
+
+    private static final class Block {
+        private final long firstLine;
+        private final String content;
+
+        private Block(long firstLine, String content) {
+            this.firstLine = firstLine;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.kruger.kdevbill.service.reconciliation.impl;
+
+import com.kruger.kdevbill.entity.JobExecution;
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.entity.enums.JobType;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.repository.JobExecutionRepository;
+import com.kruger.kdevbill.service.payment.impl.PaymentResultApplier;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Procesa un archivo de liquidación del banco (reference,amount) en chunks de líneas. El archivo está guardado en
+// job_input_blocks, así que cualquier instancia puede tomar o reanudar el trabajo. Cada chunk resuelve sus
+// referencias con un IN sobre el índice único de payments.reference, liquida sus pagos en lote con PaymentResultApplier,
+// guarda las líneas sin coincidencia y avanza el checkpoint, todo en una transacción.
+// Un trabajo interrumpido se reanuda desde la última línea confirmada.
+@Slf4j
+@Component
+public class ReconciliationJobRunner {
+
+    private static final String SELECT_PAYMENTS =
+            "SELECT id, reference, amount, status, invoice_id FROM payments WHERE reference IN (%s)";
+
+    private static final String INSERT_UNMATCHED =
+            "INSERT INTO reconciliation_unmatched_lines (job_id, line_number, reference, amount, reason) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobExecutionRepository jobExecutionRepository;
+    private final JobInputStore jobInputStore;
+    private final PaymentResultApplier paymentResultApplier;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration staleAfter;
+    private final ExecutorService worker;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public ReconciliationJobRunner(JobExecutionRepository jobExecutionRepository,
+                                   JobInputStore jobInputStore,
+                                   PaymentResultApplier paymentResultApplier,
+                                   DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${application.reconciliation.chunk-size:1000}") int chunkSize,
+                                   @Value("${application.reconciliation.stale-after:300000}") long staleAfterMs) {
+        this.jobExecutionRepository = jobExecutionRepository;
+        this.jobInputStore = jobInputStore;
+        this.paymentResultApplier = paymentResultApplier;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Un solo hilo: las importaciones se encolan en lugar de competir por conexiones
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reconciliation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Reanuda los trabajos en espera y los que quedaron abandonados por una instancia que se detuvo
+    @Scheduled(cron = "${application.reconciliation.resume-cron:0 * * * * *}")
+    public void resumeInterrupted() {
+        jobExecutionRepository.findByTypeAndStatusIn(JobType.BANK_RECONCILIATION, List.of(JobStatus.QUEUED, JobStatus.RUNNING))
+                .forEach(job -> submit(job.getId()));
+    }
+
+    public void submit(Long jobId) {
+        if (running.add(jobId)) {
+            worker.execute(() -> run(jobId));
+        }
+    }
+
+    public boolean isStale(JobExecution job) {
+        return job.getStatus() == JobStatus.RUNNING
+                && (job.getUpdatedAt() == null || job.getUpdatedAt().isBefore(LocalDateTime.now().minus(staleAfter)));
+    }
+
+    private void run(Long jobId) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer claimed = transactionTemplate.execute(status -> jobExecutionRepository.claim(jobId,
+                    List.of(JobStatus.QUEUED, JobStatus.FAILED), now.minus(staleAfter), now));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+            JobExecution job = jobExecutionRepository.findById(jobId)
+                    .orElseThrow(() -> new IllegalStateException("Reconciliation job not found with id: " + jobId));
+
+            log.info("Reconciliation job {} started at line {}", jobId, job.getCheckpoint() + 1);
+            process(jobId, job.getCheckpoint());
+            // La entrada se borra junto con el cierre: un trabajo COMPLETED ya no se reanuda
+            transactionTemplate.executeWithoutResult(status -> {
+                jobExecutionRepository.finish(jobId, JobStatus.COMPLETED, null, LocalDateTime.now());
+                jobInputStore.delete(jobId);
+            });
+            log.info("Reconciliation job {} completed", jobId);
+        } catch (Exception e) {
+            log.error("Reconciliation job {} failed, it can be resumed from its last checkpoint", jobId, e);
+            String message = String.valueOf(e.getMessage());
+            String error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+            transactionTemplate.executeWithoutResult(status ->
+                    jobExecutionRepository.finish(jobId, JobStatus.FAILED, error, LocalDateTime.now()));
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    private void process(Long jobId, long checkpoint) {
+        List<SettlementLine> chunk = new ArrayList<>(chunkSize);
+        long[] lastLine = {checkpoint};
+        jobInputStore.forEachLine(jobId, checkpoint, (line, lineNumber) -> {
+            lastLine[0] = lineNumber;
+            if (line.isBlank()) {
+                return;
+            }
+            SettlementLine parsed = SettlementLine.parse(lineNumber, line);
+            // El encabezado es opcional: una primera línea sin monto numérico se ignora
+            if (lineNumber == 1 && parsed.error != null) {
+                return;
+            }
+            chunk.add(parsed);
+            if (chunk.size() == chunkSize) {
+                applyChunk(jobId, chunk, lineNumber);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            applyChunk(jobId, chunk, lastLine[0]);
+        }
+    }
+
+    private void applyChunk(Long jobId, List<SettlementLine> chunk, long lastLine) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, PaymentRow> payments = findPayments(chunk);
+            String[] reasons = new String[chunk.size()];
+            Set<Long> seen = new HashSet<>();
+            List<Integer> settledLines = new ArrayList<>();
+            List<PaymentResultApplier.SettlementRequest> requests = new ArrayList<>();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                SettlementLine line = chunk.get(i);
+                PaymentRow payment = line.error == null ? payments.get(line.reference) : null;
+                if (line.error != null) {
+                    reasons[i] = line.error;
+                } else if (payment == null) {
+                    reasons[i] = "Unknown reference";
+                } else if (payment.amount.compareTo(line.amount) != 0) {
+                    reasons[i] = "Amount mismatch, expected " + payment.amount.toPlainString();
+                } else if (payment.status != PaymentStatus.SUCCESS && seen.add(payment.id)) {
+                    // El banco confirmó el cobro: se liquida igual que una aprobación de la pasarela
+                    settledLines.add(i);
+                    requests.add(new PaymentResultApplier.SettlementRequest(payment.id, payment.invoiceId,
+                            payment.status));
+                }
+            }
+            if (!requests.isEmpty()) {
+                List<PaymentResultApplier.Settlement> settlements = paymentResultApplier.settleAll(requests);
+                for (int j = 0; j < settlements.size(); j++) {
+                    if (settlements.get(j) == PaymentResultApplier.Settlement.CONFLICT) {
+                        reasons[settledLines.get(j)] = "Invoice already has a pending or successful payment";
+                    }
+                }
+            }
+
+            List<Object[]> unmatched = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (reasons[i] != null) {
+                    SettlementLine line = chunk.get(i);
+                    unmatched.add(new Object[]{jobId, line.number, line.reference, line.amount, reasons[i]});
+                }
+            }
+            if (!unmatched.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_UNMATCHED, unmatched);
+            }
+            jobExecutionRepository.recordProgress(jobId, lastLine, chunk.size(), chunk.size() - unmatched.size(),
+                    unmatched.size(), LocalDateTime.now());
+        });
+    }
+
+    private Map<String, PaymentRow> findPayments(List<SettlementLine> chunk) {
+        Set<String> references = new LinkedHashSet<>();
+        for (SettlementLine line : chunk) {
+            if (line.error == null) {
+                references.add(line.reference);
+            }
+        }
+        Map<String, PaymentRow> payments = new HashMap<>(references.size() * 2);
+        if (references.isEmpty()) {
+            return payments;
+        }
+        String placeholders = String.join(",", Collections.nCopies(references.size(), "?"));
+        jdbcTemplate.query(String.format(SELECT_PAYMENTS, placeholders), rs -> {
+            payments.put(rs.getString("reference"), new PaymentRow(
+                    rs.getLong("id"),
+                    rs.getBigDecimal("amount"),
+                    PaymentStatus.valueOf(rs.getString("status")),
+                    rs.getLong("invoice_id")));
+        }, references.toArray());
+        return payments;
+    }
+
+    private static final class SettlementLine {
+        private final long number;
+        private final String reference;
+        private final BigDecimal amount;
+        private final String error;
+
+        private SettlementLine(long number, String reference, BigDecimal amount, String error) {
+            this.number = number;
+            this.reference = reference;
+            this.amount = amount;
+            this.error = error;
+        }
+
+        private static SettlementLine parse(long number, String line) {
+            String[] columns = line.split(",", -1);
+            if (columns.length < 2) {
+                return new SettlementLine(number, null, null, "Expected columns reference and amount");
+            }
+            String reference = columns[0].strip();
+            if (reference.isEmpty()) {
+                return new SettlementLine(number, null, null, "Missing reference");
+            }
+            if (reference.length() > 255) {
+                return new SettlementLine(number, reference.substring(0, 255), null, "Reference is too long");
+            }
+            try {
+                BigDecimal amount = new BigDecimal(columns[1].strip());
+                // Mismo rango que DECIMAL(10, 2)
+                if (amount.scale() > 2 || amount.precision() - amount.scale() > 8) {
+                    return new SettlementLine(number, reference, null, "Invalid amount");
+                }
+                return new SettlementLine(number, reference, amount, null);
+            } catch (NumberFormatException e) {
+                return new SettlementLine(number, reference, null, "Invalid amount");
+            }
+        }
+    }
+
+    private static final class PaymentRow {
+        private final long id;
+        private final BigDecimal amount;
+        private final PaymentStatus status;
+        private final long invoiceId;
+
+        private PaymentRow(long id, BigDecimal amount, PaymentStatus status, long invoiceId) {
+            this.id = id;
+            this.amount = amount;
+            this.status = status;
+            this.invoiceId = invoiceId;
+        }
+    }
+}
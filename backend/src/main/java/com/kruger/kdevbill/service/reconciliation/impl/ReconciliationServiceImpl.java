@@ -0,0 +1,123 @@
+package com.kruger.kdevbill.service.reconciliation.impl;
+
+import com.kruger.kdevbill.dto.response.CursorPage;
+import com.kruger.kdevbill.dto.response.JobExecutionResponse;
+import com.kruger.kdevbill.dto.response.ReconciliationUnmatchedLineResponse;
+import com.kruger.kdevbill.entity.JobExecution;
+import com.kruger.kdevbill.entity.enums.JobStatus;
+import com.kruger.kdevbill.entity.enums.JobType;
+import com.kruger.kdevbill.mapper.JobExecutionMapper;
+import com.kruger.kdevbill.repository.JobExecutionRepository;
+import com.kruger.kdevbill.repository.ReconciliationUnmatchedLineRepository;
+import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.pagination.KeysetPagination;
+import com.kruger.kdevbill.service.reconciliation.ReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@Slf4j
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private final JobExecutionRepository jobExecutionRepository;
+    private final ReconciliationUnmatchedLineRepository unmatchedLineRepository;
+    private final ReconciliationJobRunner jobRunner;
+    private final JobExecutionMapper jobExecutionMapper;
+    private final SecurityHelper securityHelper;
+    private final KeysetPagination keysetPagination;
+    private final JobInputStore jobInputStore;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReconciliationServiceImpl(JobExecutionRepository jobExecutionRepository,
+                                     ReconciliationUnmatchedLineRepository unmatchedLineRepository,
+                                     ReconciliationJobRunner jobRunner,
+                                     JobExecutionMapper jobExecutionMapper,
+                                     SecurityHelper securityHelper,
+                                     KeysetPagination keysetPagination,
+                                     JobInputStore jobInputStore,
+                                     PlatformTransactionManager transactionManager) {
+        this.jobExecutionRepository = jobExecutionRepository;
+        this.unmatchedLineRepository = unmatchedLineRepository;
+        this.jobRunner = jobRunner;
+        this.jobExecutionMapper = jobExecutionMapper;
+        this.securityHelper = securityHelper;
+        this.keysetPagination = keysetPagination;
+        this.jobInputStore = jobInputStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public JobExecutionResponse startImport(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Settlement file is empty");
+        }
+        // El trabajo y su entrada se guardan en la misma transacción; el trabajo se encola después del commit
+        // para que el runner, de esta u otra instancia, encuentre la entrada completa
+        JobExecution job = transactionTemplate.execute(status -> {
+            // saveAndFlush: los bloques referencian la fila del trabajo
+            JobExecution created = jobExecutionRepository.saveAndFlush(JobExecution.builder()
+                    .type(JobType.BANK_RECONCILIATION)
+                    .status(JobStatus.QUEUED)
+                    .parameters(file.getOriginalFilename())
+                    .createdBy(securityHelper.getAuthenticatedUserId())
+                    .build());
+            try (InputStream input = file.getInputStream()) {
+                created.setTotalItems(jobInputStore.store(created.getId(), input));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Settlement file could not be stored", e);
+            }
+            return created;
+        });
+        log.info("Reconciliation job {} queued for {} ({} bytes)", job.getId(), file.getOriginalFilename(), file.getSize());
+        jobRunner.submit(job.getId());
+        return jobExecutionMapper.toJobExecutionResponse(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public JobExecutionResponse getJob(Long id) {
+        return jobExecutionMapper.toJobExecutionResponse(findJob(id));
+    }
+
+    @Override
+    public JobExecutionResponse resumeJob(Long id) {
+        JobExecution job = findJob(id);
+        if (job.getStatus() == JobStatus.COMPLETED
+                || (job.getStatus() == JobStatus.RUNNING && !jobRunner.isStale(job))) {
+            throw new IllegalStateException("Reconciliation job " + id + " is already " + job.getStatus());
+        }
+        jobRunner.submit(id);
+        return jobExecutionMapper.toJobExecutionResponse(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReconciliationUnmatchedLineResponse> getUnmatchedLines(Long id, String cursor, Integer size) {
+        findJob(id);
+        long afterLine;
+        try {
+            afterLine = cursor == null || cursor.isBlank() ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int pageSize = keysetPagination.resolveSize(size);
+        List<ReconciliationUnmatchedLineResponse> lines = unmatchedLineRepository.findPageByJobId(id, afterLine,
+                keysetPagination.probe(pageSize));
+        return keysetPagination.toPage(lines, pageSize, line -> String.valueOf(line.getLineNumber()));
+    }
+
+    private JobExecution findJob(Long id) {
+        return jobExecutionRepository.findById(id)
+                .filter(job -> job.getType() == JobType.BANK_RECONCILIATION)
+                .orElseThrow(() -> new RuntimeException("Reconciliation job not found with id: " + id));
+    }
+}
@@ -0,0 +1,66 @@
+package com.kruger.kdevbill.service.sequence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Reserva ids para inserciones JDBC directas con la misma semántica pooled-lo que usa Hibernate:
+// cada nextval devuelve el primer id de un bloque de tantos ids como el incremento de la secuencia.
+@Component
+public class IdBlockAllocator {
+
+    private static final Pattern SEQUENCE_NAME = Pattern.compile("[a-z_]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Long> increments = new ConcurrentHashMap<>();
+
+    public IdBlockAllocator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public long[] allocate(String sequence, int count) {
+        long increment = blockSize(sequence);
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            long low = reserveBlock(sequence);
+            for (long id = low; id < low + increment && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+
+    // Primer valor de un bloque nuevo; el bloque cubre blockSize(sequence) valores consecutivos
+    public long reserveBlock(String sequence) {
+        validate(sequence);
+        return jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+    }
+
+    public long blockSize(String sequence) {
+        validate(sequence);
+        return increments.computeIfAbsent(sequence, this::readIncrement);
+    }
+
+    private static void validate(String sequence) {
+        if (!SEQUENCE_NAME.matcher(sequence).matches()) {
+            throw new IllegalArgumentException("Invalid sequence name: " + sequence);
+        }
+    }
+
+    private long readIncrement(String sequence) {
+        // Solo el esquema en uso: otro esquema puede tener una secuencia con el mismo nombre
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment FROM information_schema.sequences " +
+                "WHERE sequence_schema = current_schema AND lower(sequence_name) = ?",
+                Long.class, sequence);
+        if (increment == null || increment < 1) {
+            throw new IllegalStateException("Invalid increment for sequence " + sequence + ": " + increment);
+        }
+        return increment;
+    }
+}
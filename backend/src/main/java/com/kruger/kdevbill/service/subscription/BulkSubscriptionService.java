@@ -0,0 +1,14 @@
+package com.kruger.kdevbill.service.subscription;
+
+import com.kruger.kdevbill.dto.request.SubscriptionCreateRequest;
+import com.kruger.kdevbill.dto.response.BulkSubscriptionResponse;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface BulkSubscriptionService {
+
+    BulkSubscriptionResponse createSubscriptions(List<SubscriptionCreateRequest> requests);
+
+    BulkSubscriptionResponse createSubscriptionsFromCsv(InputStream csv);
+}
@@ -2,18 +2,17 @@ package com.kruger.kdevbill.service.subscription;
 
 import com.kruger.kdevbill.dto.request.SubscriptionCreateRequest;
 import com.kruger.kdevbill.dto.request.SubscriptionUpdateRequest;
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.dto.response.SubscriptionResponse;
 
-import java.util.List;
-
 public interface SubscriptionService {
 
     SubscriptionResponse createSubscription(SubscriptionCreateRequest request);
 
-    List<SubscriptionResponse> getMySubscriptions();
+    CursorPage<SubscriptionResponse> getMySubscriptions(String cursor, Integer size);
 
-    List<SubscriptionResponse> getSubscriptionsByCustomerId(Long customerId);
+    CursorPage<SubscriptionResponse> getSubscriptionsByCustomerId(Long customerId, String cursor, Integer size);
 
     SubscriptionResponse updateSubscription(Long id, SubscriptionUpdateRequest request);
 
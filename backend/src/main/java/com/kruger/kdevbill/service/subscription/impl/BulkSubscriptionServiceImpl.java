@@ -0,0 +1,425 @@
+package com.kruger.kdevbill.service.subscription.impl;
+
+import com.kruger.kdevbill.dto.request.SubscriptionCreateRequest;
+import com.kruger.kdevbill.dto.response.BulkSubscriptionResponse;
+import com.kruger.kdevbill.dto.response.BulkSubscriptionRowResult;
+import com.kruger.kdevbill.dto.response.InvoiceResponse;
+import com.kruger.kdevbill.dto.response.SubscriptionResponse;
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
+import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
+import com.kruger.kdevbill.security.JwtPrincipal;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.customer.CustomerCreatedEvent;
+import com.kruger.kdevbill.service.customer.CustomerResolver;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
+import com.kruger.kdevbill.service.outbox.OutboxWriter;
+import com.kruger.kdevbill.service.plan.PlanCatalog;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import com.kruger.kdevbill.service.subscription.BulkSubscriptionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Alta masiva de suscripciones con la misma semántica que createSubscription (suscripción ACTIVE más su
+// primera factura OPEN), pero por chunks: los planes se validan una vez contra el catálogo en memoria, los
+// customers se resuelven con un IN por chunk y las filas se insertan en batches JDBC con ids por bloques.
+// Un chunk que falla no afecta a los demás; cada fila informa su resultado.
+// Como en createSubscription, una fila sin customerId de un usuario no ADMIN usa el customer del usuario
+// autenticado, que se crea una sola vez si aún no existe. Un ADMIN debe indicar el customerId en cada fila.
+@Slf4j
+@Service
+public class BulkSubscriptionServiceImpl implements BulkSubscriptionService {
+
+    private static final String SELECT_CUSTOMERS = "SELECT id, user_id, name, email FROM customers WHERE id IN (%s)";
+
+    private static final String INSERT_SUBSCRIPTION =
+            "INSERT INTO subscriptions (id, status, start_date, next_billing_date, created_at, customer_id, plan_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_INVOICE =
+            "INSERT INTO invoices (id, amount, status, due_date, issued_at, subscription_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PlanCatalog planCatalog;
+    private final BillingHelper billingHelper;
+    private final IdBlockAllocator idBlockAllocator;
+    private final OutboxWriter outboxWriter;
+    private final DashboardAggregates dashboardAggregates;
+    private final SecurityHelper securityHelper;
+    private final CustomerResolver customerResolver;
+    private final CustomerRepository customerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public BulkSubscriptionServiceImpl(DataSource dataSource,
+                                       PlatformTransactionManager transactionManager,
+                                       PlanCatalog planCatalog,
+                                       BillingHelper billingHelper,
+                                       IdBlockAllocator idBlockAllocator,
+                                       OutboxWriter outboxWriter,
+                                       DashboardAggregates dashboardAggregates,
+                                       SecurityHelper securityHelper,
+                                       CustomerResolver customerResolver,
+                                       CustomerRepository customerRepository,
+                                       ApplicationEventPublisher eventPublisher,
+                                       @Value("${application.subscriptions.bulk.chunk-size:1000}") int chunkSize,
+                                       @Value("${application.subscriptions.bulk.max-rows:100000}") int maxRows) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.planCatalog = planCatalog;
+        this.billingHelper = billingHelper;
+        this.idBlockAllocator = idBlockAllocator;
+        this.outboxWriter = outboxWriter;
+        this.dashboardAggregates = dashboardAggregates;
+        this.securityHelper = securityHelper;
+        this.customerResolver = customerResolver;
+        this.customerRepository = customerRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public BulkSubscriptionResponse createSubscriptions(List<SubscriptionCreateRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Bulk request has no rows");
+        }
+        checkSize(requests.size());
+        List<BulkRow> rows = new ArrayList<>(requests.size());
+        for (SubscriptionCreateRequest request : requests) {
+            BulkRow row = request == null
+                    ? new BulkRow(rows.size() + 1, null, null)
+                    : new BulkRow(rows.size() + 1, request.getCustomerId(), request.getPlanId());
+            if (request == null) {
+                row.fail("Row is empty");
+            }
+            rows.add(row);
+        }
+        return process(rows);
+    }
+
+    @Override
+    public BulkSubscriptionResponse createSubscriptionsFromCsv(InputStream csv) {
+        return process(readCsv(csv));
+    }
+
+    private BulkSubscriptionResponse process(List<BulkRow> rows) {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Bulk request has no rows");
+        }
+        long started = System.nanoTime();
+        JwtPrincipal principal = securityHelper.getPrincipal();
+
+        // Los planes se validan una sola vez cada uno contra el catálogo en memoria
+        Map<Long, Optional<Plan>> plans = new HashMap<>();
+        List<BulkRow> ownRows = new ArrayList<>();
+        for (BulkRow row : rows) {
+            if (row.error != null) {
+                continue;
+            }
+            if (row.customerId == null && principal.isAdmin()) {
+                row.fail("customerId is required");
+            } else if (row.planId == null) {
+                row.fail("planId is required");
+            } else {
+                Optional<Plan> plan = plans.computeIfAbsent(row.planId, planCatalog::findPlan);
+                if (plan.isEmpty()) {
+                    row.fail("Plan not found with id: " + row.planId);
+                } else if (!plan.get().isActive()) {
+                    row.fail("Cannot subscribe to an inactive plan");
+                } else {
+                    row.plan = plan.get();
+                    if (row.customerId == null) {
+                        ownRows.add(row);
+                    }
+                }
+            }
+        }
+        if (!ownRows.isEmpty()) {
+            Long ownCustomerId = findOrCreateOwnCustomer();
+            for (BulkRow row : ownRows) {
+                row.customerId = ownCustomerId;
+            }
+        }
+
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<BulkRow> pending = new ArrayList<>(chunkSize);
+            for (BulkRow row : rows.subList(from, Math.min(from + chunkSize, rows.size()))) {
+                if (row.error == null) {
+                    pending.add(row);
+                }
+            }
+            if (pending.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(pending, principal));
+            } catch (RuntimeException e) {
+                log.warn("Bulk subscription chunk starting at row {} failed: {}", pending.get(0).row, e.getMessage());
+                for (BulkRow row : pending) {
+                    if (row.error == null) {
+                        row.subscriptionId = null;
+                        row.invoiceId = null;
+                        row.fail("Chunk could not be saved: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        List<BulkSubscriptionRowResult> results = new ArrayList<>(rows.size());
+        int created = 0;
+        for (BulkRow row : rows) {
+            boolean ok = row.error == null;
+            if (ok) {
+                created++;
+            }
+            results.add(BulkSubscriptionRowResult.builder()
+                    .row(row.row)
+                    .customerId(row.customerId)
+                    .planId(row.planId)
+                    .created(ok)
+                    .subscriptionId(row.subscriptionId)
+                    .invoiceId(row.invoiceId)
+                    .error(row.error)
+                    .build());
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Bulk subscription request by {}: {} rows, {} created, {} failed in {} ms",
+                principal.getUsername(), rows.size(), created, rows.size() - created, durationMs);
+
+        return BulkSubscriptionResponse.builder()
+                .totalRows(rows.size())
+                .created(created)
+                .failed(rows.size() - created)
+                .durationMs(durationMs)
+                .rowsPerSecond(rows.size() * 1000L / durationMs)
+                .rows(results)
+                .build();
+    }
+
+    private void insertChunk(List<BulkRow> pending, JwtPrincipal principal) {
+        Map<Long, CustomerRow> customers = findCustomers(pending);
+        List<BulkRow> accepted = new ArrayList<>(pending.size());
+        for (BulkRow row : pending) {
+            CustomerRow customer = customers.get(row.customerId);
+            if (customer == null) {
+                row.fail("Customer not found with id: " + row.customerId);
+            } else if (!principal.isAdmin() && !principal.getId().equals(customer.ownerId)) {
+                row.fail("You do not have permission to create subscriptions for this customer");
+            } else {
+                row.customer = customer;
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        long[] subscriptionIds = idBlockAllocator.allocate("subscriptions_id_seq", accepted.size());
+        long[] invoiceIds = idBlockAllocator.allocate("invoices_id_seq", accepted.size());
+        LocalDate startDate = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate dueDate = now.toLocalDate().plusDays(7);
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Map<Long, LocalDate> nextBillingDates = new HashMap<>();
+
+        List<Object[]> subscriptions = new ArrayList<>(accepted.size());
+        List<Object[]> invoices = new ArrayList<>(accepted.size());
+        Map<Long, SubscriptionResponse> subscriptionEvents = new LinkedHashMap<>(accepted.size() * 2);
+        Map<Long, InvoiceResponse> invoiceEvents = new LinkedHashMap<>(accepted.size() * 2);
+        for (int i = 0; i < accepted.size(); i++) {
+            BulkRow row = accepted.get(i);
+            Plan plan = row.plan;
+            LocalDate nextBillingDate = nextBillingDates.computeIfAbsent(plan.getId(),
+                    planId -> billingHelper.calculateNextBillingDate(startDate, plan));
+            row.subscriptionId = subscriptionIds[i];
+            row.invoiceId = invoiceIds[i];
+
+            subscriptions.add(new Object[]{row.subscriptionId, SubscriptionStatus.ACTIVE.name(), Date.valueOf(startDate),
+                    Date.valueOf(nextBillingDate), timestamp, row.customerId, plan.getId()});
+            invoices.add(new Object[]{row.invoiceId, plan.getPrice(), InvoiceStatus.OPEN.name(), Date.valueOf(dueDate),
+                    timestamp, row.subscriptionId});
+
+            subscriptionEvents.put(row.subscriptionId, new SubscriptionResponse(row.subscriptionId,
+                    SubscriptionStatus.ACTIVE, startDate, nextBillingDate, now, plan.getId(), plan.getName(),
+                    plan.getPrice(), plan.getBillingCycle(), plan.isActive(), row.customerId, row.customer.name,
+                    row.customer.email));
+            invoiceEvents.put(row.invoiceId, new InvoiceResponse(row.invoiceId, plan.getPrice(), InvoiceStatus.OPEN,
+                    dueDate, now, row.subscriptionId));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SUBSCRIPTION, subscriptions);
+        jdbcTemplate.batchUpdate(INSERT_INVOICE, invoices);
+        outboxWriter.appendAll(OutboxEventType.SUBSCRIPTION_CREATED, subscriptionEvents);
+        outboxWriter.appendAll(OutboxEventType.INVOICE_ISSUED, invoiceEvents);
+        dashboardAggregates.apply(new DashboardUpdate()
+                .subscriptionsCreated(accepted.size(), now)
+                .invoicesIssued(accepted.size(), now));
+    }
+
+    // Solo se llama si alguna fila válida lo necesita: igual que createSubscription, no crea el customer para
+    // filas que igual fallarían por el plan
+    private Long findOrCreateOwnCustomer() {
+        return customerResolver.findCurrentCustomerId().orElseGet(() -> transactionTemplate.execute(status -> {
+            User authenticatedUser = securityHelper.getAuthenticatedUser();
+            Customer savedCustomer = customerRepository.save(Customer.builder()
+                    .name(authenticatedUser.getUsername())
+                    .email(authenticatedUser.getEmail())
+                    .owner(authenticatedUser)
+                    .build());
+            eventPublisher.publishEvent(new CustomerCreatedEvent(authenticatedUser.getId(), savedCustomer.getId()));
+            dashboardAggregates.apply(new DashboardUpdate().customersCreated(1, savedCustomer.getCreatedAt()));
+            return savedCustomer.getId();
+        }));
+    }
+
+    private Map<Long, CustomerRow> findCustomers(List<BulkRow> rows) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (BulkRow row : rows) {
+            ids.add(row.customerId);
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Long, CustomerRow> customers = new HashMap<>(ids.size() * 2);
+        jdbcTemplate.query(String.format(SELECT_CUSTOMERS, placeholders), rs -> {
+            customers.put(rs.getLong("id"), new CustomerRow(rs.getLong("user_id"), rs.getString("name"),
+                    rs.getString("email")));
+        }, ids.toArray());
+        return customers;
+    }
+
+    // Columnas customerId y planId; el encabezado es opcional y puede traerlas en cualquier orden
+    private List<BulkRow> readCsv(InputStream csv) {
+        List<BulkRow> rows = new ArrayList<>();
+        int customerColumn = 0;
+        int planColumn = 1;
+        boolean first = true;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                if (first) {
+                    first = false;
+                    if (isHeader(columns)) {
+                        customerColumn = indexOf(columns, "customerid");
+                        planColumn = indexOf(columns, "planid");
+                        continue;
+                    }
+                }
+                checkSize(rows.size() + 1);
+                rows.add(parseRow(rows.size() + 1, columns, customerColumn, planColumn));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bulk CSV could not be read", e);
+        }
+        return rows;
+    }
+
+    private static BulkRow parseRow(int number, String[] columns, int customerColumn, int planColumn) {
+        if (columns.length <= Math.max(customerColumn, planColumn)) {
+            BulkRow row = new BulkRow(number, null, null);
+            row.fail("Expected columns customerId and planId");
+            return row;
+        }
+        String customer = columns[customerColumn].strip();
+        String plan = columns[planColumn].strip();
+        try {
+            return new BulkRow(number, customer.isEmpty() ? null : Long.valueOf(customer),
+                    plan.isEmpty() ? null : Long.valueOf(plan));
+        } catch (NumberFormatException e) {
+            BulkRow row = new BulkRow(number, null, null);
+            row.fail("Invalid number in row: " + customer + "," + plan);
+            return row;
+        }
+    }
+
+    private static boolean isHeader(String[] columns) {
+        String firstColumn = columns[0].strip().replace("\uFEFF", "");
+        return !firstColumn.isEmpty() && !Character.isDigit(firstColumn.charAt(0));
+    }
+
+    private static int indexOf(String[] header, String column) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].strip().replace("\uFEFF", "").replace("_", "").equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("CSV header must contain the column " + column);
+    }
+
+    private void checkSize(int rows) {
+        if (rows > maxRows) {
+            throw new IllegalArgumentException("Bulk request exceeds the maximum of " + maxRows + " rows");
+        }
+    }
+
+    private static final class BulkRow {
+        private final int row;
+        private Long customerId;
+        private final Long planId;
+        private Plan plan;
+        private CustomerRow customer;
+        private Long subscriptionId;
+        private Long invoiceId;
+        private String error;
+
+        private BulkRow(int row, Long customerId, Long planId) {
+            this.row = row;
+            this.customerId = customerId;
+            this.planId = planId;
+        }
+
+        private void fail(String error) {
+            this.error = error;
+        }
+    }
+
+    private static final class CustomerRow {
+        private final long ownerId;
+        private final String name;
+        private final String email;
+
+        private CustomerRow(long ownerId, String name, String email) {
+            this.ownerId = ownerId;
+            this.name = name;
+            this.email = email;
+        }
+    }
+}
@@ -2,18 +2,30 @@ package com.kruger.kdevbill.service.subscription.impl;
 
 import com.kruger.kdevbill.dto.request.SubscriptionCreateRequest;
 import com.kruger.kdevbill.dto.request.SubscriptionUpdateRequest;
+import com.kruger.kdevbill.dto.response.CursorPage;
 import com.kruger.kdevbill.dto.response.InvoiceResponse;
 import com.kruger.kdevbill.dto.response.SubscriptionResponse;
 import com.kruger.kdevbill.entity.*;
 import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
 import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
 import com.kruger.kdevbill.mapper.InvoiceMapper;
 import com.kruger.kdevbill.mapper.SubscriptionMapper;
 import com.kruger.kdevbill.repository.*;
+import com.kruger.kdevbill.security.JwtPrincipal;
 import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.customer.CustomerCreatedEvent;
+import com.kruger.kdevbill.service.customer.CustomerResolver;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.dashboard.DashboardUpdate;
+import com.kruger.kdevbill.service.pagination.KeysetCursor;
+import com.kruger.kdevbill.service.outbox.OutboxWriter;
+import com.kruger.kdevbill.service.pagination.KeysetPagination;
+import com.kruger.kdevbill.service.plan.PlanCatalog;
 import com.kruger.kdevbill.service.subscription.SubscriptionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,7 +33,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -30,21 +41,27 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
         private final SubscriptionRepository subscriptionRepository;
         private final CustomerRepository customerRepository;
-        private final PlanRepository planRepository;
+        private final PlanCatalog planCatalog;
         private final InvoiceRepository invoiceRepository;
         private final SecurityHelper securityHelper;
         private final BillingHelper billingHelper;
         private final SubscriptionMapper subscriptionMapper;
         private final InvoiceMapper invoiceMapper;
+        private final KeysetPagination keysetPagination;
+        private final OutboxWriter outboxWriter;
+        private final CustomerResolver customerResolver;
+        private final ApplicationEventPublisher eventPublisher;
+        private final DashboardAggregates dashboardAggregates;
 
         @Override
         @Transactional
         public SubscriptionResponse createSubscription(SubscriptionCreateRequest request) {
-                User authenticatedUser = securityHelper.getAuthenticatedUser();
-                log.info("Creating subscription for user: {} (ID: {})", authenticatedUser.getUsername(),
-                                authenticatedUser.getId());
+                JwtPrincipal principal = securityHelper.getPrincipal();
+                log.info("Creating subscription for user: {} (ID: {})", principal.getUsername(),
+                                principal.getId());
 
                 // Obtener o buscar el customer
+                DashboardUpdate dashboardUpdate = new DashboardUpdate();
                 Customer customer;
                 if (request.getCustomerId() != null) {
                         // Caso 1: Se proporciona customerId (típicamente ADMIN)
@@ -62,19 +79,27 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 } else {
                         // Caso 2: No se proporciona customerId, buscar/crear customer del usuario
                         // autenticado
-                        customer = customerRepository.findByOwner(authenticatedUser)
+                        customer = customerResolver.findCurrentCustomerId()
+                                        .flatMap(customerRepository::findById)
                                         .orElseGet(() -> {
-                                                // Auto-creación de customer para usuarios sin perfil
+                                                // Auto-creación de customer para usuarios sin perfil;
+                                                // solo aquí se necesita la entidad completa del usuario
+                                                User authenticatedUser = securityHelper.getAuthenticatedUser();
                                                 Customer newCustomer = Customer.builder()
                                                                 .name(authenticatedUser.getUsername())
                                                                 .email(authenticatedUser.getEmail())
                                                                 .owner(authenticatedUser)
                                                                 .build();
-                                                return customerRepository.save(newCustomer);
+                                                Customer savedCustomer = customerRepository.save(newCustomer);
+                                                eventPublisher.publishEvent(new CustomerCreatedEvent(
+                                                                authenticatedUser.getId(), savedCustomer.getId()));
+                                                dashboardUpdate.customersCreated(1, savedCustomer.getCreatedAt());
+                                                return savedCustomer;
                                         });
                 }
 
-                Plan plan = planRepository.findById(request.getPlanId())
+                // Validación contra el catálogo en memoria; el plan desacoplado solo aporta la FK
+                Plan plan = planCatalog.findPlan(request.getPlanId())
                                 .orElseThrow(() -> new RuntimeException(
                                                 "Plan not found with id: " + request.getPlanId()));
 
@@ -106,61 +131,61 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                                 .issuedAt(issuedAt)
                                 .dueDate(dueDate)
                                 .build();
-                invoiceRepository.save(initialInvoice);
-
-                return subscriptionMapper.toSubscriptionResponse(savedSubscription);
+                Invoice savedInvoice = invoiceRepository.save(initialInvoice);
+
+                // Eventos en la misma transacción que las escrituras
+                SubscriptionResponse response = subscriptionMapper.toSubscriptionResponse(savedSubscription);
+                outboxWriter.append(OutboxEventType.SUBSCRIPTION_CREATED, savedSubscription.getId(), response);
+                outboxWriter.append(OutboxEventType.INVOICE_ISSUED, savedInvoice.getId(),
+                                invoiceMapper.toInvoiceResponse(savedInvoice));
+                dashboardAggregates.apply(dashboardUpdate.subscriptionsCreated(1, savedSubscription.getCreatedAt())
+                                .invoicesIssued(1, savedInvoice.getIssuedAt()));
+                return response;
         }
 
         @Override
         @Transactional(readOnly = true)
-        public List<SubscriptionResponse> getMySubscriptions() {
-                User authenticatedUser = securityHelper.getAuthenticatedUser();
-
-                // Búsqueda del customer asociado al usuario autenticado
-                // Se implementa un sistema de fallback con múltiples estrategias para
-                // garantizar
-                // compatibilidad con diferentes estados de la base de datos
-                Customer customer = customerRepository.findByOwnerUsername(authenticatedUser.getUsername())
-                                .orElseGet(() -> customerRepository.findByOwnerId(authenticatedUser.getId())
-                                                .orElseGet(() -> customerRepository.findByOwner(authenticatedUser)
-                                                                .orElseThrow(() -> new RuntimeException(
-                                                                                "No customer profile found for user: "
-                                                                                                + authenticatedUser
-                                                                                                                .getUsername()
-                                                                                                +
-                                                                                                ". Please create a customer profile first or contact administrator."))));
-
-                List<Subscription> subscriptions = subscriptionRepository.findByCustomerId(customer.getId());
-
-                return subscriptions.stream()
-                                .map(subscriptionMapper::toSubscriptionResponse)
-                                .collect(Collectors.toList());
+        public CursorPage<SubscriptionResponse> getMySubscriptions(String cursor, Integer size) {
+                // Claim del token o caché del resolver: en estado estable no consulta la tabla customers
+                return findSubscriptionPage(customerResolver.requireCurrentCustomerId(), cursor, size);
         }
 
         @Override
         @Transactional(readOnly = true)
-        public List<SubscriptionResponse> getSubscriptionsByCustomerId(Long customerId) {
-                Customer customer = customerRepository.findById(customerId)
-                                .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
-                if (!securityHelper.isAdmin() && !securityHelper.isOwner(customer.getOwner().getId())) {
-                        throw new AccessDeniedException("You do not have permission to view these subscriptions");
+        public CursorPage<SubscriptionResponse> getSubscriptionsByCustomerId(Long customerId, String cursor, Integer size) {
+                // El customer del token no necesita consulta; en otro caso solo se resuelve el dueño
+                JwtPrincipal principal = securityHelper.getPrincipal();
+                if (!customerId.equals(customerResolver.tokenCustomerId(principal))) {
+                        Long ownerId = customerRepository.findOwnerIdById(customerId)
+                                        .orElseThrow(() -> new RuntimeException("Customer not found with id: " + customerId));
+                        if (!principal.isAdmin() && !principal.getId().equals(ownerId)) {
+                                throw new AccessDeniedException("You do not have permission to view these subscriptions");
+                        }
                 }
-                return subscriptionRepository.findByCustomerId(customerId).stream()
-                                .map(subscriptionMapper::toSubscriptionResponse)
-                                .collect(Collectors.toList());
+                return findSubscriptionPage(customerId, cursor, size);
+        }
+
+        private CursorPage<SubscriptionResponse> findSubscriptionPage(Long customerId, String cursor, Integer size) {
+                int pageSize = keysetPagination.resolveSize(size);
+                KeysetCursor position = KeysetCursor.decode(cursor);
+                List<SubscriptionResponse> subscriptions = subscriptionRepository.findPageByCustomerId(customerId,
+                                position.getTimestamp(), position.getId(), keysetPagination.probe(pageSize));
+
+                return keysetPagination.toPage(subscriptions, pageSize,
+                                subscription -> new KeysetCursor(subscription.getCreatedAt(), subscription.getId()).encode());
         }
 
         @Override
         @Transactional
         public SubscriptionResponse updateSubscription(Long id, SubscriptionUpdateRequest request) {
-                Subscription subscription = subscriptionRepository.findById(id)
+                Subscription subscription = subscriptionRepository.findWithOwnerById(id)
                                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + id));
                 if (!securityHelper.isAdmin()
                                 && !securityHelper.isOwner(subscription.getCustomer().getOwner().getId())) {
                         throw new AccessDeniedException("You do not have permission to update this subscription");
                 }
                 if (request.getPlanId() != null) {
-                        Plan newPlan = planRepository.findById(request.getPlanId())
+                        Plan newPlan = planCatalog.findPlan(request.getPlanId())
                                         .orElseThrow(() -> new RuntimeException(
                                                         "Plan not found with id: " + request.getPlanId()));
                         if (!newPlan.isActive()) {
@@ -168,18 +193,23 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                         }
                         subscription.setPlan(newPlan);
                 }
+                SubscriptionStatus previousStatus = subscription.getStatus();
                 subscription.setStatus(request.getStatus());
                 if (request.getStatus() == SubscriptionStatus.CANCELED) {
                         subscription.setNextBillingDate(null);
                 }
                 Subscription updatedSubscription = subscriptionRepository.save(subscription);
-                return subscriptionMapper.toSubscriptionResponse(updatedSubscription);
+                SubscriptionResponse response = subscriptionMapper.toSubscriptionResponse(updatedSubscription);
+                outboxWriter.append(OutboxEventType.SUBSCRIPTION_UPDATED, updatedSubscription.getId(), response);
+                dashboardAggregates.apply(new DashboardUpdate()
+                                .subscriptionStatusChanged(previousStatus, updatedSubscription.getStatus()));
+                return response;
         }
 
         @Override
         @Transactional
         public InvoiceResponse renewSubscription(Long id) {
-                Subscription subscription = subscriptionRepository.findById(id)
+                Subscription subscription = subscriptionRepository.findWithOwnerById(id)
                                 .orElseThrow(() -> new RuntimeException("Subscription not found with id: " + id));
                 if (!securityHelper.isAdmin()
                                 && !securityHelper.isOwner(subscription.getCustomer().getOwner().getId())) {
@@ -197,6 +227,9 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                                 .dueDate(dueDate)
                                 .build();
                 Invoice savedInvoice = invoiceRepository.save(invoice);
-                return invoiceMapper.toInvoiceResponse(savedInvoice);
+                InvoiceResponse response = invoiceMapper.toInvoiceResponse(savedInvoice);
+                outboxWriter.append(OutboxEventType.INVOICE_ISSUED, savedInvoice.getId(), response);
+                dashboardAggregates.apply(new DashboardUpdate().invoicesIssued(1, savedInvoice.getIssuedAt()));
+                return response;
         }
 }
\ No newline at end of file
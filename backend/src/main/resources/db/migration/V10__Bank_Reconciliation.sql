@@ -0,0 +1,47 @@
+-- V10: Conciliación bancaria
+-- Propósito: buscar pagos por referencia con un índice único y registrar los trabajos de importación,
+-- su progreso y las líneas del archivo del banco que no coinciden con ningún pago
+
+-- Las referencias repetidas (muy poco probables) se desambiguan con el id antes de crear el índice único
+UPDATE payments p SET reference = p.reference || '-' || p.id
+WHERE EXISTS (SELECT 1 FROM payments d WHERE d.reference = p.reference AND d.id < p.id);
+
+CREATE UNIQUE INDEX uk_payments_reference ON payments(reference);
+
+CREATE TABLE job_executions (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    parameters TEXT,
+    total_items BIGINT NOT NULL DEFAULT 0,
+    processed_items BIGINT NOT NULL DEFAULT 0,
+    succeeded_items BIGINT NOT NULL DEFAULT 0,
+    failed_items BIGINT NOT NULL DEFAULT 0,
+    checkpoint_position BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(1000),
+    created_by BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
+
+ALTER SEQUENCE job_executions_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_job_executions_type_status ON job_executions(type, status);
+
+CREATE TABLE reconciliation_unmatched_lines (
+    id BIGSERIAL PRIMARY KEY,
+    job_id BIGINT NOT NULL,
+    line_number BIGINT NOT NULL,
+    reference VARCHAR(255),
+    amount DECIMAL(10, 2),
+    reason VARCHAR(255) NOT NULL,
+
+    CONSTRAINT fk_reconciliation_unmatched_job
+        FOREIGN KEY(job_id)
+        REFERENCES job_executions(id)
+        ON DELETE CASCADE,
+
+    CONSTRAINT uk_reconciliation_unmatched_job_line UNIQUE (job_id, line_number)
+);
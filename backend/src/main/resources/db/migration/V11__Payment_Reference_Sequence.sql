@@ -0,0 +1,6 @@
+-- V11: Secuencia para las referencias de pago
+-- Propósito: PaymentReferenceGenerator reserva bloques de 1000 referencias por nextval y los consume en memoria
+-- por hilo, así que generar una referencia no requiere ir a la base ni tomar un lock compartido.
+-- La unicidad la sigue garantizando uk_payments_reference (V10).
+
+CREATE SEQUENCE payment_reference_seq START WITH 1 INCREMENT BY 1000;
@@ -0,0 +1,55 @@
+-- V12: Agregados del dashboard
+-- Propósito: /dashboard/stats y /dashboard/charts leen contadores y acumulados diarios que se actualizan en la
+-- misma transacción que los cambios de negocio, en lugar de contar clientes, facturas y pagos en cada consulta.
+-- Cada métrica se reparte en varias filas (stripe) para repartir la contención; la lectura suma las stripes.
+
+CREATE TABLE dashboard_counters (
+    metric VARCHAR(50) NOT NULL,
+    stripe INTEGER NOT NULL,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (metric, stripe)
+);
+
+CREATE TABLE dashboard_daily_rollups (
+    rollup_date DATE NOT NULL,
+    metric VARCHAR(50) NOT NULL,
+    stripe INTEGER NOT NULL,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (rollup_date, metric, stripe)
+);
+
+-- Carga inicial desde los datos existentes, en stripe 0 (mismo cálculo que POST /dashboard/rebuild)
+INSERT INTO dashboard_counters (metric, stripe, item_count, amount)
+SELECT 'CUSTOMERS', 0, COUNT(*), 0 FROM customers
+UNION ALL
+SELECT 'SUBSCRIPTIONS', 0, COUNT(*), 0 FROM subscriptions
+UNION ALL
+SELECT 'ACTIVE_SUBSCRIPTIONS', 0, COUNT(*), 0 FROM subscriptions WHERE status = 'ACTIVE'
+UNION ALL
+SELECT 'INVOICES', 0, COUNT(*), 0 FROM invoices
+UNION ALL
+SELECT 'OPEN_INVOICES', 0, COUNT(*), 0 FROM invoices WHERE status IN ('OPEN', 'PROCESSING')
+UNION ALL
+SELECT 'PAID_INVOICES', 0, COUNT(*), 0 FROM invoices WHERE status = 'PAID'
+UNION ALL
+SELECT 'SUCCESSFUL_PAYMENTS', 0, COUNT(*), COALESCE(SUM(amount), 0) FROM payments WHERE status = 'SUCCESS'
+UNION ALL
+SELECT 'FAILED_PAYMENTS', 0, COUNT(*), 0 FROM payments WHERE status = 'FAILED';
+
+INSERT INTO dashboard_daily_rollups (rollup_date, metric, stripe, item_count, amount)
+SELECT CAST(created_at AS DATE), 'CUSTOMERS', 0, COUNT(*), 0 FROM customers
+GROUP BY CAST(created_at AS DATE)
+UNION ALL
+SELECT CAST(created_at AS DATE), 'SUBSCRIPTIONS', 0, COUNT(*), 0 FROM subscriptions
+GROUP BY CAST(created_at AS DATE)
+UNION ALL
+SELECT CAST(issued_at AS DATE), 'INVOICES', 0, COUNT(*), 0 FROM invoices
+GROUP BY CAST(issued_at AS DATE)
+UNION ALL
+SELECT CAST(paid_at AS DATE), 'SUCCESSFUL_PAYMENTS', 0, COUNT(*), SUM(amount) FROM payments
+WHERE status = 'SUCCESS' GROUP BY CAST(paid_at AS DATE)
+UNION ALL
+SELECT CAST(paid_at AS DATE), 'FAILED_PAYMENTS', 0, COUNT(*), 0 FROM payments
+WHERE status = 'FAILED' GROUP BY CAST(paid_at AS DATE);
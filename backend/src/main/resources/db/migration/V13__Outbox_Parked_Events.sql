@@ -0,0 +1,8 @@
+-- V13: Eventos de outbox estacionados
+-- Propósito: un evento que falla application.outbox.relay.max-attempts veces deja de reintentarse y queda con
+-- parked_at; el resto de su agregado espera detrás de él para no entregarse desordenado. Para reintentarlo,
+-- una vez corregida la causa: UPDATE outbox_events SET parked_at = NULL, attempts = 0 WHERE id = ...
+
+ALTER TABLE outbox_events ADD COLUMN parked_at TIMESTAMP;
+
+CREATE INDEX idx_outbox_events_parked ON outbox_events(aggregate_type, aggregate_id) WHERE parked_at IS NOT NULL;
@@ -0,0 +1,13 @@
+-- V14: Índices keyset por dueño
+-- Propósito: los listados filtran por cliente (a través de la suscripción o de la factura), así que los índices
+-- globales de V4 sobre (issued_at, id) y (paid_at, id) obligaban a recorrer las filas de todos los clientes.
+-- Los nuevos empiezan por la clave dueña: cada suscripción/factura del cliente se lee ya ordenada y el LIMIT
+-- corta el recorrido. También cubren las búsquedas por clave foránea, por lo que reemplazan a los de V1.
+
+CREATE INDEX idx_inv_subscription_issued_at_id ON invoices(subscription_id, issued_at DESC, id DESC);
+CREATE INDEX idx_pay_invoice_paid_at_id ON payments(invoice_id, paid_at DESC, id DESC);
+
+DROP INDEX idx_inv_issued_at_id;
+DROP INDEX idx_pay_paid_at_id;
+DROP INDEX idx_inv_subscription_id;
+DROP INDEX idx_pay_invoice_id;
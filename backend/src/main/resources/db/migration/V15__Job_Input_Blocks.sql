@@ -0,0 +1,18 @@
+-- V15: Entrada de los trabajos en la base
+-- Propósito: el archivo de conciliación se guardaba en un directorio local de la instancia que lo recibió, así
+-- que otra instancia no podía reanudar el trabajo. Ahora se guarda en bloques de líneas junto al trabajo; el
+-- procesamiento lee un bloque a la vez y los bloques se borran al completar el trabajo.
+
+CREATE TABLE job_input_blocks (
+    job_id BIGINT NOT NULL,
+    seq INTEGER NOT NULL,
+    first_line BIGINT NOT NULL,
+    content TEXT NOT NULL,
+
+    PRIMARY KEY (job_id, seq),
+
+    CONSTRAINT fk_job_input_blocks_job
+        FOREIGN KEY(job_id)
+        REFERENCES job_executions(id)
+        ON DELETE CASCADE
+);
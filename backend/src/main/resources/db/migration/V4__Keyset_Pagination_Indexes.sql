@@ -0,0 +1,7 @@
+-- V4: Índices para la paginación keyset de los listados
+-- Propósito: permitir recorrer (timestamp, id) en orden descendente sin ordenar en memoria
+
+CREATE INDEX idx_inv_issued_at_id ON invoices(issued_at DESC, id DESC);
+CREATE INDEX idx_pay_paid_at_id ON payments(paid_at DESC, id DESC);
+CREATE INDEX idx_sub_customer_created_at_id ON subscriptions(customer_id, created_at DESC, id DESC);
+CREATE INDEX idx_cust_created_at_id ON customers(created_at DESC, id DESC);
@@ -0,0 +1,4 @@
+-- V5: Índice para la corrida de facturación
+-- Propósito: recorrer las suscripciones ACTIVE vencidas por (next_billing_date, id) sin escanear la tabla
+
+CREATE INDEX idx_sub_status_next_billing_date_id ON subscriptions(status, next_billing_date, id);
@@ -0,0 +1,11 @@
+-- V6: Secuencias con incremento por bloques para los ids
+-- Propósito: Hibernate reserva 50 ids por llamada (optimizador pooled-lo) y puede agrupar los INSERT
+-- en batches JDBC, cosa que con IDENTITY desactiva. El incremento de cada secuencia es el tamaño del
+-- bloque: Hibernate y IdBlockAllocator lo toman de la base, así que para cambiarlo basta otra migración.
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE customers_id_seq INCREMENT BY 50;
+ALTER SEQUENCE plans_id_seq INCREMENT BY 50;
+ALTER SEQUENCE subscriptions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE invoices_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
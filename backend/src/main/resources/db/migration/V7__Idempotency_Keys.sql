@@ -0,0 +1,20 @@
+-- V7: Claves de idempotencia para pagos y renovaciones
+-- Propósito: que los reintentos de un request con el mismo Idempotency-Key repitan la respuesta
+-- guardada en lugar de volver a ejecutar la operación
+
+CREATE TABLE idempotency_keys (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    response_status INTEGER,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_idempotency_keys_user_key UNIQUE (user_id, idempotency_key)
+);
+
+ALTER SEQUENCE idempotency_keys_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
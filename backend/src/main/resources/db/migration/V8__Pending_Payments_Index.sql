@@ -0,0 +1,4 @@
+-- V8: Índice para el barrido de pagos pendientes
+-- Propósito: encontrar los pagos PENDING antiguos sin escanear la tabla; el índice parcial solo guarda los pagos en curso
+
+CREATE INDEX idx_payments_pending_paid_at ON payments(paid_at) WHERE status = 'PENDING';
@@ -0,0 +1,79 @@
+package com.kruger.kdevbill;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Los tests de integración corren sobre H2 con el esquema de Hibernate; este aplica las migraciones reales
+// sobre Postgres (los índices parciales de V8, V9 y V13 no existen en H2), de V1 hasta la última, con datos
+// cargados antes de las migraciones que los transforman. Sin Docker se omite.
+@Testcontainers(disabledWithoutDocker = true)
+class FlywayMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void migratesFromV1ToLatestWithExistingData() {
+        DataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        flyway(dataSource, MigrationVersion.fromVersion("1")).migrate();
+        // Un USER sin cliente (V2), una suscripción activa sin factura (V3) y una referencia repetida (V10)
+        jdbc.update("INSERT INTO users (username, email, password, role) VALUES " +
+                "('legacy-user', 'legacy-user@kdevbill.com', 'n/a', 'USER'), " +
+                "('legacy-owner', 'legacy-owner@kdevbill.com', 'n/a', 'USER')");
+        jdbc.update("INSERT INTO customers (name, email, user_id) " +
+                "SELECT 'Legacy Customer', 'legacy-owner@customers.kdevbill.com', id FROM users WHERE username = 'legacy-owner'");
+        jdbc.update("INSERT INTO plans (name, price, billing_cycle) VALUES ('Legacy plan', 10.00, 'MONTHLY')");
+        jdbc.update("INSERT INTO subscriptions (status, start_date, next_billing_date, customer_id, plan_id) " +
+                "SELECT 'ACTIVE', CURRENT_DATE, CURRENT_DATE + 30, c.id, p.id FROM customers c, plans p");
+        jdbc.update("INSERT INTO subscriptions (status, start_date, next_billing_date, customer_id, plan_id) " +
+                "SELECT 'CANCELED', CURRENT_DATE, NULL, c.id, p.id FROM customers c, plans p");
+        jdbc.update("INSERT INTO invoices (amount, status, due_date, subscription_id) " +
+                "SELECT 10.00, 'PAID', CURRENT_DATE, id FROM subscriptions WHERE status = 'CANCELED'");
+        jdbc.update("INSERT INTO payments (amount, method, status, reference, invoice_id) " +
+                "SELECT 10.00, 'CARD', s.status, 'PAY-LEGACY', i.id FROM invoices i, " +
+                "(VALUES ('FAILED'), ('SUCCESS')) AS s(status)");
+
+        Flyway flyway = flyway(dataSource, MigrationVersion.LATEST);
+        flyway.migrate();
+
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM customers c JOIN users u ON u.id = c.user_id " +
+                "WHERE u.username = 'legacy-user'", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM invoices i JOIN subscriptions s ON s.id = i.subscription_id " +
+                "WHERE s.status = 'ACTIVE'", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForList("SELECT reference FROM payments ORDER BY id", String.class))
+                .hasSize(2)
+                .doesNotHaveDuplicates()
+                .first().isEqualTo("PAY-LEGACY");
+        assertThat(jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class))
+                .contains("uk_payments_reference", "idx_payments_pending_paid_at", "idx_outbox_events_unpublished",
+                        "idx_outbox_events_parked", "idx_inv_subscription_issued_at_id", "idx_pay_invoice_paid_at_id")
+                .doesNotContain("idx_inv_issued_at_id", "idx_pay_paid_at_id");
+        // La carga inicial del dashboard cuenta lo que existía al migrar
+        assertThat(jdbc.queryForObject("SELECT SUM(item_count) FROM dashboard_counters WHERE metric = 'CUSTOMERS'",
+                Long.class)).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT SUM(item_count) FROM dashboard_counters WHERE metric = 'FAILED_PAYMENTS'",
+                Long.class)).isEqualTo(1);
+    }
+
+    private static Flyway flyway(DataSource dataSource, MigrationVersion target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .target(target)
+                .load();
+    }
+}
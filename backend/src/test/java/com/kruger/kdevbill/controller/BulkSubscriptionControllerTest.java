@@ -0,0 +1,143 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// El alta masiva crea suscripción y factura por cada fila válida y reporta el error de las demás. Como en el alta
+// individual, una fila sin customerId usa el customer del usuario (creado si falta); un ADMIN debe indicarlo.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkSubscriptionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private String token;
+    private Long customerId;
+    private Long otherCustomerId;
+    private Long planId;
+    private Long inactivePlanId;
+
+    @BeforeAll
+    void seed() {
+        User owner = fixture.user("bulk-owner", Role.USER);
+        User other = fixture.user("bulk-other", Role.USER);
+        customerId = fixture.customer(owner).getId();
+        otherCustomerId = fixture.customer(other).getId();
+        planId = fixture.plan("Bulk monthly", "15.00").getId();
+        inactivePlanId = fixture.plan("Bulk retired", "15.00", false).getId();
+        token = fixture.token(owner, customerId);
+    }
+
+    @Test
+    void createsValidRowsAndReportsTheRest() throws Exception {
+        String body = "[" +
+                row(customerId, planId) + "," +
+                row(customerId, planId) + "," +
+                row(customerId, 999_999L) + "," +
+                row(customerId, inactivePlanId) + "," +
+                row(otherCustomerId, planId) + "," +
+                row(null, planId) + "]";
+
+        mockMvc.perform(post("/subscriptions/bulk")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(6))
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.rows[0].created").value(true))
+                .andExpect(jsonPath("$.rows[2].error").value("Plan not found with id: 999999"))
+                .andExpect(jsonPath("$.rows[3].error").value("Cannot subscribe to an inactive plan"))
+                .andExpect(jsonPath("$.rows[4].error").value("You do not have permission to create subscriptions for this customer"))
+                .andExpect(jsonPath("$.rows[5].created").value(true))
+                .andExpect(jsonPath("$.rows[5].customerId").value(customerId));
+    }
+
+    @Test
+    void createsTheCallersCustomerOnceForRowsWithoutCustomerId() throws Exception {
+        User newcomer = fixture.user("bulk-newcomer", Role.USER);
+        String newcomerToken = fixture.token(newcomer, null);
+        String body = "[" + row(null, planId) + "," + row(null, planId) + "," + row(null, inactivePlanId) + "]";
+
+        mockMvc.perform(post("/subscriptions/bulk")
+                        .header("Authorization", "Bearer " + newcomerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rows[2].error").value("Cannot subscribe to an inactive plan"));
+
+        Long newcomerCustomerId = customerRepository.findIdByOwnerId(newcomer.getId()).orElseThrow();
+        assertThat(invoiceRepository.findBySubscription_CustomerId(newcomerCustomerId)).hasSize(2);
+    }
+
+    @Test
+    void adminRowsStillRequireCustomerId() throws Exception {
+        String adminToken = fixture.token(fixture.user("bulk-admin", Role.ADMIN), null);
+
+        mockMvc.perform(post("/subscriptions/bulk")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + row(null, planId) + "," + row(otherCustomerId, planId) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].error").value("customerId is required"));
+    }
+
+    @Test
+    void acceptsCsvUploadWithHeader() throws Exception {
+        int invoicesBefore = invoiceRepository.findBySubscription_CustomerId(customerId).size();
+        String csv = "planId,customerId\n" +
+                planId + "," + customerId + "\n" +
+                "abc," + customerId + "\n" +
+                planId + "," + customerId + "\n";
+        MockMultipartFile file = new MockMultipartFile("file", "subscriptions.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/subscriptions/bulk").file(file)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rows[1].created").value(false))
+                .andExpect(jsonPath("$.rows[2].subscriptionId").isNumber());
+
+        assertThat(invoiceRepository.findBySubscription_CustomerId(customerId)).hasSize(invoicesBefore + 2);
+    }
+
+    private static String row(Long customerId, Long planId) {
+        return "{\"customerId\":" + customerId + ",\"planId\":" + planId + "}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// El claim de customer del token es un atajo: sin claim se busca en la caché o la base, y un claim emitido
+// antes de que cambie el vínculo del usuario deja de usarse.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class CustomerClaimTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BillingFixture fixture;
+
+    @Test
+    void claimlessTokenFindsCustomerCreatedAfterLogin() throws Exception {
+        User owner = fixture.user("claim-late-owner", Role.USER);
+        String token = fixture.token(owner, null);
+
+        createCustomer(owner, "claim-late-owner@customers.test");
+
+        mockMvc.perform(get("/customers/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("claim-late-owner@customers.test"));
+    }
+
+    @Test
+    void claimIssuedBeforeTheLinkChangedIsIgnored() throws Exception {
+        User owner = fixture.user("claim-stale-owner", Role.USER);
+        Customer other = fixture.customer(fixture.user("claim-stale-other", Role.USER));
+        String staleToken = fixture.token(owner, other.getId());
+
+        createCustomer(owner, "claim-stale-owner@customers.test");
+
+        mockMvc.perform(get("/customers/me").header("Authorization", "Bearer " + staleToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("claim-stale-owner@customers.test"));
+    }
+
+    private void createCustomer(User owner, String email) throws Exception {
+        String adminToken = fixture.token(fixture.user(owner.getUsername() + "-admin", Role.ADMIN), null);
+        mockMvc.perform(post("/customers")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + owner.getUsername() + "\",\"email\":\"" + email +
+                                "\",\"userId\":" + owner.getId() + "}"))
+                .andExpect(status().isCreated());
+    }
+}
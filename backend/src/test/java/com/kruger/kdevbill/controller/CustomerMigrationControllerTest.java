@@ -0,0 +1,104 @@
+package com.kruger.kdevbill.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// La migración crea los customers faltantes por rangos de id y una segunda ejecución no crea nada más.
+// Conserva @DirtiesContext: la migración recorre todos los usuarios de la base y no solo los de este test.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+@Import(BillingFixture.class)
+@TestPropertySource(properties = "application.customers.migration.chunk-size=2")
+class CustomerMigrationControllerTest {
+
+    // Incremento de customers_id_seq
+    private static final long ID_BLOCK_SIZE = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void createsMissingCustomersAndIsSafeToRerun() throws Exception {
+        String token = fixture.token(fixture.user("migration-admin", Role.ADMIN), null);
+        List<User> legacyUsers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            legacyUsers.add(fixture.user("migration-legacy-" + i, Role.USER));
+        }
+        User conflicting = fixture.user("migration-conflict", Role.USER);
+        // Otro customer ya usa el email del usuario en conflicto
+        fixture.customer(fixture.user("migration-taken", Role.USER), conflicting.getEmail());
+
+        JsonNode first = awaitJobFinished(startMigration(token), token);
+        assertThat(first.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(first.get("succeededItems").asLong()).isGreaterThanOrEqualTo(legacyUsers.size());
+        assertThat(first.get("failedItems").asLong()).isGreaterThanOrEqualTo(1);
+        Set<Long> idBlocks = new HashSet<>();
+        for (User user : legacyUsers) {
+            Long customerId = customerRepository.findIdByOwnerId(user.getId()).orElseThrow();
+            idBlocks.add((customerId - 1) / ID_BLOCK_SIZE);
+        }
+        // Los customers de un mismo rango comparten el bloque reservado en vez de consumir uno cada uno
+        assertThat(idBlocks).hasSizeLessThan(legacyUsers.size());
+        assertThat(customerRepository.findIdByOwnerId(conflicting.getId())).isEmpty();
+
+        JsonNode second = awaitJobFinished(startMigration(token), token);
+        assertThat(second.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(second.get("succeededItems").asLong()).isZero();
+        assertThat(second.get("processedItems").asLong()).isEqualTo(first.get("processedItems").asLong());
+    }
+
+    private long startMigration(String token) throws Exception {
+        String body = mockMvc.perform(post("/auth/admin/migrate-customers")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private JsonNode awaitJobFinished(long jobId, String token) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            String body = mockMvc.perform(get("/auth/admin/migrate-customers/{id}", jobId)
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            String status = job.get("status").asText();
+            if (status.equals("COMPLETED") || status.equals("FAILED") || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
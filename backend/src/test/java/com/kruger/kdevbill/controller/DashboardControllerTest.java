@@ -0,0 +1,160 @@
+package com.kruger.kdevbill.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.service.payment.impl.PaymentResultApplier;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Los contadores avanzan con cada alta y cambio de estado, y el recálculo completo llega a los mismos valores,
+// también en las filas diarias, que se asignan por la fecha del evento.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class DashboardControllerTest {
+
+    private static final List<String> COUNTERS = List.of("totalCustomers", "totalSubscriptions",
+            "totalActiveSubscriptions", "totalInvoices", "openInvoices", "paidInvoices", "successfulPayments",
+            "failedPayments");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private PaymentResultApplier paymentResultApplier;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void countersFollowWritesAndMatchRebuild() throws Exception {
+        User admin = fixture.user("dashboard-admin", Role.ADMIN);
+        User owner = fixture.user("dashboard-owner", Role.USER);
+        Long customerId = fixture.customer(owner).getId();
+        Long planId = fixture.plan("Dashboard monthly", "25.00").getId();
+        String adminToken = fixture.token(admin, null);
+        String ownerToken = fixture.token(owner, customerId);
+
+        JsonNode before = stats(post("/dashboard/rebuild"), adminToken);
+
+        String created = mockMvc.perform(post("/subscriptions")
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\":" + customerId + ",\"planId\":" + planId + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long subscriptionId = objectMapper.readTree(created).get("id").asLong();
+
+        JsonNode afterCreate = stats(get("/dashboard/stats"), adminToken);
+        assertThat(delta(before, afterCreate, "totalSubscriptions")).isEqualTo(1);
+        assertThat(delta(before, afterCreate, "totalActiveSubscriptions")).isEqualTo(1);
+        assertThat(delta(before, afterCreate, "totalInvoices")).isEqualTo(1);
+        assertThat(delta(before, afterCreate, "openInvoices")).isEqualTo(1);
+
+        mockMvc.perform(put("/subscriptions/" + subscriptionId)
+                        .header("Authorization", "Bearer " + ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"CANCELED\"}"))
+                .andExpect(status().isOk());
+
+        JsonNode afterCancel = stats(get("/dashboard/stats"), adminToken);
+        assertThat(delta(before, afterCancel, "totalActiveSubscriptions")).isZero();
+        JsonNode rebuilt = stats(post("/dashboard/rebuild"), adminToken);
+        for (String field : COUNTERS) {
+            assertThat(rebuilt.get(field).asLong()).as(field).isEqualTo(afterCancel.get(field).asLong());
+        }
+
+        mockMvc.perform(get("/dashboard/charts").param("period", "week")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.points.length()").value(7))
+                .andExpect(jsonPath("$.points[6].newSubscriptions").value(greaterThanOrEqualTo(1)));
+        mockMvc.perform(get("/dashboard/stats").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void recoveredPaymentMovesBetweenRollupsOfTheDayItWasPaid() throws Exception {
+        String adminToken = fixture.token(fixture.user("dashboard-recovery-admin", Role.ADMIN), null);
+        Subscription subscription = fixture.subscription(
+                fixture.customer(fixture.user("dashboard-recovery-owner", Role.USER)),
+                fixture.plan("Dashboard recovery", "30.00"));
+        Invoice invoice = fixture.invoice(subscription, InvoiceStatus.OPEN);
+        Payment payment = fixture.payment(invoice, "PAY-DASH-RECOVER", PaymentStatus.FAILED);
+        // Rechazado hace unos días y confirmado hoy por el banco
+        LocalDate paidOn = LocalDate.now().minusDays(3);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("UPDATE payments SET paid_at = ? WHERE id = ?", Timestamp.valueOf(paidOn.atTime(12, 0)),
+                payment.getId());
+        stats(post("/dashboard/rebuild"), adminToken);
+        Map<String, Long> before = dailyCounts(jdbc, paidOn);
+
+        assertThat(paymentResultApplier.settle(payment.getId(), invoice.getId(), PaymentStatus.FAILED))
+                .isEqualTo(PaymentResultApplier.Settlement.PAID);
+
+        Map<String, Long> after = dailyCounts(jdbc, paidOn);
+        assertThat(after.getOrDefault("FAILED_PAYMENTS", 0L) - before.getOrDefault("FAILED_PAYMENTS", 0L))
+                .isEqualTo(-1);
+        assertThat(after.getOrDefault("SUCCESSFUL_PAYMENTS", 0L) - before.getOrDefault("SUCCESSFUL_PAYMENTS", 0L))
+                .isEqualTo(1);
+        stats(post("/dashboard/rebuild"), adminToken);
+        assertThat(dailyCounts(jdbc, paidOn)).isEqualTo(after);
+    }
+
+    // Filas en cero excluidas: la reconstrucción no las crea
+    private static Map<String, Long> dailyCounts(JdbcTemplate jdbc, LocalDate day) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbc.query("SELECT metric, SUM(item_count) FROM dashboard_daily_rollups WHERE rollup_date = ? " +
+                        "GROUP BY metric HAVING SUM(item_count) <> 0",
+                rs -> {
+                    counts.put(rs.getString(1), rs.getLong(2));
+                }, Date.valueOf(day));
+        return counts;
+    }
+
+    private JsonNode stats(MockHttpServletRequestBuilder request, String token) throws Exception {
+        String body = mockMvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static long delta(JsonNode before, JsonNode after, String field) {
+        return after.get(field).asLong() - before.get(field).asLong();
+    }
+}
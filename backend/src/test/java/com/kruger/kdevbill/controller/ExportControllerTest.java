@@ -0,0 +1,84 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// La exportación se escribe en un hilo aparte y termina con un dispatch ASYNC que no pasa por el filtro JWT:
+// la autenticación del request original tiene que seguir vigente en ese dispatch.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportControllerTest {
+
+    private static final int INVOICES = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BillingFixture fixture;
+
+    private String adminToken;
+    private String ownerToken;
+
+    @BeforeAll
+    void seed() {
+        fixture.reset();
+        User owner = fixture.user("export-owner", Role.USER);
+        Subscription subscription = fixture.subscription(fixture.customer(owner), fixture.plan("Export plan", "9.00"));
+        for (int i = 0; i < INVOICES; i++) {
+            fixture.invoice(subscription, InvoiceStatus.OPEN);
+        }
+        adminToken = fixture.token(fixture.user("export-admin", Role.ADMIN), null);
+        ownerToken = fixture.token(owner, subscription.getCustomer().getId());
+    }
+
+    @Test
+    void adminStreamsExportThroughAsyncDispatch() throws Exception {
+        MvcResult started = mockMvc.perform(get("/admin/exports/invoices")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(INVOICES);
+    }
+
+    @Test
+    void missingOrInvalidTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/admin/exports/invoices"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/admin/exports/invoices").header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void nonAdminIsForbidden() throws Exception {
+        mockMvc.perform(get("/admin/exports/invoices").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,90 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ningún listado devuelve todas las filas: sin parámetros se pagina con max-size y el resto se sigue por cursor.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class InvoicePaginationTest {
+
+    // application.pagination.max-size
+    private static final int MAX_SIZE = 200;
+    // Más que el tamaño máximo de página
+    private static final int INVOICES = MAX_SIZE + 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BillingFixture fixture;
+
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        User owner = fixture.user("pagination-owner", Role.USER);
+        Customer customer = fixture.customer(owner);
+        Subscription subscription = fixture.subscription(customer, fixture.plan("Pagination plan", "5.00"));
+        for (int i = 0; i < INVOICES; i++) {
+            fixture.invoice(subscription, InvoiceStatus.PAID);
+        }
+        token = fixture.token(owner, customer.getId());
+    }
+
+    @Test
+    void withoutPagingParametersReturnsFirstPageAtMaxSize() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/invoices").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(MAX_SIZE))
+                .andReturn().getResponse();
+        String cursor = first.getHeader(PageResponses.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotBlank();
+
+        mockMvc.perform(get("/invoices").param("cursor", cursor)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageResponses.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(INVOICES - MAX_SIZE));
+    }
+
+    @Test
+    void withSizeWalksPagesByCursor() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/invoices").param("size", "25")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(25))
+                .andReturn().getResponse();
+        String cursor = first.getHeader(PageResponses.NEXT_CURSOR_HEADER);
+        assertThat(cursor).isNotBlank();
+
+        // Solo con el cursor: el tamaño vuelve al máximo, que alcanza para el resto
+        mockMvc.perform(get("/invoices").param("cursor", cursor)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageResponses.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(INVOICES - 25));
+    }
+}
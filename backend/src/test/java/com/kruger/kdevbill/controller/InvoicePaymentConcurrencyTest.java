@@ -0,0 +1,108 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.repository.PaymentRepository;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Muchos reintentos simultáneos sobre la misma factura: exactamente un pago aceptado, el resto recibe 409,
+// y la pasarela asíncrona termina dejando la factura PAID.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class InvoicePaymentConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void onlyOneConcurrentPaymentWins() throws Exception {
+        User owner = fixture.user("concurrent-payer", Role.USER);
+        Customer customer = fixture.customer(owner);
+        Invoice invoice = fixture.invoice(
+                fixture.subscription(customer, fixture.plan("Concurrent plan", "29.99")), InvoiceStatus.OPEN);
+        String token = fixture.token(owner, customer.getId());
+
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Void> attempt = () -> {
+                    start.await();
+                    for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                        int status = mockMvc.perform(post("/invoices/{id}/pay", invoice.getId())
+                                        .header("Authorization", "Bearer " + token))
+                                .andReturn().getResponse().getStatus();
+                        statuses.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(attempt));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(statuses.keySet()).containsOnly(202, 409);
+        assertThat(statuses.get(202).get()).isEqualTo(1);
+        assertThat(statuses.get(409).get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - 1);
+        assertThat(paymentRepository.findByInvoice_Subscription_CustomerId(customer.getId())).hasSize(1);
+        assertThat(awaitInvoiceStatus(invoice.getId(), InvoiceStatus.PAID)).isEqualTo(InvoiceStatus.PAID);
+        assertThat(paymentRepository.findByInvoice_Subscription_CustomerId(customer.getId()))
+                .extracting(Payment::getStatus).containsExactly(PaymentStatus.SUCCESS);
+    }
+
+    private InvoiceStatus awaitInvoiceStatus(Long invoiceId, InvoiceStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        InvoiceStatus status = invoiceRepository.findById(invoiceId).orElseThrow().getStatus();
+        while (status != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = invoiceRepository.findById(invoiceId).orElseThrow().getStatus();
+        }
+        return status;
+    }
+}
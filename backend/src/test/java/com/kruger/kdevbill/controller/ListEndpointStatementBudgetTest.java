@@ -0,0 +1,105 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.support.BillingFixture;
+import com.kruger.kdevbill.support.QueryBudget;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Los listados deben resolverse con un número fijo de sentencias, sin importar cuántas filas devuelvan.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListEndpointStatementBudgetTest {
+
+    private static final int ROWS = 20;
+    // Solo la consulta de la página: el customer sale del token o de la caché de CustomerResolver
+    private static final long STATEMENT_BUDGET = 1;
+
+    @RegisterExtension
+    final QueryBudget queryBudget = new QueryBudget();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BillingFixture fixture;
+
+    private String userToken;
+    private String claimlessUserToken;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        // El listado de customers cuenta filas globales: se parte de una base vacía aunque el contexto sea compartido
+        fixture.reset();
+        User admin = fixture.user("budget-admin", Role.ADMIN);
+        adminToken = fixture.token(admin, null);
+
+        User owner = fixture.user("budget-user", Role.USER);
+        Customer customer = fixture.customer(owner);
+        userToken = fixture.token(owner, customer.getId());
+        // Token emitido antes de que el usuario tuviera customer: sin claim de customer
+        claimlessUserToken = fixture.token(owner, null);
+
+        for (int i = 0; i < ROWS; i++) {
+            fixture.customer(fixture.user("budget-user-" + i, Role.USER));
+            Invoice invoice = fixture.invoice(
+                    fixture.subscription(customer, fixture.plan("Budget plan " + i, "9.99")), InvoiceStatus.PAID);
+            fixture.payment(invoice, "BUDGET-" + i, PaymentStatus.SUCCESS);
+        }
+    }
+
+    @Test
+    void myInvoicesStayWithinBudget() throws Throwable {
+        assertListWithinBudget("/invoices", userToken, ROWS);
+    }
+
+    @Test
+    void myPaymentsStayWithinBudget() throws Throwable {
+        assertListWithinBudget("/payments", userToken, ROWS);
+    }
+
+    @Test
+    void mySubscriptionsStayWithinBudget() throws Throwable {
+        assertListWithinBudget("/subscriptions", userToken, ROWS);
+    }
+
+    @Test
+    void claimlessTokenResolvesCustomerFromCacheAfterFirstRequest() throws Throwable {
+        mockMvc.perform(get("/invoices").header("Authorization", "Bearer " + claimlessUserToken))
+                .andExpect(status().isOk());
+        assertListWithinBudget("/invoices", claimlessUserToken, ROWS);
+    }
+
+    @Test
+    void allCustomersStayWithinBudget() throws Throwable {
+        // El listado de administración no necesita resolver un customer
+        assertListWithinBudget("/customers", adminToken, ROWS + 1);
+    }
+
+    private void assertListWithinBudget(String path, String token, int expectedRows) throws Throwable {
+        queryBudget.assertAtMost(STATEMENT_BUDGET, () -> mockMvc.perform(get(path)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expectedRows)));
+    }
+}
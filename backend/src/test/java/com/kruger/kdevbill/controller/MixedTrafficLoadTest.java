@@ -0,0 +1,233 @@
+package com.kruger.kdevbill.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.repository.UserRepository;
+import com.kruger.kdevbill.security.JwtService;
+import com.kruger.kdevbill.service.dashboard.DashboardService;
+import com.kruger.kdevbill.service.datagen.SyntheticDataGenerator;
+import com.kruger.kdevbill.service.idempotency.IdempotencyService;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import com.kruger.kdevbill.support.LoadReport;
+import com.kruger.kdevbill.support.LoadRequest;
+import com.kruger.kdevbill.support.OpenLoopDriver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Se ejecuta con ./gradlew loadTest: levanta la aplicación sobre H2 con datos sintéticos, genera tráfico mixto a
+// tasa fija contra el puerto real (filtro JWT, servicios y base incluidos) y deja el reporte por endpoint en el
+// log y en build/reports/load-test/summary.json.
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DirtiesContext
+class MixedTrafficLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MixedTrafficLoadTest.class);
+
+    private static final int RATE = Integer.getInteger("load.rate", 100);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 60);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 10);
+    private static final int CUSTOMERS = Integer.getInteger("load.customers", 2000);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    private static final int USER_POOL = 500;
+    private static final int MAX_IN_FLIGHT = 1000;
+    private static final String PASSWORD = "datagen";
+
+    private static final String LOGIN = "POST /auth/login";
+    private static final String LIST_INVOICES = "GET /invoices";
+    private static final String LIST_SUBSCRIPTIONS = "GET /subscriptions";
+    private static final String PAY_INVOICE = "POST /invoices/{id}/pay";
+    private static final String RENEW_SUBSCRIPTION = "POST /subscriptions/{id}/renew";
+
+    @LocalServerPort
+    private int port;
+    @Value("${server.servlet.context-path}")
+    private String contextPath;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+    @Autowired
+    private BillingHelper billingHelper;
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<String> usernames = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    // Suscripciones como pares {índice de usuario, id}
+    private final List<long[]> subscriptions = new ArrayList<>();
+    private final Queue<long[]> openInvoices = new ConcurrentLinkedQueue<>();
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void mixedTrafficStaysWithinErrorBudget() throws Exception {
+        seed();
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(32);
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(httpExecutor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            log.info("Load test: {} req/s for {} s after {} s of warmup against port {}",
+                    RATE, DURATION_SECONDS, WARMUP_SECONDS, port);
+            LoadReport report = new OpenLoopDriver(client, RATE, Duration.ofSeconds(WARMUP_SECONDS),
+                    Duration.ofSeconds(DURATION_SECONDS), MAX_IN_FLIGHT).run(this::nextRequest);
+
+            log.info("Load test results ({} req/s target, {} s):\n{}", RATE, DURATION_SECONDS, report.format());
+            writeSummary(report);
+            for (String endpoint : List.of(LOGIN, LIST_INVOICES, LIST_SUBSCRIPTIONS, PAY_INVOICE, RENEW_SUBSCRIPTION)) {
+                assertThat(report.getRequests(endpoint)).as("requests to %s", endpoint).isPositive();
+                assertThat(report.getErrorRate(endpoint)).as("error rate of %s", endpoint).isLessThanOrEqualTo(MAX_ERROR_RATE);
+            }
+        } finally {
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    private void seed() {
+        new SyntheticDataGenerator(dataSource, transactionManager, passwordEncoder, idBlockAllocator, billingHelper,
+                dashboardService, 42L, CUSTOMERS, 20, CUSTOMERS * 3 / 2, 12, 2.0, 0.25, 0.9, 0.05, 4, 1000,
+                PASSWORD, LocalDate.now().toString()).generate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Map<Long, Integer> userByCustomer = new HashMap<>();
+        jdbc.query("SELECT u.username, c.id FROM users u JOIN customers c ON c.user_id = u.id " +
+                "WHERE EXISTS (SELECT 1 FROM subscriptions s WHERE s.customer_id = c.id) ORDER BY c.id LIMIT ?", rs -> {
+            String username = rs.getString(1);
+            long customerId = rs.getLong(2);
+            User user = userRepository.findByUsername(username).orElseThrow();
+            userByCustomer.put(customerId, usernames.size());
+            usernames.add(username);
+            // Tokens emitidos en proceso: un login por usuario del pool costaría un hash BCrypt cada uno
+            tokens.add(jwtService.generateToken(user, customerId));
+        }, USER_POOL);
+        jdbc.query("SELECT s.id, s.customer_id FROM subscriptions s ORDER BY s.id", rs -> {
+            Integer user = userByCustomer.get(rs.getLong(2));
+            if (user != null) {
+                subscriptions.add(new long[]{user, rs.getLong(1)});
+            }
+        });
+        jdbc.query("SELECT i.id, s.customer_id FROM invoices i JOIN subscriptions s ON s.id = i.subscription_id " +
+                "WHERE i.status = 'OPEN' ORDER BY i.id", rs -> {
+            Integer user = userByCustomer.get(rs.getLong(2));
+            if (user != null) {
+                openInvoices.add(new long[]{user, rs.getLong(1)});
+            }
+        });
+        log.info("Load test pool: {} users, {} subscriptions, {} open invoices",
+                usernames.size(), subscriptions.size(), openInvoices.size());
+    }
+
+    // Mezcla: 30% facturas, 30% suscripciones, 15% pagos, 15% renovaciones y 10% logins. Las facturas que
+    // genera cada renovación pasan a la cola de facturas por pagar.
+    private LoadRequest nextRequest() {
+        int draw = random.nextInt(100);
+        int user = random.nextInt(usernames.size());
+        if (draw < 30) {
+            return new LoadRequest(LIST_INVOICES, authorized("/invoices", user).GET().build());
+        }
+        if (draw < 60) {
+            return new LoadRequest(LIST_SUBSCRIPTIONS, authorized("/subscriptions", user).GET().build());
+        }
+        if (draw < 75) {
+            long[] invoice = openInvoices.poll();
+            if (invoice != null) {
+                return new LoadRequest(PAY_INVOICE, authorized("/invoices/" + invoice[1] + "/pay", (int) invoice[0])
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build());
+            }
+        }
+        if (draw < 90) {
+            long[] subscription = subscriptions.get(random.nextInt(subscriptions.size()));
+            int owner = (int) subscription[0];
+            return new LoadRequest(RENEW_SUBSCRIPTION, authorized("/subscriptions/" + subscription[1] + "/renew", owner)
+                    .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString())
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build(),
+                    body -> openInvoices.add(new long[]{owner, invoiceId(body)}));
+        }
+        String credentials = "{\"username\":\"" + usernames.get(user) + "\",\"password\":\"" + PASSWORD + "\"}";
+        return new LoadRequest(LOGIN, request("/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build());
+    }
+
+    private HttpRequest.Builder authorized(String path, int user) {
+        return request(path).header("Authorization", "Bearer " + tokens.get(user));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + contextPath + path))
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private long invoiceId(String body) {
+        try {
+            return objectMapper.readTree(body).get("id").asLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeSummary(LoadReport report) throws IOException {
+        Path summary = Path.of("build", "reports", "load-test", "summary.json");
+        Files.createDirectories(summary.getParent());
+        Map<String, Object> run = new HashMap<>();
+        run.put("rate", RATE);
+        run.put("durationSeconds", DURATION_SECONDS);
+        run.put("warmupSeconds", WARMUP_SECONDS);
+        run.put("customers", CUSTOMERS);
+        run.put("endpoints", report.summary());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(summary.toFile(), run);
+        log.info("Load test summary written to {}", summary.toAbsolutePath());
+    }
+}
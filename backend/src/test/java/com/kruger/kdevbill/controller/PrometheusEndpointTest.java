@@ -0,0 +1,92 @@
+package com.kruger.kdevbill.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.repository.UserRepository;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Registro, login, alta y pago quedan medidos y se exportan en formato Prometheus junto con Hikari e Hibernate.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Test
+    void exportsHotPathMeters() throws Exception {
+        Long planId = fixture.plan("Metrics monthly", "30.00").getId();
+        String credentials = "{\"username\":\"metrics-user\",\"password\":\"metrics-secret\"}";
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"metrics-user\",\"email\":\"metrics-user@kdevbill.com\"," +
+                                "\"password\":\"metrics-secret\"}"))
+                .andExpect(status().is2xxSuccessful());
+        String login = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(login).get("token").asText();
+
+        Long customerId = customerRepository.findIdByOwnerId(
+                userRepository.findByUsername("metrics-user").orElseThrow().getId()).orElseThrow();
+        mockMvc.perform(post("/subscriptions")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerId\":" + customerId + ",\"planId\":" + planId + "}"))
+                .andExpect(status().isCreated());
+        Long invoiceId = invoiceRepository.findBySubscription_CustomerId(customerId).get(0).getId();
+        mockMvc.perform(post("/invoices/" + invoiceId + "/pay").header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful());
+        mockMvc.perform(post("/invoices/" + invoiceId + "/pay").header("Authorization", "Bearer " + token))
+                .andExpect(status().isConflict());
+
+        String adminToken = fixture.token(fixture.user("metrics-admin", Role.ADMIN), null);
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape).contains(
+                "kdevbill_subscriptions_create_seconds_bucket",
+                "kdevbill_invoices_pay_seconds_count",
+                "outcome=\"conflict\"",
+                "kdevbill_auth_password_encode_seconds_count",
+                "kdevbill_auth_password_check_seconds_count",
+                "kdevbill_auth_tokens_generate_seconds_count",
+                "kdevbill_auth_tokens_verify_seconds_count",
+                "kdevbill_customers_resolve_seconds_count",
+                "hikaricp_connections_acquire_seconds_bucket",
+                "hibernate_sessions_open_total");
+    }
+}
@@ -0,0 +1,63 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.UserRepository;
+import com.kruger.kdevbill.security.JwtService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Con los headers activados, la respuesta informa las sentencias del request y el endpoint acumula métricas.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+@TestPropertySource(properties = "application.query-stats.headers=true")
+class QueryStatsHeaderTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void reportsStatementsInHeadersAndMetrics() throws Exception {
+        User admin = userRepository.save(User.builder()
+                .username("query-stats-admin")
+                .email("query-stats-admin@kdevbill.com")
+                .password("n/a")
+                .role(Role.ADMIN)
+                .build());
+        String token = jwtService.generateToken(admin, null);
+
+        mockMvc.perform(get("/customers").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryStatsHeaderAdvice.QUERY_COUNT_HEADER, "1"))
+                .andExpect(header().exists(QueryStatsHeaderAdvice.QUERY_TIME_HEADER));
+
+        DistributionSummary statements = meterRegistry.find("jdbc.request.statements")
+                .tags("method", "GET", "uri", "/customers")
+                .summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.find("jdbc.request.time").tags("uri", "/customers").timer()).isNotNull();
+    }
+}
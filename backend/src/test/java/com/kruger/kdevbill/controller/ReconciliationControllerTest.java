@@ -0,0 +1,173 @@
+package com.kruger.kdevbill.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.repository.PaymentRepository;
+import com.kruger.kdevbill.repository.SubscriptionRepository;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// La conciliación liquida los pagos encontrados por referencia y deja registradas las líneas que no coinciden;
+// un pago rechazado solo se recupera si su factura no tiene otro pago en curso o exitoso.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class ReconciliationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Test
+    void settlesMatchedPaymentsAndReportsUnmatchedLines() throws Exception {
+        User admin = fixture.user("reconciliation-admin", Role.ADMIN);
+        Customer customer = fixture.customer(fixture.user("reconciliation-owner", Role.USER));
+        Subscription subscription = fixture.subscription(customer, fixture.plan("Reconciliation plan", "20.00"));
+        Invoice pending = fixture.invoice(subscription, InvoiceStatus.PROCESSING);
+        Invoice other = fixture.invoice(subscription, InvoiceStatus.OPEN);
+        Payment pendingPayment = fixture.payment(pending, "PAY-RECON-1", PaymentStatus.PENDING);
+        fixture.payment(other, "PAY-RECON-2", PaymentStatus.PENDING);
+        String token = fixture.token(admin, null);
+
+        String csv = "reference,amount\n" +
+                "PAY-RECON-1,20.00\n" +
+                "PAY-UNKNOWN,5.00\n" +
+                "PAY-RECON-2,19.99\n";
+        MockMultipartFile file = new MockMultipartFile("file", "settlement.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        String body = mockMvc.perform(multipart("/admin/reconciliations").file(file)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        long jobId = objectMapper.readTree(body).get("id").asLong();
+
+        JsonNode job = awaitJobFinished(jobId, token);
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.get("processedItems").asLong()).isEqualTo(3);
+        assertThat(job.get("succeededItems").asLong()).isEqualTo(1);
+        assertThat(job.get("failedItems").asLong()).isEqualTo(2);
+
+        assertThat(paymentRepository.findById(pendingPayment.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(invoiceRepository.findById(pending.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.PAID);
+        assertThat(invoiceRepository.findById(other.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.OPEN);
+
+        mockMvc.perform(get("/admin/reconciliations/{id}/unmatched", jobId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].lineNumber").value(3))
+                .andExpect(jsonPath("$[0].reason").value("Unknown reference"))
+                .andExpect(jsonPath("$[1].reference").value("PAY-RECON-2"));
+
+        mockMvc.perform(post("/admin/reconciliations/{id}/resume", jobId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void recoversFailedPaymentOnlyWhenInvoiceHasNoOtherActivePayment() throws Exception {
+        User admin = fixture.user("recovery-admin", Role.ADMIN);
+        Customer customer = fixture.customer(fixture.user("recovery-owner", Role.USER));
+        // Vence hoy, como espera la liquidación de una factura con vencimiento a siete días
+        Subscription subscription = fixture.subscription(customer, fixture.plan("Recovery plan", "15.00"), LocalDate.now());
+        Invoice declined = fixture.invoice(subscription, InvoiceStatus.OPEN);
+        Payment declinedPayment = fixture.payment(declined, "PAY-RECOVER-1", PaymentStatus.FAILED);
+        // Rechazado y luego reintentado: el reintento sigue en la pasarela
+        Invoice retried = fixture.invoice(subscription, InvoiceStatus.PROCESSING);
+        Payment retriedFailed = fixture.payment(retried, "PAY-RECOVER-2", PaymentStatus.FAILED);
+        fixture.payment(retried, "PAY-RECOVER-3", PaymentStatus.PENDING);
+        String token = fixture.token(admin, null);
+
+        String csv = "PAY-RECOVER-1,15.00\n" +
+                "PAY-RECOVER-2,15.00\n";
+        MockMultipartFile file = new MockMultipartFile("file", "recovery.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        String body = mockMvc.perform(multipart("/admin/reconciliations").file(file)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        long jobId = objectMapper.readTree(body).get("id").asLong();
+
+        JsonNode job = awaitJobFinished(jobId, token);
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.get("totalItems").asLong()).isEqualTo(2);
+        assertThat(job.get("succeededItems").asLong()).isEqualTo(1);
+        assertThat(job.get("failedItems").asLong()).isEqualTo(1);
+
+        assertThat(paymentRepository.findById(declinedPayment.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(invoiceRepository.findById(declined.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.PAID);
+        assertThat(subscriptionRepository.findById(subscription.getId()).orElseThrow().getNextBillingDate())
+                .isAfter(LocalDate.now());
+
+        assertThat(paymentRepository.findById(retriedFailed.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.FAILED);
+        assertThat(invoiceRepository.findById(retried.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.PROCESSING);
+
+        mockMvc.perform(get("/admin/reconciliations/{id}/unmatched", jobId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].reference").value("PAY-RECOVER-2"))
+                .andExpect(jsonPath("$[0].reason").value("Invoice already has a pending or successful payment"));
+    }
+
+    private JsonNode awaitJobFinished(long jobId, String token) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            String body = mockMvc.perform(get("/admin/reconciliations/{id}", jobId)
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            String status = job.get("status").asText();
+            if (status.equals("COMPLETED") || status.equals("FAILED") || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.kruger.kdevbill.controller;
+
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.repository.PlanRepository;
+import com.kruger.kdevbill.support.BillingFixture;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Una vez cargados, usuarios, customers y planes se sirven desde el caché de segundo nivel sin SQL.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheTest {
+
+    private static final String PASSWORD = "cache-secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private PlanRepository planRepository;
+
+    private User owner;
+    private Long customerId;
+    private Long planId;
+    private String ownerToken;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        owner = fixture.user("cache-owner", Role.USER, passwordEncoder.encode(PASSWORD));
+        User admin = fixture.user("cache-admin", Role.ADMIN);
+        customerId = fixture.customer(owner).getId();
+        planId = fixture.plan("Cache monthly", "12.00").getId();
+        ownerToken = fixture.token(owner, customerId);
+        adminToken = fixture.token(admin, null);
+    }
+
+    @Test
+    void repeatedRequestsRunNoSql() throws Exception {
+        performCachedRequests();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        performCachedRequests();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void repositoryLookupsHitTheCaches() {
+        transactionTemplate.executeWithoutResult(status -> {
+            planRepository.findById(planId).orElseThrow();
+            customerRepository.findIdByOwnerId(owner.getId()).orElseThrow();
+        });
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(planRepository.findById(planId)).isPresent();
+            assertThat(customerRepository.findIdByOwnerId(owner.getId())).contains(customerId);
+        });
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exposesCacheMetricsThroughActuator() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'result')]").exists());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private void performCachedRequests() throws Exception {
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"cache-owner\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/customers/me").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ownerUsername").value("cache-owner"));
+        mockMvc.perform(get("/customers/" + customerId).header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,126 @@
+package com.kruger.kdevbill.service.billing.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.dto.response.BillingRunResponse;
+import com.kruger.kdevbill.service.dashboard.DashboardAggregates;
+import com.kruger.kdevbill.service.outbox.OutboxWriter;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Se ejecuta con ./gradlew largeTest: factura un millón de suscripciones y reporta el throughput en el log.
+// Por defecto corre sobre H2 en disco; con -Plarge.jdbc-url (y -Plarge.jdbc-user, -Plarge.jdbc-password) corre
+// sobre otra base, por ejemplo un Postgres vacío. Las tablas de la prueba se recrean en cada corrida.
+@Tag("large")
+class BillingRunServiceImplTest {
+
+    private static final int SUBSCRIPTIONS = 1_000_000;
+    // Una de cada diez está cancelada
+    private static final int ACTIVE = SUBSCRIPTIONS / 10 * 9;
+    // Una de cada mil está atrasada tres ciclos mensuales
+    private static final int OVERDUE = SUBSCRIPTIONS / 1000;
+    private static final LocalDate RUN_DATE = LocalDate.of(2025, 1, 31);
+    private static final int SEED_BATCH = 10_000;
+
+    @TempDir
+    static Path dataDir;
+
+    private static DriverManagerDataSource dataSource;
+
+    @BeforeAll
+    static void seed() {
+        // Caché de H2 acotada (en KB): la de 64 MB por defecto no entra en el heap de largeTest
+        String url = System.getProperty("large.jdbc-url",
+                "jdbc:h2:file:" + dataDir.resolve("billing") + ";MODE=PostgreSQL;CACHE_SIZE=8192");
+        dataSource = new DriverManagerDataSource(url,
+                System.getProperty("large.jdbc-user", "sa"), System.getProperty("large.jdbc-password", ""));
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String table : List.of("dashboard_daily_rollups", "dashboard_counters", "outbox_events", "invoices",
+                "subscriptions", "plans")) {
+            jdbc.execute("DROP TABLE IF EXISTS " + table);
+        }
+        jdbc.execute("DROP SEQUENCE IF EXISTS invoices_id_seq");
+        jdbc.execute("CREATE TABLE plans (" +
+                "id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, price DECIMAL(10, 2) NOT NULL, " +
+                "billing_cycle VARCHAR(50) NOT NULL, active BOOLEAN NOT NULL)");
+        jdbc.execute("CREATE TABLE subscriptions (" +
+                "id BIGINT PRIMARY KEY, status VARCHAR(50) NOT NULL, start_date DATE NOT NULL, " +
+                "next_billing_date DATE, plan_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE INDEX idx_sub_status_next_billing_date_id ON subscriptions(status, next_billing_date, id)");
+        jdbc.execute("CREATE SEQUENCE invoices_id_seq INCREMENT BY 50");
+        jdbc.execute("CREATE TABLE invoices (" +
+                "id BIGINT PRIMARY KEY, amount DECIMAL(10, 2) NOT NULL, " +
+                "status VARCHAR(50) NOT NULL, due_date DATE NOT NULL, issued_at TIMESTAMP NOT NULL, " +
+                "subscription_id BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE outbox_events (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, aggregate_type VARCHAR(50) NOT NULL, " +
+                "aggregate_id BIGINT NOT NULL, event_type VARCHAR(50) NOT NULL, payload TEXT NOT NULL, " +
+                "created_at TIMESTAMP NOT NULL, published_at TIMESTAMP, attempts INTEGER NOT NULL, " +
+                "last_error VARCHAR(1000))");
+        jdbc.execute("CREATE TABLE dashboard_counters (" +
+                "metric VARCHAR(50) NOT NULL, stripe INTEGER NOT NULL, item_count BIGINT NOT NULL DEFAULT 0, " +
+                "amount DECIMAL(19, 2) NOT NULL DEFAULT 0, PRIMARY KEY (metric, stripe))");
+        jdbc.execute("CREATE TABLE dashboard_daily_rollups (" +
+                "rollup_date DATE NOT NULL, metric VARCHAR(50) NOT NULL, stripe INTEGER NOT NULL, " +
+                "item_count BIGINT NOT NULL DEFAULT 0, amount DECIMAL(19, 2) NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (rollup_date, metric, stripe))");
+        jdbc.execute("INSERT INTO plans VALUES (1, 'Monthly', 19.99, 'MONTHLY', TRUE), (2, 'Yearly', 199.99, 'YEARLY', TRUE)");
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+        for (int x = 1; x <= SUBSCRIPTIONS; x++) {
+            LocalDate nextBillingDate = x % 1000 == 0
+                    ? LocalDate.of(2024, 11, 10)
+                    : LocalDate.of(2025, 1, 1).plusDays(x % 28);
+            rows.add(new Object[]{x, x % 10 == 9 ? "CANCELED" : "ACTIVE", Date.valueOf("2024-01-01"),
+                    Date.valueOf(nextBillingDate), x % 2 + 1});
+            if (rows.size() == SEED_BATCH) {
+                jdbc.batchUpdate("INSERT INTO subscriptions (id, status, start_date, next_billing_date, plan_id) " +
+                        "VALUES (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @Test
+    void billsEveryDueSubscriptionOnceAndIsIdempotentOnRerun() {
+        BillingRunServiceImpl billingRun = new BillingRunServiceImpl(dataSource,
+                new DataSourceTransactionManager(dataSource), new BillingHelper(), new IdBlockAllocator(dataSource),
+                new OutboxWriter(null, new ObjectMapper().findAndRegisterModules(), dataSource),
+                new DashboardAggregates(dataSource, 4), 1000, 4);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        try {
+            BillingRunResponse first = billingRun.runBilling(RUN_DATE);
+
+            assertThat(first.getSubscriptionsBilled()).isEqualTo(ACTIVE);
+            assertThat(first.getInvoicesCreated()).isEqualTo(ACTIVE + 2L * OVERDUE);
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM subscriptions " +
+                    "WHERE status = 'ACTIVE' AND next_billing_date <= ?", Long.class, RUN_DATE)).isZero();
+
+            BillingRunResponse rerun = billingRun.runBilling(RUN_DATE);
+
+            assertThat(rerun.getSubscriptionsBilled()).isZero();
+            assertThat(rerun.getInvoicesCreated()).isZero();
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM invoices", Long.class))
+                    .isEqualTo(ACTIVE + 2L * OVERDUE);
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE event_type = 'INVOICE_ISSUED'",
+                    Long.class)).isEqualTo(ACTIVE + 2L * OVERDUE);
+            assertThat(jdbc.queryForObject("SELECT SUM(item_count) FROM dashboard_counters WHERE metric = 'INVOICES'",
+                    Long.class)).isEqualTo(ACTIVE + 2L * OVERDUE);
+        } finally {
+            billingRun.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.kruger.kdevbill.service.datagen;
+
+import com.kruger.kdevbill.service.dashboard.DashboardService;
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import com.kruger.kdevbill.service.subscription.impl.BillingHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// La misma semilla genera exactamente las mismas filas con uno o varios hilos, y las secuencias quedan
+// después de los ids generados.
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class SyntheticDataGeneratorTest {
+
+    private static final int CUSTOMERS = 200;
+    private static final int SUBSCRIPTIONS = 300;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Test
+    void generatesTheSameDataForTheSameSeedWithAnyNumberOfThreads() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        Map<String, Long> first = generator(1).generate();
+        List<List<Map<String, Object>>> firstRows = snapshot(jdbc);
+
+        assertThat(first).containsEntry("users", CUSTOMERS + 1L)
+                .containsEntry("customers", (long) CUSTOMERS)
+                .containsEntry("plans", 5L)
+                .containsEntry("subscriptions", (long) SUBSCRIPTIONS);
+        assertThat(first.get("invoices")).isGreaterThan(SUBSCRIPTIONS);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM invoices", Long.class)).isEqualTo(first.get("invoices"));
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM payments", Long.class)).isEqualTo(first.get("payments"));
+        // Con sesgo 2 el 10% de clientes con id más bajo concentra cerca de un tercio de las suscripciones
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM subscriptions WHERE customer_id <= ?", Long.class,
+                CUSTOMERS / 10)).isGreaterThan(SUBSCRIPTIONS / 5L);
+        assertThat(jdbc.queryForObject("SELECT nextval('subscriptions_id_seq')", Long.class)).isGreaterThan(SUBSCRIPTIONS);
+        assertThat(jdbc.queryForObject("SELECT nextval('invoices_id_seq')", Long.class))
+                .isGreaterThan(jdbc.queryForObject("SELECT MAX(id) FROM invoices", Long.class));
+        assertThat(dashboardService.getStats().getTotalInvoices()).isEqualTo(first.get("invoices"));
+
+        assertThatThrownBy(() -> generator(1).generate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("empty schema");
+
+        List.of("payments", "invoices", "subscriptions", "customers", "plans", "users")
+                .forEach(table -> jdbc.update("DELETE FROM " + table));
+        Map<String, Long> second = generator(4).generate();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(snapshot(jdbc)).isEqualTo(firstRows);
+    }
+
+    private SyntheticDataGenerator generator(int threads) {
+        return new SyntheticDataGenerator(dataSource, transactionManager, passwordEncoder, idBlockAllocator,
+                new BillingHelper(), dashboardService, 7L, CUSTOMERS, 5, SUBSCRIPTIONS, 12, 2.0, 0.3, 0.8, 0.1,
+                threads, 64, "datagen", "2025-06-30");
+    }
+
+    private static List<List<Map<String, Object>>> snapshot(JdbcTemplate jdbc) {
+        return List.of(
+                jdbc.queryForList("SELECT id, name, email, created_at, user_id FROM customers ORDER BY id"),
+                jdbc.queryForList("SELECT id, name, price, billing_cycle, active FROM plans ORDER BY id"),
+                jdbc.queryForList("SELECT id, status, start_date, next_billing_date, created_at, customer_id, plan_id " +
+                        "FROM subscriptions ORDER BY id"),
+                jdbc.queryForList("SELECT id, amount, status, due_date, issued_at, subscription_id FROM invoices ORDER BY id"),
+                jdbc.queryForList("SELECT id, amount, method, status, paid_at, reference, invoice_id FROM payments ORDER BY id"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.kruger.kdevbill.service.export.impl;
+
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Se ejecuta con ./gradlew largeTest (heap de 96 MB): exportar un millón de facturas no debe
+// depender de la memoria disponible.
+@Tag("large")
+class ExportServiceImplTest {
+
+    private static final int INVOICES = 1_000_000;
+
+    @TempDir
+    static Path dataDir;
+
+    private static DriverManagerDataSource dataSource;
+
+    @BeforeAll
+    static void seed() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:file:" + dataDir.resolve("export") + ";MODE=PostgreSQL;LAZY_QUERY_EXECUTION=1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE invoices (" +
+                "id BIGINT PRIMARY KEY, amount DECIMAL(10, 2) NOT NULL, status VARCHAR(50) NOT NULL, " +
+                "due_date DATE NOT NULL, issued_at TIMESTAMP NOT NULL, subscription_id BIGINT NOT NULL)");
+        jdbc.execute("INSERT INTO invoices (id, amount, status, due_date, issued_at, subscription_id) " +
+                "SELECT X, 19.99, CASE WHEN MOD(X, 4) = 0 THEN 'OPEN' ELSE 'PAID' END, DATE '2025-01-08', " +
+                "DATEADD('SECOND', X, TIMESTAMP '2025-01-01 00:00:00'), MOD(X, 50000) + 1 " +
+                "FROM SYSTEM_RANGE(1, " + INVOICES + ")");
+    }
+
+    @Test
+    void exportsAllInvoicesAsNdjsonWithoutMaterializingThem() {
+        ExportServiceImpl exportService = new ExportServiceImpl(dataSource, 1000);
+        LineCountingOutputStream out = new LineCountingOutputStream();
+
+        long exported = exportService.exportInvoices(null, null, null, out);
+
+        assertThat(exported).isEqualTo(INVOICES);
+        assertThat(out.lines).isEqualTo(INVOICES);
+    }
+
+    @Test
+    void appliesStatusFilter() {
+        ExportServiceImpl exportService = new ExportServiceImpl(dataSource, 1000);
+        LineCountingOutputStream out = new LineCountingOutputStream();
+
+        long exported = exportService.exportInvoices(InvoiceStatus.OPEN, null, null, out);
+
+        assertThat(exported).isEqualTo(INVOICES / 4);
+        assertThat(out.lines).isEqualTo(INVOICES / 4);
+    }
+
+    // Descarta la salida y solo cuenta las líneas NDJSON escritas
+    private static final class LineCountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
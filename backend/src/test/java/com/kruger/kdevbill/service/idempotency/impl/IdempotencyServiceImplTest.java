@@ -0,0 +1,185 @@
+package com.kruger.kdevbill.service.idempotency.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.IdempotencyStatus;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.security.JwtPrincipal;
+import com.kruger.kdevbill.security.SecurityHelper;
+import com.kruger.kdevbill.service.idempotency.IdempotencyService;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// La reserva de una clave se toma una sola vez, se libera cuando vence y, si el dueño original sigue en curso
+// al liberarse, su operación se revierte al completar en lugar de emitir una segunda factura.
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class IdempotencyServiceImplTest {
+
+    private static final String FINGERPRINT = "POST /subscriptions/1/renew";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    @Autowired
+    private SecurityHelper securityHelper;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void runsOnceAndReplaysTheStoredResponse() {
+        authenticate(fixture.user("idempotency-replay", Role.USER));
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> first = idempotencyService.execute("replay-key", FINGERPRINT, String.class,
+                () -> ResponseEntity.ok("call " + calls.incrementAndGet()));
+        ResponseEntity<String> second = idempotencyService.execute("replay-key", FINGERPRINT, String.class,
+                () -> ResponseEntity.ok("call " + calls.incrementAndGet()));
+
+        assertThat(calls).hasValue(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(second.getBody()).isEqualTo("call 1");
+    }
+
+    @Test
+    void claimInProgressWithinTimeoutIsRejected() {
+        User user = fixture.user("idempotency-busy", Role.USER);
+        authenticate(user);
+        idempotencyStore.claim(user.getId(), "busy-key", FINGERPRINT, LocalDateTime.now().plusDays(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> idempotencyService.execute("busy-key", FINGERPRINT, String.class,
+                () -> ResponseEntity.ok("call " + calls.incrementAndGet())))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already in progress");
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void staleClaimIsReleasedAndTakenOver() {
+        User user = fixture.user("idempotency-stale", Role.USER);
+        authenticate(user);
+        Long abandoned = idempotencyStore.claim(user.getId(), "stale-key", FINGERPRINT, LocalDateTime.now().plusDays(1));
+        backdate(abandoned);
+
+        ResponseEntity<String> response = idempotencyService.execute("stale-key", FINGERPRINT, String.class,
+                () -> ResponseEntity.ok("taken over"));
+
+        assertThat(response.getBody()).isEqualTo("taken over");
+        assertThat(response.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(idempotencyStore.find(user.getId(), "stale-key").orElseThrow().getStatus())
+                .isEqualTo(IdempotencyStatus.COMPLETED);
+    }
+
+    // Dos instancias: la primera se demora más que claim-timeout, la segunda libera su reserva y renueva.
+    // Al terminar, la primera ya no es dueña de la clave y su factura se revierte.
+    @Test
+    void slowOwnerCannotCommitAfterItsClaimWasTakenOver() throws Exception {
+        User user = fixture.user("idempotency-double-run", Role.USER);
+        Subscription subscription = fixture.subscription(fixture.customer(user), fixture.plan("Double run plan", "12.00"));
+        IdempotencyService otherInstance = new IdempotencyServiceImpl(idempotencyStore, securityHelper, objectMapper,
+                transactionManager, 86_400_000, 300_000, 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ExecutorService slowRequest = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<String>> slow = slowRequest.submit(() -> {
+                authenticate(user);
+                try {
+                    return idempotencyService.execute("double-run-key", FINGERPRINT, String.class, () -> {
+                        fixture.invoice(subscription, InvoiceStatus.OPEN);
+                        started.countDown();
+                        awaitQuietly(proceed);
+                        return ResponseEntity.ok("slow");
+                    });
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            backdate(idempotencyStore.find(user.getId(), "double-run-key").orElseThrow().getId());
+
+            authenticate(user);
+            ResponseEntity<String> takeover = otherInstance.execute("double-run-key", FINGERPRINT, String.class, () -> {
+                fixture.invoice(subscription, InvoiceStatus.OPEN);
+                return ResponseEntity.ok("takeover");
+            });
+            assertThat(takeover.getBody()).isEqualTo("takeover");
+
+            proceed.countDown();
+            assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("taken over");
+        } finally {
+            proceed.countDown();
+            slowRequest.shutdownNow();
+        }
+
+        Integer invoices = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM invoices WHERE subscription_id = ?", Integer.class, subscription.getId());
+        assertThat(invoices).isEqualTo(1);
+        assertThat(idempotencyStore.find(user.getId(), "double-run-key").orElseThrow().getStatus())
+                .isEqualTo(IdempotencyStatus.COMPLETED);
+    }
+
+    private static void authenticate(User user) {
+        JwtPrincipal principal = JwtPrincipal.of(user, null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    // Más antigua que claim-timeout (5 minutos)
+    private void backdate(Long claimId) {
+        new JdbcTemplate(dataSource).update("UPDATE idempotency_keys SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(10)), claimId);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.kruger.kdevbill.service.outbox.impl;
+
+import com.kruger.kdevbill.entity.OutboxEvent;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
+import com.kruger.kdevbill.repository.OutboxEventRepository;
+import com.kruger.kdevbill.service.outbox.OutboxWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+// Un fallo del sink retiene solo al agregado afectado; en el siguiente ciclo sus eventos salen en orden.
+// Un agregado con más eventos fallidos que el tamaño de lote no frena a los demás y termina estacionado.
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class OutboxRelayTest {
+
+    private static final long FAILING_INVOICE = 9_000_001L;
+    private static final long HEALTHY_INVOICE = 9_000_002L;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @MockitoSpyBean
+    private InMemoryOutboxSink outboxSink;
+
+    @BeforeEach
+    void clearOutbox() {
+        outboxEventRepository.deleteAll();
+        outboxSink.clear();
+    }
+
+    @Test
+    void failedEventHoldsBackOnlyItsAggregateAndIsRedeliveredInOrder() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxWriter.append(OutboxEventType.INVOICE_ISSUED, FAILING_INVOICE, Map.of("id", FAILING_INVOICE));
+            outboxWriter.append(OutboxEventType.INVOICE_ISSUED, HEALTHY_INVOICE, Map.of("id", HEALTHY_INVOICE));
+            outboxWriter.append(OutboxEventType.INVOICE_PAID, FAILING_INVOICE, Map.of("id", FAILING_INVOICE));
+            outboxWriter.append(OutboxEventType.INVOICE_PAID, HEALTHY_INVOICE, Map.of("id", HEALTHY_INVOICE));
+        });
+        outboxSink.clear();
+        doThrow(new IllegalStateException("sink unavailable")).doCallRealMethod()
+                .when(outboxSink).publish(argThat(event -> event.getAggregateId() == FAILING_INVOICE));
+
+        outboxRelay.relayPending();
+
+        assertThat(outboxSink.getEvents())
+                .extracting(OutboxEvent::getAggregateId, OutboxEvent::getEventType)
+                .containsExactly(
+                        tuple(HEALTHY_INVOICE, OutboxEventType.INVOICE_ISSUED),
+                        tuple(HEALTHY_INVOICE, OutboxEventType.INVOICE_PAID));
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isEqualTo(2);
+
+        outboxRelay.relayPending();
+
+        assertThat(outboxSink.getEvents())
+                .extracting(OutboxEvent::getAggregateId, OutboxEvent::getEventType)
+                .containsExactly(
+                        tuple(HEALTHY_INVOICE, OutboxEventType.INVOICE_ISSUED),
+                        tuple(HEALTHY_INVOICE, OutboxEventType.INVOICE_PAID),
+                        tuple(FAILING_INVOICE, OutboxEventType.INVOICE_ISSUED),
+                        tuple(FAILING_INVOICE, OutboxEventType.INVOICE_PAID));
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+    }
+
+    @Test
+    void failingAggregateLargerThanABatchDoesNotBlockOthersAndIsParked() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                outboxWriter.append(OutboxEventType.INVOICE_ISSUED, FAILING_INVOICE, Map.of("id", FAILING_INVOICE));
+            }
+            outboxWriter.append(OutboxEventType.INVOICE_ISSUED, HEALTHY_INVOICE, Map.of("id", HEALTHY_INVOICE));
+        });
+        InMemoryOutboxSink failingSink = mock(InMemoryOutboxSink.class);
+        doThrow(new IllegalStateException("poison event")).when(failingSink)
+                .publish(argThat(event -> event.getAggregateId() == FAILING_INVOICE));
+        // Lote de 2 con 3 eventos del agregado que falla: antes solo se releían esos dos
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, outboxSink, transactionManager, 2, 2, 604800000L);
+        OutboxRelay poisonedRelay = new OutboxRelay(outboxEventRepository, failingSink, transactionManager, 2, 2, 604800000L);
+
+        poisonedRelay.relayPending();
+
+        assertThat(outboxEventRepository.findAll(Sort.by("id")))
+                .filteredOn(event -> event.getAggregateId() == HEALTHY_INVOICE)
+                .allMatch(event -> event.getPublishedAt() != null);
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isEqualTo(3);
+        assertThat(outboxEventRepository.countByParkedAtIsNotNull()).isZero();
+
+        poisonedRelay.relayPending();
+        poisonedRelay.relayPending();
+
+        // Solo el primer evento acumula intentos y se estaciona; los siguientes del agregado esperan detrás
+        assertThat(outboxEventRepository.countByParkedAtIsNotNull()).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll(Sort.by("id")))
+                .filteredOn(event -> event.getAggregateId() == FAILING_INVOICE)
+                .extracting(OutboxEvent::getAttempts)
+                .containsExactly(2, 0, 0);
+
+        relay.relayPending();
+
+        assertThat(outboxSink.getEvents()).isEmpty();
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isEqualTo(3);
+    }
+}
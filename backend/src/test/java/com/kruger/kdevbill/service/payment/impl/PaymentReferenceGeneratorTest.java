@@ -0,0 +1,64 @@
+package com.kruger.kdevbill.service.payment.impl;
+
+import com.kruger.kdevbill.service.sequence.IdBlockAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Varios hilos generan referencias a la vez: todas deben ser distintas y tener el mismo formato.
+class PaymentReferenceGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 5_000;
+
+    @Test
+    void concurrentThreadsNeverShareAReference() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:payment-references;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE SEQUENCE payment_reference_seq START WITH 1 INCREMENT BY 1000");
+        PaymentReferenceGenerator generator = new PaymentReferenceGenerator(new IdBlockAllocator(dataSource));
+
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<Void> task = () -> {
+                    for (int j = 0; j < PER_THREAD; j++) {
+                        references.add(generator.next());
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(references).hasSize(THREADS * PER_THREAD);
+        assertThat(references).allMatch(reference -> reference.matches("PAY-[0-9A-HJKMNP-TV-Z]{10}"));
+    }
+
+    @Test
+    void rejectsValuesOutsideThePermutationDomain() {
+        assertThat(PaymentReferenceGenerator.encode(0)).isNotEqualTo(PaymentReferenceGenerator.encode(1));
+        assertThatThrownBy(() -> PaymentReferenceGenerator.encode(1L << 50))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
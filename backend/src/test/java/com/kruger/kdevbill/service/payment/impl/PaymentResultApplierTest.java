@@ -0,0 +1,132 @@
+package com.kruger.kdevbill.service.payment.impl;
+
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.OutboxEvent;
+import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.OutboxEventType;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.repository.OutboxEventRepository;
+import com.kruger.kdevbill.repository.PaymentRepository;
+import com.kruger.kdevbill.repository.SubscriptionRepository;
+import com.kruger.kdevbill.service.payment.PaymentGatewayResult;
+import com.kruger.kdevbill.service.payment.impl.PaymentResultApplier.Settlement;
+import com.kruger.kdevbill.service.payment.impl.PaymentResultApplier.SettlementRequest;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Un cobro aprobado solo paga la factura y adelanta la facturación si la factura seguía en PROCESSING;
+// si cambió mientras tanto, el pago queda SUCCESS y marcado para revisión.
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+class PaymentResultApplierTest {
+
+    @Autowired
+    private PaymentResultApplier paymentResultApplier;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void approvedPaymentPaysInvoiceAndAdvancesBilling() {
+        Subscription subscription = subscription("applier-paid");
+        Invoice invoice = fixture.invoice(subscription, InvoiceStatus.PROCESSING);
+        Payment payment = fixture.payment(invoice, "PAY-APPLIER-1", PaymentStatus.PENDING);
+
+        paymentResultApplier.apply(payment.getId(), invoice.getId(), PaymentGatewayResult.approved());
+
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(invoiceRepository.findById(invoice.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.PAID);
+        assertThat(subscriptionRepository.findById(subscription.getId()).orElseThrow().getNextBillingDate())
+                .isAfter(LocalDate.now());
+        assertThat(eventTypes(invoice)).containsExactly(OutboxEventType.INVOICE_PAID);
+    }
+
+    @Test
+    void approvedPaymentForInvoiceNoLongerProcessingIsFlagged() {
+        Subscription subscription = subscription("applier-voided");
+        // Anulada mientras el cobro seguía en la pasarela
+        Invoice invoice = fixture.invoice(subscription, InvoiceStatus.VOID);
+        Payment payment = fixture.payment(invoice, "PAY-APPLIER-2", PaymentStatus.PENDING);
+
+        paymentResultApplier.apply(payment.getId(), invoice.getId(), PaymentGatewayResult.approved());
+
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(invoiceRepository.findById(invoice.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.VOID);
+        assertThat(subscriptionRepository.findById(subscription.getId()).orElseThrow().getNextBillingDate())
+                .isEqualTo(LocalDate.now());
+        assertThat(eventTypes(invoice)).containsExactly(OutboxEventType.PAYMENT_UNAPPLIED);
+    }
+
+    // Un lote con un pago aprobado, dos rechazos de la misma factura y un pago ya liquidado: cada pedido
+    // recibe su resultado en orden y solo el primer rechazo de la factura se recupera.
+    @Test
+    void settleAllReturnsOneOutcomePerPaymentInOrder() {
+        Subscription subscription = subscription("applier-batch");
+        Invoice processing = fixture.invoice(subscription, InvoiceStatus.PROCESSING);
+        Payment pending = fixture.payment(processing, "PAY-APPLIER-BATCH-1", PaymentStatus.PENDING);
+        Invoice declined = fixture.invoice(subscription, InvoiceStatus.OPEN);
+        Payment firstFailed = fixture.payment(declined, "PAY-APPLIER-BATCH-2", PaymentStatus.FAILED);
+        Payment secondFailed = fixture.payment(declined, "PAY-APPLIER-BATCH-3", PaymentStatus.FAILED);
+        Invoice alreadyPaid = fixture.invoice(subscription, InvoiceStatus.PAID);
+        Payment settled = fixture.payment(alreadyPaid, "PAY-APPLIER-BATCH-4", PaymentStatus.SUCCESS);
+
+        List<Settlement> results = paymentResultApplier.settleAll(List.of(
+                new SettlementRequest(pending.getId(), processing.getId(), PaymentStatus.PENDING),
+                new SettlementRequest(firstFailed.getId(), declined.getId(), PaymentStatus.FAILED),
+                new SettlementRequest(secondFailed.getId(), declined.getId(), PaymentStatus.FAILED),
+                new SettlementRequest(settled.getId(), alreadyPaid.getId(), PaymentStatus.PENDING)));
+
+        assertThat(results).containsExactly(Settlement.PAID, Settlement.PAID, Settlement.CONFLICT,
+                Settlement.ALREADY_SETTLED);
+        assertThat(invoiceRepository.findById(processing.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.PAID);
+        assertThat(invoiceRepository.findById(declined.getId()).orElseThrow().getStatus())
+                .isEqualTo(InvoiceStatus.PAID);
+        assertThat(paymentRepository.findById(secondFailed.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentStatus.FAILED);
+        // Las dos facturas vencían con la misma fecha de la suscripción: avanza un solo ciclo
+        assertThat(subscriptionRepository.findById(subscription.getId()).orElseThrow().getNextBillingDate())
+                .isEqualTo(LocalDate.now().plusMonths(1));
+        assertThat(eventTypes(processing)).containsExactly(OutboxEventType.INVOICE_PAID);
+        assertThat(eventTypes(declined)).containsExactly(OutboxEventType.INVOICE_PAID);
+    }
+
+    // La suscripción vence hoy, que es lo que espera el applier para la factura con vencimiento a siete días
+    private Subscription subscription(String username) {
+        return fixture.subscription(fixture.customer(fixture.user(username, Role.USER)),
+                fixture.plan(username + " plan", "10.00"), LocalDate.now());
+    }
+
+    private List<OutboxEventType> eventTypes(Invoice invoice) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateType().equals("INVOICE")
+                        && event.getAggregateId().equals(invoice.getId()))
+                .map(OutboxEvent::getEventType)
+                .toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.kruger.kdevbill.service.querystats;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La misma consulta con distintos valores cuenta como una sola forma; los ámbitos anidados reciben todo.
+class QueryStatsListenerTest {
+
+    private final DataSource dataSource = ProxyDataSourceBuilder.create(new DriverManagerDataSource(
+                    "jdbc:h2:mem:query-stats;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""))
+            .listener(new QueryStatsListener(10_000))
+            .build();
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    @AfterEach
+    void closeScopes() {
+        QueryStats.closeAll();
+    }
+
+    @Test
+    void groupsRepeatedStatementsByShape() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS items (id BIGINT PRIMARY KEY, name VARCHAR(50))");
+
+        try (QueryStats request = QueryStats.open()) {
+            jdbc.batchUpdate("MERGE INTO items KEY (id) VALUES (?, ?)",
+                    List.of(new Object[]{1L, "a"}, new Object[]{2L, "b"}, new Object[]{3L, "c"}));
+            try (QueryStats call = QueryStats.open()) {
+                for (long id = 1; id <= 3; id++) {
+                    jdbc.queryForObject("SELECT name FROM items WHERE id = " + id, String.class);
+                }
+                jdbc.queryForList("SELECT name FROM items WHERE id IN (?, ?)", String.class, 1L, 2L);
+
+                assertThat(call.getStatements()).isEqualTo(4);
+                assertThat(call.repeatedShapes(3)).containsExactly(
+                        Map.entry("SELECT name FROM items WHERE id = ?", 3));
+            }
+            jdbc.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+
+            // El batch es una sola ejecución
+            assertThat(request.getStatements()).isEqualTo(6);
+            assertThat(request.getExecutionsByShape()).containsEntry("SELECT name FROM items WHERE id IN (?)", 1);
+            assertThat(request.getElapsedNanos()).isPositive();
+            assertThat(request.getSlowStatements()).isZero();
+        }
+
+        jdbc.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+        assertThat(QueryStats.isRecording()).isFalse();
+    }
+}
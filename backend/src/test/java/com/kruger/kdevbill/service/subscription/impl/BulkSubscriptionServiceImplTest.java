@@ -0,0 +1,115 @@
+package com.kruger.kdevbill.service.subscription.impl;
+
+import com.kruger.kdevbill.dto.request.SubscriptionCreateRequest;
+import com.kruger.kdevbill.dto.response.BulkSubscriptionResponse;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.security.JwtPrincipal;
+import com.kruger.kdevbill.service.subscription.BulkSubscriptionService;
+import com.kruger.kdevbill.service.subscription.SubscriptionService;
+import com.kruger.kdevbill.support.BillingFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Se ejecuta con ./gradlew largeTest: da de alta 100.000 suscripciones con el lote y otras 100.000 llamando a
+// createSubscription una por una, y deja en el log las filas por segundo de cada camino. La base es un H2 en
+// disco: en memoria no entra en el heap de largeTest.
+@Tag("large")
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(BillingFixture.class)
+@DirtiesContext
+class BulkSubscriptionServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkSubscriptionServiceImplTest.class);
+
+    private static final int ROWS = 100_000;
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + dataDir.resolve("bulk") +
+                ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;CACHE_SIZE=8192;LOCK_TIMEOUT=10000");
+        // Un H2 en archivo no cuenta como base embebida: schema.sql solo corre si se pide
+        registry.add("spring.sql.init.mode", () -> "always");
+    }
+
+    @Autowired
+    private BulkSubscriptionService bulkSubscriptionService;
+    @Autowired
+    private SubscriptionService subscriptionService;
+    @Autowired
+    private BillingFixture fixture;
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bulkPathCreatesRowsFasterThanSingleCalls() {
+        User owner = fixture.user("bulk-large-owner", Role.USER);
+        Long customerId = fixture.customer(owner).getId();
+        Long planId = fixture.plan("Bulk large monthly", "15.00").getId();
+        authenticate(owner, customerId);
+        List<SubscriptionCreateRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            SubscriptionCreateRequest request = new SubscriptionCreateRequest();
+            request.setCustomerId(customerId);
+            request.setPlanId(planId);
+            requests.add(request);
+        }
+
+        long started = System.nanoTime();
+        BulkSubscriptionResponse bulk = bulkSubscriptionService.createSubscriptions(requests);
+        long bulkMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        assertThat(bulk.getCreated()).isEqualTo(ROWS);
+
+        started = System.nanoTime();
+        for (SubscriptionCreateRequest request : requests) {
+            subscriptionService.createSubscription(request);
+        }
+        long singleMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        long bulkRowsPerSecond = ROWS * 1000L / bulkMs;
+        long singleRowsPerSecond = ROWS * 1000L / singleMs;
+        log.info("Bulk subscriptions: {} rows in {} ms ({} rows/s); single calls: {} rows in {} ms ({} rows/s)",
+                ROWS, bulkMs, bulkRowsPerSecond, ROWS, singleMs, singleRowsPerSecond);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM subscriptions", Long.class)).isEqualTo(2L * ROWS);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM invoices", Long.class)).isEqualTo(2L * ROWS);
+        assertThat(bulkRowsPerSecond).isGreaterThan(singleRowsPerSecond);
+    }
+
+    private static void authenticate(User user, Long customerId) {
+        JwtPrincipal principal = JwtPrincipal.of(user, customerId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,166 @@
+package com.kruger.kdevbill.support;
+
+import com.kruger.kdevbill.entity.Customer;
+import com.kruger.kdevbill.entity.Invoice;
+import com.kruger.kdevbill.entity.Payment;
+import com.kruger.kdevbill.entity.Plan;
+import com.kruger.kdevbill.entity.Subscription;
+import com.kruger.kdevbill.entity.User;
+import com.kruger.kdevbill.entity.enums.BillingCycle;
+import com.kruger.kdevbill.entity.enums.InvoiceStatus;
+import com.kruger.kdevbill.entity.enums.PaymentMethod;
+import com.kruger.kdevbill.entity.enums.PaymentStatus;
+import com.kruger.kdevbill.entity.enums.Role;
+import com.kruger.kdevbill.entity.enums.SubscriptionStatus;
+import com.kruger.kdevbill.repository.CustomerRepository;
+import com.kruger.kdevbill.repository.InvoiceRepository;
+import com.kruger.kdevbill.repository.PaymentRepository;
+import com.kruger.kdevbill.repository.PlanRepository;
+import com.kruger.kdevbill.repository.SubscriptionRepository;
+import com.kruger.kdevbill.repository.UserRepository;
+import com.kruger.kdevbill.security.JwtService;
+import com.kruger.kdevbill.service.plan.PlanCatalog;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Datos de prueba compartidos por los tests de integración. Se incorpora con @Import(BillingFixture.class);
+// cada método guarda la entidad con valores por defecto válidos y la devuelve con su id.
+@TestComponent
+public class BillingFixture {
+
+    private final UserRepository userRepository;
+    private final CustomerRepository customerRepository;
+    private final PlanRepository planRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final PlanCatalog planCatalog;
+    private final JwtService jwtService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BillingFixture(UserRepository userRepository,
+                          CustomerRepository customerRepository,
+                          PlanRepository planRepository,
+                          SubscriptionRepository subscriptionRepository,
+                          InvoiceRepository invoiceRepository,
+                          PaymentRepository paymentRepository,
+                          PlanCatalog planCatalog,
+                          JwtService jwtService,
+                          EntityManagerFactory entityManagerFactory,
+                          DataSource dataSource) {
+        this.userRepository = userRepository;
+        this.customerRepository = customerRepository;
+        this.planRepository = planRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRepository = paymentRepository;
+        this.planCatalog = planCatalog;
+        this.jwtService = jwtService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public User user(String username, Role role) {
+        return user(username, role, "n/a");
+    }
+
+    public User user(String username, Role role, String encodedPassword) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@kdevbill.com")
+                .password(encodedPassword)
+                .role(role)
+                .build());
+    }
+
+    public Customer customer(User owner) {
+        return customer(owner, owner.getUsername() + "@customers.kdevbill.com");
+    }
+
+    public Customer customer(User owner, String email) {
+        return customerRepository.save(Customer.builder()
+                .name(owner.getUsername() + " Customer")
+                .email(email)
+                .owner(owner)
+                .build());
+    }
+
+    public Plan plan(String name, String price) {
+        return plan(name, price, true);
+    }
+
+    // El catálogo de planes activos se recarga para que el alta de suscripciones vea el plan nuevo
+    public Plan plan(String name, String price, boolean active) {
+        Plan plan = planRepository.save(Plan.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .billingCycle(BillingCycle.MONTHLY)
+                .active(active)
+                .build());
+        planCatalog.refresh();
+        return plan;
+    }
+
+    public Subscription subscription(Customer customer, Plan plan) {
+        return subscription(customer, plan, LocalDate.now().plusMonths(1));
+    }
+
+    public Subscription subscription(Customer customer, Plan plan, LocalDate nextBillingDate) {
+        return subscriptionRepository.save(Subscription.builder()
+                .customer(customer)
+                .plan(plan)
+                .status(SubscriptionStatus.ACTIVE)
+                .startDate(LocalDate.now())
+                .nextBillingDate(nextBillingDate)
+                .build());
+    }
+
+    public Invoice invoice(Subscription subscription, InvoiceStatus status) {
+        return invoiceRepository.save(Invoice.builder()
+                .subscription(subscription)
+                .amount(subscription.getPlan().getPrice())
+                .status(status)
+                .issuedAt(LocalDateTime.now())
+                .dueDate(LocalDate.now().plusDays(7))
+                .build());
+    }
+
+    public Payment payment(Invoice invoice, String reference, PaymentStatus status) {
+        return paymentRepository.save(Payment.builder()
+                .invoice(invoice)
+                .amount(invoice.getAmount())
+                .method(PaymentMethod.CARD)
+                .status(status)
+                .paidAt(LocalDateTime.now())
+                .reference(reference)
+                .build());
+    }
+
+    public String token(User user, Long customerId) {
+        return jwtService.generateToken(user, customerId);
+    }
+
+    // Vacía todas las tablas y los cachés que guardan filas, para los tests que cuentan filas globales.
+    // Más barato que @DirtiesContext: el contexto y el esquema se reutilizan.
+    public void reset() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables " +
+                        "WHERE table_schema = current_schema() AND table_type = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            tables.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE " + table));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        entityManagerFactory.getCache().evictAll();
+        planCatalog.refresh();
+    }
+}
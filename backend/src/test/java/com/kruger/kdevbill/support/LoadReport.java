@@ -0,0 +1,117 @@
+package com.kruger.kdevbill.support;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throughput, percentiles de latencia y errores por endpoint de una corrida de OpenLoopDriver.
+// Status 0 = el request falló sin respuesta (conexión, timeout) o se descartó por exceso de requests en curso.
+public class LoadReport {
+
+    private static final long MAX_TRACKABLE_LATENCY = TimeUnit.MINUTES.toNanos(2);
+
+    private final Duration duration;
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    LoadReport(Duration duration) {
+        this.duration = duration;
+    }
+
+    void record(String endpoint, long latencyNanos, int status) {
+        EndpointStats stats = stats(endpoint);
+        stats.latency.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_LATENCY));
+        stats.record(status);
+    }
+
+    void recordDropped(String endpoint) {
+        stats(endpoint).record(0);
+    }
+
+    public long getRequests(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null ? 0 : stats.requests.sum();
+    }
+
+    public double getErrorRate(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null || stats.requests.sum() == 0 ? 0 : (double) stats.errors.sum() / stats.requests.sum();
+    }
+
+    // Una fila por endpoint, ordenadas por nombre, con latencias en milisegundos
+    public List<Map<String, Object>> summary() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        new TreeMap<>(endpoints).forEach((endpoint, stats) -> {
+            Histogram latency = stats.latency;
+            long requests = stats.requests.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", requests);
+            row.put("throughput", round(requests / (duration.toMillis() / 1000.0)));
+            row.put("errors", stats.errors.sum());
+            row.put("errorRate", round(getErrorRate(endpoint)));
+            row.put("statuses", stats.statusCounts());
+            row.put("p50", millis(latency.getValueAtPercentile(50)));
+            row.put("p90", millis(latency.getValueAtPercentile(90)));
+            row.put("p99", millis(latency.getValueAtPercentile(99)));
+            row.put("p999", millis(latency.getValueAtPercentile(99.9)));
+            row.put("max", millis(latency.getMaxValue()));
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    public String format() {
+        StringBuilder table = new StringBuilder(String.format("%-30s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "error%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map<String, Object> row : summary()) {
+            table.append(String.format("%-30s %9d %9.1f %8d %8.2f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                    row.get("endpoint"), row.get("requests"), row.get("throughput"), row.get("errors"),
+                    (double) row.get("errorRate") * 100, row.get("p50"), row.get("p90"), row.get("p99"),
+                    row.get("p999"), row.get("max"), row.get("statuses")));
+        }
+        return table.toString();
+    }
+
+    private EndpointStats stats(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static final class EndpointStats {
+        private final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_LATENCY, 3);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        private void record(int status) {
+            requests.increment();
+            if (status / 100 != 2) {
+                errors.increment();
+            }
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+
+        private Map<Integer, Long> statusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.kruger.kdevbill.support;
+
+import java.net.http.HttpRequest;
+import java.util.function.Consumer;
+
+// Un request de la mezcla de tráfico: el endpoint con el que se agrupa en el reporte y, opcionalmente,
+// qué hacer con el body de una respuesta 2xx (por ejemplo, guardar el id de una factura nueva)
+public final class LoadRequest {
+
+    private final String endpoint;
+    private final HttpRequest request;
+    private final Consumer<String> onSuccess;
+
+    public LoadRequest(String endpoint, HttpRequest request) {
+        this(endpoint, request, null);
+    }
+
+    public LoadRequest(String endpoint, HttpRequest request, Consumer<String> onSuccess) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.onSuccess = onSuccess;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    public Consumer<String> getOnSuccess() {
+        return onSuccess;
+    }
+}
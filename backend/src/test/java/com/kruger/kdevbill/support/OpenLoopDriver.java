@@ -0,0 +1,80 @@
+package com.kruger.kdevbill.support;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Generador de carga de lazo abierto: los requests salen a tasa fija sin esperar a los anteriores, y la latencia
+// se mide desde el instante en que el request debía salir. Si la aplicación se atrasa, la cola se refleja en los
+// percentiles en lugar de bajar la tasa (sin omisión coordinada). Lo que excede maxInFlight se descarta y se
+// cuenta como error.
+public class OpenLoopDriver {
+
+    private final HttpClient client;
+    private final int ratePerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+
+    public OpenLoopDriver(HttpClient client, int ratePerSecond, Duration warmup, Duration duration, int maxInFlight) {
+        this.client = client;
+        this.ratePerSecond = ratePerSecond;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // El proveedor se invoca siempre desde el mismo hilo, en el instante de cada envío
+    public LoadReport run(Supplier<LoadRequest> requests) throws InterruptedException {
+        LoadReport report = new LoadReport(duration);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long sent = 0; ; sent++) {
+            long intended = start + sent * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadRequest request = requests.get();
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    report.recordDropped(request.getEndpoint());
+                }
+                continue;
+            }
+            client.sendAsync(request.getRequest(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        try {
+                            long latency = System.nanoTime() - intended;
+                            int status = error == null ? response.statusCode() : 0;
+                            if (status / 100 == 2 && request.getOnSuccess() != null) {
+                                request.getOnSuccess().accept(response.body());
+                            }
+                            if (measured) {
+                                report.record(request.getEndpoint(), latency, status);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        }
+
+        // Espera a que terminen los requests en curso antes de cerrar el reporte
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests still in flight 60 s after the load test ended");
+        }
+        return report;
+    }
+}
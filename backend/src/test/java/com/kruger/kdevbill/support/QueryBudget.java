@@ -0,0 +1,33 @@
+package com.kruger.kdevbill.support;
+
+import com.kruger.kdevbill.service.querystats.QueryStats;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Acota las sentencias JDBC de una llamada. Se registra con @RegisterExtension; cuenta lo que ejecuta el hilo
+// del test, que con MockMvc es también el hilo del request. Lo que hagan los pools en segundo plano no cuenta.
+public class QueryBudget implements AfterEachCallback {
+
+    public QueryStats measure(Executable call) throws Throwable {
+        try (QueryStats stats = QueryStats.open()) {
+            call.execute();
+            return stats;
+        }
+    }
+
+    public QueryStats assertAtMost(long maxStatements, Executable call) throws Throwable {
+        QueryStats stats = measure(call);
+        assertThat(stats.getStatements())
+                .as("statements executed, by shape: %s", stats.getExecutionsByShape())
+                .isLessThanOrEqualTo(maxStatements);
+        return stats;
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryStats.closeAll();
+    }
+}
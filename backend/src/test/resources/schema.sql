@@ -0,0 +1,27 @@
+CREATE SEQUENCE IF NOT EXISTS payment_reference_seq START WITH 1 INCREMENT BY 1000;
+
+CREATE TABLE IF NOT EXISTS dashboard_counters (
+    metric VARCHAR(50) NOT NULL,
+    stripe INTEGER NOT NULL,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (metric, stripe)
+);
+
+CREATE TABLE IF NOT EXISTS dashboard_daily_rollups (
+    rollup_date DATE NOT NULL,
+    metric VARCHAR(50) NOT NULL,
+    stripe INTEGER NOT NULL,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (rollup_date, metric, stripe)
+);
+
+CREATE TABLE IF NOT EXISTS job_input_blocks (
+    job_id BIGINT NOT NULL,
+    seq INTEGER NOT NULL,
+    first_line BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    PRIMARY KEY (job_id, seq),
+    FOREIGN KEY (job_id) REFERENCES job_executions(id) ON DELETE CASCADE
+);
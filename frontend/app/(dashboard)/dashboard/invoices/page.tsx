@@ -8,6 +8,7 @@ import {
   User,
   Package,
   CheckCircle,
+  Clock,
   AlertTriangle,
   XCircle,
   CreditCard,
@@ -25,7 +26,7 @@ export default function InvoicesPage() {
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState("");
   const [statusFilter, setStatusFilter] = useState<
-    "ALL" | "OPEN" | "PAID" | "VOID"
+    "ALL" | Invoice["status"]
   >("ALL");
   const [selectedInvoice, setSelectedInvoice] = useState<Invoice | null>(null);
   const [isDetailModalOpen, setIsDetailModalOpen] = useState(false);
@@ -75,8 +76,14 @@ export default function InvoicesPage() {
 
     try {
       setProcessingPayment(true);
-      await invoiceService.pay(selectedInvoice.id, paymentMethod);
-      toast.success("Pago procesado exitosamente");
+      const payment = await invoiceService.pay(selectedInvoice.id, paymentMethod);
+      if (payment?.status === "PENDING") {
+        toast.success("Pago recibido, se está procesando");
+      } else if (payment?.status === "FAILED") {
+        toast.error("El pago fue rechazado");
+      } else {
+        toast.success("Pago procesado exitosamente");
+      }
       await fetchInvoices();
       setIsPaymentModalOpen(false);
       setSelectedInvoice(null);
@@ -90,12 +97,20 @@ export default function InvoicesPage() {
   };
 
   const getStatusBadge = (status: Invoice["status"]) => {
-    const statusConfig = {
+    const statusConfig: Record<
+      Invoice["status"],
+      { color: string; icon: typeof CheckCircle; label: string }
+    > = {
       OPEN: {
         color: "bg-yellow-100 text-yellow-800",
         icon: AlertTriangle,
         label: "Pendiente",
       },
+      PROCESSING: {
+        color: "bg-blue-100 text-blue-800",
+        icon: Clock,
+        label: "Procesando",
+      },
       PAID: {
         color: "bg-green-100 text-green-800",
         icon: CheckCircle,
@@ -108,7 +123,11 @@ export default function InvoicesPage() {
       },
     };
 
-    const config = statusConfig[status];
+    const config = statusConfig[status] ?? {
+      color: "bg-gray-100 text-gray-800",
+      icon: AlertTriangle,
+      label: status,
+    };
     const Icon = config.icon;
 
     return (
@@ -166,6 +185,7 @@ export default function InvoicesPage() {
           >
             <option value="ALL">Todos los estados</option>
             <option value="OPEN">Pendientes</option>
+            <option value="PROCESSING">Procesando</option>
             <option value="PAID">Pagadas</option>
             <option value="VOID">Anuladas</option>
           </select>
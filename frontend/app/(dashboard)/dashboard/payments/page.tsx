@@ -8,6 +8,7 @@ import {
   User,
   CreditCard,
   CheckCircle,
+  Clock,
   XCircle,
   Eye,
   DollarSign,
@@ -24,7 +25,7 @@ export default function PaymentsPage() {
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState("");
   const [statusFilter, setStatusFilter] = useState<
-    "ALL" | "SUCCESS" | "FAILED"
+    "ALL" | Payment["status"]
   >("ALL");
   const [methodFilter, setMethodFilter] = useState<
     "ALL" | "CARD" | "TRANSFER" | "CASH"
@@ -68,7 +69,15 @@ export default function PaymentsPage() {
   });
 
   const getStatusBadge = (status: Payment["status"]) => {
-    const statusConfig = {
+    const statusConfig: Record<
+      Payment["status"],
+      { color: string; icon: typeof CheckCircle; label: string }
+    > = {
+      PENDING: {
+        color: "bg-blue-100 text-blue-800",
+        icon: Clock,
+        label: "En proceso",
+      },
       SUCCESS: {
         color: "bg-green-100 text-green-800",
         icon: CheckCircle,
@@ -81,7 +90,11 @@ export default function PaymentsPage() {
       },
     };
 
-    const config = statusConfig[status];
+    const config = statusConfig[status] ?? {
+      color: "bg-gray-100 text-gray-800",
+      icon: Clock,
+      label: status,
+    };
     const Icon = config.icon;
 
     return (
@@ -224,6 +237,7 @@ export default function PaymentsPage() {
             className="w-full border border-gray-300 rounded-lg py-2 px-3 focus:ring-2 focus:ring-blue-500 focus:border-blue-500"
           >
             <option value="ALL">Todos los estados</option>
+            <option value="PENDING">En proceso</option>
             <option value="SUCCESS">Exitosos</option>
             <option value="FAILED">Fallidos</option>
           </select>
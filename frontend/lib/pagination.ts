@@ -0,0 +1,16 @@
+import api from '@/lib/api';
+
+// Los listados del backend responden páginas acotadas; el cursor de la siguiente viaja en este header
+const NEXT_CURSOR_HEADER = 'x-next-cursor';
+
+export async function getAllPages<T>(url: string, params: Record<string, string> = {}): Promise<T[]> {
+  const items: T[] = [];
+  let cursor: string | undefined;
+  do {
+    const response = await api.get<T[]>(url, { params: cursor ? { ...params, cursor } : params });
+    items.push(...(response.data ?? []));
+    const next = response.headers[NEXT_CURSOR_HEADER];
+    cursor = typeof next === 'string' && next !== '' ? next : undefined;
+  } while (cursor);
+  return items;
+}
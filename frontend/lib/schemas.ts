@@ -78,7 +78,7 @@ export interface InvoiceRaw {
   id: number;
   subscriptionId: number;
   amount: number;
-  status: 'OPEN' | 'PAID' | 'VOID';
+  status: 'OPEN' | 'PROCESSING' | 'PAID' | 'VOID';
   dueDate: string;
   issuedAt: string;
 }
@@ -87,7 +87,7 @@ export interface Invoice {
   id: number;
   subscription: Subscription;
   amount: number;
-  status: 'OPEN' | 'PAID' | 'VOID';
+  status: 'OPEN' | 'PROCESSING' | 'PAID' | 'VOID';
   dueDate: string;
   issuedAt: string;
 }
@@ -97,7 +97,7 @@ export interface PaymentRaw {
   invoiceId: number;
   amount: number;
   method: 'CARD' | 'TRANSFER' | 'CASH';
-  status: 'SUCCESS' | 'FAILED';
+  status: 'PENDING' | 'SUCCESS' | 'FAILED';
   paidAt: string;
   reference: string;
 }
@@ -107,7 +107,7 @@ export interface Payment {
   invoice: Invoice;
   amount: number;
   method: 'CARD' | 'TRANSFER' | 'CASH';
-  status: 'SUCCESS' | 'FAILED';
+  status: 'PENDING' | 'SUCCESS' | 'FAILED';
   paidAt: string;
   reference: string;
 }
\ No newline at end of file
@@ -1,4 +1,5 @@
 import api from '@/lib/api';
+import { getAllPages } from '@/lib/pagination';
 import { Customer, CustomerSchema } from '@/lib/schemas';
 import { z } from 'zod';
 
@@ -7,8 +8,7 @@ type CustomerFormInputs = z.infer<typeof CustomerSchema>;
 export const customerService = {
   getAll: async (): Promise<Customer[]> => {
     try {
-      const response = await api.get<Customer[]>('/customers');
-      return response.data;
+      return await getAllPages<Customer>('/customers');
     } catch (error: any) {
       if (error.response?.status === 404) {
         return [];
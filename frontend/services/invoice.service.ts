@@ -1,13 +1,14 @@
 import api from '@/lib/api';
-import { Invoice, InvoiceRaw, Subscription } from '@/lib/schemas';
+import { getAllPages } from '@/lib/pagination';
+import { Invoice, InvoiceRaw, PaymentRaw, Subscription } from '@/lib/schemas';
 import { subscriptionService } from './subscription.service';
 
 export const invoiceService = {
   getAll: async (): Promise<Invoice[]> => {
     try {
-      const response = await api.get<InvoiceRaw[]>('/invoices');
+      const rawInvoices = await getAllPages<InvoiceRaw>('/invoices');
       
-      if (!response.data || response.data.length === 0) {
+      if (rawInvoices.length === 0) {
         return [];
       }
       
@@ -24,7 +25,7 @@ export const invoiceService = {
       });
       
       const invoicesWithSubscriptions: Invoice[] = await Promise.all(
-        response.data.map(async (rawInvoice) => {
+        rawInvoices.map(async (rawInvoice) => {
           let subscription: Subscription;
           
           if (subscriptionMap.has(rawInvoice.subscriptionId)) {
@@ -112,12 +113,14 @@ export const invoiceService = {
     }
   },
 
-  pay: async (id: number, method: 'CARD' | 'TRANSFER' | 'CASH'): Promise<void> => {
+  // El backend responde 202 con el pago en PENDING; el resultado final llega al refrescar la factura
+  pay: async (id: number, method: 'CARD' | 'TRANSFER' | 'CASH'): Promise<PaymentRaw> => {
     try {
       console.log(`Processing payment for invoice ${id} with method ${method}`);
       
-      const response = await api.post(`/invoices/${id}/pay`, { method });
-      console.log('Payment successful:', response);
+      const response = await api.post<PaymentRaw>(`/invoices/${id}/pay`, { method });
+      console.log('Payment accepted:', response);
+      return response.data;
       
     } catch (error: any) {
       console.error('Payment failed:', error);
@@ -134,21 +137,23 @@ export const invoiceService = {
         throw new Error('Factura no encontrada.');
       } else if (error.response?.status === 400) {
         throw new Error('Datos de pago inválidos.');
+      } else if (error.response?.status === 409) {
+        throw new Error('La factura ya tiene un pago en proceso o ya fue pagada.');
       } else {
         throw new Error('Error al procesar el pago. Intenta nuevamente.');
       }
     }
   },
 
-  getByStatus: async (status: 'OPEN' | 'PAID' | 'VOID'): Promise<Invoice[]> => {
-    const response = await api.get<InvoiceRaw[]>(`/invoices?status=${status}`);
+  getByStatus: async (status: Invoice['status']): Promise<Invoice[]> => {
+    const rawInvoices = await getAllPages<InvoiceRaw>('/invoices', { status });
     
-    if (!response.data || response.data.length === 0) {
+    if (rawInvoices.length === 0) {
       return [];
     }
     
     const invoicesWithSubscriptions: Invoice[] = await Promise.all(
-      response.data.map(async (rawInvoice) => {
+      rawInvoices.map(async (rawInvoice) => {
         try {
           const subscription = await subscriptionService.getById(rawInvoice.subscriptionId);
           return {
@@ -1,16 +1,17 @@
 import api from '@/lib/api';
+import { getAllPages } from '@/lib/pagination';
 import { Payment, PaymentRaw, Invoice, Subscription } from '@/lib/schemas';
 import { invoiceService } from './invoice.service';
 
 export const paymentService = {
   getAll: async (): Promise<Payment[]> => {
     try {
-      const response = await api.get<PaymentRaw[]>('/payments');
+      const rawPayments = await getAllPages<PaymentRaw>('/payments');
       
-      if (!response.data || response.data.length === 0) {
+      if (rawPayments.length === 0) {
         return [];
       }
-      const paymentsWithInvoices: Payment[] = response.data.map((rawPayment) => {
+      const paymentsWithInvoices: Payment[] = rawPayments.map((rawPayment) => {
         return {
           id: rawPayment.id,
           invoice: {
@@ -97,14 +98,14 @@ export const paymentService = {
     } as Payment;
   },
 
-  getByStatus: async (status: 'SUCCESS' | 'FAILED'): Promise<Payment[]> => {
-    const response = await api.get<PaymentRaw[]>(`/payments?status=${status}`);
+  getByStatus: async (status: Payment['status']): Promise<Payment[]> => {
+    const rawPayments = await getAllPages<PaymentRaw>('/payments', { status });
     
-    if (!response.data || response.data.length === 0) {
+    if (rawPayments.length === 0) {
       return [];
     }
     
-    return response.data.map((rawPayment) => ({
+    return rawPayments.map((rawPayment) => ({
       id: rawPayment.id,
       invoice: {
         id: rawPayment.invoiceId,
@@ -142,13 +143,13 @@ export const paymentService = {
   },
 
   getByMethod: async (method: 'CARD' | 'TRANSFER' | 'CASH'): Promise<Payment[]> => {
-    const response = await api.get<PaymentRaw[]>(`/payments?method=${method}`);
+    const rawPayments = await getAllPages<PaymentRaw>('/payments', { method });
     
-    if (!response.data || response.data.length === 0) {
+    if (rawPayments.length === 0) {
       return [];
     }
     
-    return response.data.map((rawPayment) => ({
+    return rawPayments.map((rawPayment) => ({
       id: rawPayment.id,
       invoice: {
         id: rawPayment.invoiceId,
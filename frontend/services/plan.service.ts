@@ -1,4 +1,5 @@
 import api from '@/lib/api';
+import { getAllPages } from '@/lib/pagination';
 import { Plan, PlanSchema } from '@/lib/schemas';
 import { z } from 'zod';
 
@@ -7,8 +8,7 @@ type PlanFormInputs = z.infer<typeof PlanSchema>;
 export const planService = {
   getAll: async (): Promise<Plan[]> => {
     try {
-      const response = await api.get<Plan[]>('/plans');
-      return response.data;
+      return await getAllPages<Plan>('/plans');
     } catch (error: any) {
       if (error.response?.status === 404) {
         return [];
@@ -1,4 +1,5 @@
 import api from '@/lib/api';
+import { getAllPages } from '@/lib/pagination';
 import { Subscription, SubscriptionSchema, UpdateSubscriptionSchema } from '@/lib/schemas';
 import { z } from 'zod';
 
@@ -8,8 +9,7 @@ type UpdateSubscriptionFormInputs = z.infer<typeof UpdateSubscriptionSchema>;
 export const subscriptionService = {
   getAll: async (): Promise<Subscription[]> => {
     try {
-      const response = await api.get<Subscription[]>('/subscriptions');
-      return response.data;
+      return await getAllPages<Subscription>('/subscriptions');
     } catch (error: any) {
       if (error.response?.status === 404) {
         return [];
@@ -19,8 +19,7 @@ export const subscriptionService = {
   },
 
   getByCustomer: async (customerId: number): Promise<Subscription[]> => {
-    const response = await api.get<Subscription[]>(`/subscriptions/customer/${customerId}`);
-    return response.data;
+    return getAllPages<Subscription>(`/subscriptions/customer/${customerId}`);
   },
 
   getById: async (id: number): Promise<Subscription> => {